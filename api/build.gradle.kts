@@ -24,6 +24,10 @@
 
 import com.github.jengelman.gradle.plugins.shadow.tasks.ShadowJar
 
+plugins {
+  alias(libs.plugins.jmh)
+}
+
 repositories {
   mavenLocal()
 }
@@ -32,6 +36,22 @@ dependencies {
   compileOnly(libs.gson)
   implementation(libs.geantyref)
   compileOnly("org.contrum.holograms:spigot:1.0.4")
+
+  // gson is provided by the platforms at runtime
+  jmh(libs.gson)
+  testImplementation(libs.gson)
+
+  testImplementation(platform(libs.junitBom))
+  testImplementation(libs.junitJupiter)
+  testRuntimeOnly(libs.junitLauncher)
+}
+
+tasks.withType<Test> {
+  useJUnitPlatform()
+}
+
+jmh {
+  jmhVersion.set(libs.versions.jmhCore)
 }
 
 tasks.withType<ShadowJar> {
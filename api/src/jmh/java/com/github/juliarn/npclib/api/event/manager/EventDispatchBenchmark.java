@@ -0,0 +1,167 @@
+/*
+ * This file is part of npc-lib, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022-2023 Julian M., Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.juliarn.npclib.api.event.manager;
+
+import com.github.juliarn.npclib.api.Npc;
+import com.github.juliarn.npclib.api.event.NpcEvent;
+import com.github.juliarn.npclib.api.log.PlatformLogger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EventDispatchBenchmark {
+
+  private static final int SUBSCRIBERS = 50;
+
+  // the base event receives all events, so posting a concrete event resolves subscribers across the hierarchy
+  private static final List<Class<? extends NpcEvent>> EVENT_TYPES = Arrays.asList(
+    BaseEvent.class,
+    Event1.class,
+    Event2.class,
+    Event3.class,
+    Event4.class,
+    Event5.class,
+    Event6.class,
+    Event7.class,
+    Event8.class,
+    Event9.class);
+
+  private final NpcEventManager eventManager = NpcEventManager.createDefault(false, PlatformLogger.nop());
+
+  // the linear scan over all subscribed event types which was used before the dispatch table
+  private final Map<Class<?>, List<NpcEventConsumer<NpcEvent>>> scannedSubscribers = new ConcurrentHashMap<>();
+
+  private final NpcEvent[] events = {new Event1(), new Event5(), new Event9()};
+  private int eventIndex;
+
+  private Blackhole blackhole;
+
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setup(Blackhole blackhole) {
+    this.blackhole = blackhole;
+    for (int i = 0; i < SUBSCRIBERS; i++) {
+      Class<NpcEvent> eventType = (Class<NpcEvent>) EVENT_TYPES.get(i % EVENT_TYPES.size());
+      NpcEventConsumer<NpcEvent> consumer = this::handle;
+
+      this.eventManager.registerEventHandler(eventType, consumer, i);
+      this.scannedSubscribers.computeIfAbsent(eventType, type -> new CopyOnWriteArrayList<>()).add(consumer);
+    }
+  }
+
+  private void handle(@NotNull NpcEvent event) {
+    this.blackhole.consume(event);
+  }
+
+  private @NotNull NpcEvent nextEvent() {
+    NpcEvent event = this.events[this.eventIndex];
+    this.eventIndex = (this.eventIndex + 1) % this.events.length;
+    return event;
+  }
+
+  @Benchmark
+  public NpcEvent scanSubscribers() throws Exception {
+    NpcEvent event = this.nextEvent();
+    for (Map.Entry<Class<?>, List<NpcEventConsumer<NpcEvent>>> entry : this.scannedSubscribers.entrySet()) {
+      if (entry.getKey().isInstance(event)) {
+        for (NpcEventConsumer<NpcEvent> consumer : entry.getValue()) {
+          consumer.handle(event);
+        }
+      }
+    }
+
+    return event;
+  }
+
+  @Benchmark
+  public NpcEvent dispatchTable() {
+    return this.eventManager.post(this.nextEvent());
+  }
+
+  public abstract static class BaseEvent implements NpcEvent {
+
+    @Override
+    public @NotNull <W, P, I, E> Npc<W, P, I, E> npc() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  public static final class Event1 extends BaseEvent {
+
+  }
+
+  public static final class Event2 extends BaseEvent {
+
+  }
+
+  public static final class Event3 extends BaseEvent {
+
+  }
+
+  public static final class Event4 extends BaseEvent {
+
+  }
+
+  public static final class Event5 extends BaseEvent {
+
+  }
+
+  public static final class Event6 extends BaseEvent {
+
+  }
+
+  public static final class Event7 extends BaseEvent {
+
+  }
+
+  public static final class Event8 extends BaseEvent {
+
+  }
+
+  public static final class Event9 extends BaseEvent {
+
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * This file is part of npc-lib, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022-2023 Julian M., Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.juliarn.npclib.api.profile;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MojangDecodingBenchmark {
+
+  // the tree based decoding which was used before the streaming decoder
+  private static final Gson GSON = new GsonBuilder()
+    .disableHtmlEscaping()
+    .registerTypeAdapter(ProfileProperty.class, (JsonDeserializer<ProfileProperty>) (json, type, context) -> {
+      JsonObject object = json.getAsJsonObject();
+      JsonElement signature = object.get("signature");
+      return ProfileProperty.property(
+        object.get("name").getAsString(),
+        object.get("value").getAsString(),
+        signature == null ? null : signature.getAsString());
+    })
+    .create();
+  private static final Type PROFILE_PROPERTIES_TYPE = new TypeToken<Set<ProfileProperty>>() {
+  }.getType();
+
+  private static final Pattern UUID_NO_DASH_PATTERN = Pattern.compile("-", Pattern.LITERAL);
+  private static final Pattern UUID_DASHER_PATTERN = Pattern.compile("(\\w{8})(\\w{4})(\\w{4})(\\w{4})(\\w{12})");
+
+  private UUID uniqueId;
+  private String rawUniqueId;
+
+  // response bodies in the format sent by the session server and the bulk profile endpoint
+  private String profileBody;
+  private String bulkBody;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    this.uniqueId = new UUID(random.nextLong(), random.nextLong());
+    this.rawUniqueId = MojangProfileResolver.formatUniqueId(this.uniqueId);
+
+    // textures are a base64 encoded json object, the signature is a base64 encoded 4096 bit rsa signature
+    String textures = "{\"timestamp\":1700000000000,\"profileId\":\"" + this.rawUniqueId + "\",\"profileName\":\"Notch\","
+      + "\"signatureRequired\":true,\"textures\":{\"SKIN\":{\"url\":\"http://textures.minecraft.net/texture/"
+      + "292009a4925b58f02c77dadc3ecef07ea4c7472f64e0fdc32ce5522489362680\"}}}";
+    byte[] signature = new byte[512];
+    random.nextBytes(signature);
+
+    this.profileBody = "{\"id\":\"" + this.rawUniqueId + "\",\"name\":\"Notch\",\"properties\":[{\"name\":\"textures\","
+      + "\"value\":\"" + Base64.getEncoder().encodeToString(textures.getBytes(StandardCharsets.UTF_8)) + "\","
+      + "\"signature\":\"" + Base64.getEncoder().encodeToString(signature) + "\"}],\"profileActions\":[]}";
+
+    StringBuilder bulkBody = new StringBuilder("[");
+    for (int i = 0; i < 10; i++) {
+      UUID bulkUniqueId = new UUID(random.nextLong(), random.nextLong());
+      if (i > 0) {
+        bulkBody.append(',');
+      }
+      bulkBody
+        .append("{\"id\":\"").append(MojangProfileResolver.formatUniqueId(bulkUniqueId))
+        .append("\",\"name\":\"Player").append(i).append("\"}");
+    }
+    this.bulkBody = bulkBody.append(']').toString();
+  }
+
+  private static @NotNull UUID parseUniqueIdWithRegex(@NotNull String rawUniqueId) {
+    String dashedId = UUID_DASHER_PATTERN.matcher(rawUniqueId).replaceAll("$1-$2-$3-$4-$5");
+    return UUID.fromString(dashedId);
+  }
+
+  @Benchmark
+  public Profile.Resolved treeDecodeProfile() {
+    JsonObject responseData = JsonParser.parseReader(new StringReader(this.profileBody)).getAsJsonObject();
+    String name = responseData.get("name").getAsString();
+    Set<ProfileProperty> properties = GSON.fromJson(responseData.get("properties"), PROFILE_PROPERTIES_TYPE);
+    return Profile.resolved(name, this.uniqueId, properties);
+  }
+
+  @Benchmark
+  public Profile.Resolved streamingDecodeProfile() throws IOException {
+    JsonReader reader = new JsonReader(new StringReader(this.profileBody));
+    return MojangProfileResolver.decodeProfile(reader, this.uniqueId);
+  }
+
+  @Benchmark
+  public Map<String, UUID> treeDecodeUniqueIds() {
+    Map<String, UUID> uniqueIds = new HashMap<>();
+    JsonArray responseData = JsonParser.parseReader(new StringReader(this.bulkBody)).getAsJsonArray();
+    for (JsonElement element : responseData) {
+      JsonObject profile = element.getAsJsonObject();
+      uniqueIds.put(profile.get("name").getAsString(), parseUniqueIdWithRegex(profile.get("id").getAsString()));
+    }
+
+    return uniqueIds;
+  }
+
+  @Benchmark
+  public Map<String, UUID> streamingDecodeUniqueIds() throws IOException {
+    JsonReader reader = new JsonReader(new StringReader(this.bulkBody));
+    return MojangProfileResolver.decodeUniqueIds(reader);
+  }
+
+  @Benchmark
+  public UUID regexParseUniqueId() {
+    return parseUniqueIdWithRegex(this.rawUniqueId);
+  }
+
+  @Benchmark
+  public UUID hexParseUniqueId() {
+    return MojangProfileResolver.parseUniqueId(this.rawUniqueId);
+  }
+
+  @Benchmark
+  public String regexFormatUniqueId() {
+    return UUID_NO_DASH_PATTERN.matcher(this.uniqueId.toString()).replaceAll("");
+  }
+
+  @Benchmark
+  public String hexFormatUniqueId() {
+    return MojangProfileResolver.formatUniqueId(this.uniqueId);
+  }
+}
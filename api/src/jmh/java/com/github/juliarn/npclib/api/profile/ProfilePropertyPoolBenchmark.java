@@ -0,0 +1,122 @@
+/*
+ * This file is part of npc-lib, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022-2023 Julian M., Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.juliarn.npclib.api.profile;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// reports the heap retained by the properties of 5000 profiles sharing 60 skins in the retainedKilobytes counter
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class ProfilePropertyPoolBenchmark {
+
+  private static final int PROFILES = 5000;
+  private static final int SKINS = 60;
+
+  @Param({"true", "false"})
+  public boolean pooled;
+
+  private final String[] values = new String[SKINS];
+  private final String[] signatures = new String[SKINS];
+
+  @Setup
+  public void setup() {
+    // texture values and signatures are about 1-2 kb of base64 encoded data each
+    Random random = new Random(42);
+    for (int i = 0; i < SKINS; i++) {
+      byte[] value = new byte[600];
+      byte[] signature = new byte[512];
+      random.nextBytes(value);
+      random.nextBytes(signature);
+
+      this.values[i] = Base64.getEncoder().encodeToString(value);
+      this.signatures[i] = Base64.getEncoder().encodeToString(signature);
+    }
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  @Benchmark
+  public List<Set<ProfileProperty>> retainProfileProperties(HeapCounters counters) {
+    long heapBefore = usedHeap();
+
+    List<Set<ProfileProperty>> profileProperties = new ArrayList<>(PROFILES);
+    for (int i = 0; i < PROFILES; i++) {
+      // every decoded response carries its own copy of the texture strings
+      int skin = i % SKINS;
+      String value = new String(this.values[skin].toCharArray());
+      String signature = new String(this.signatures[skin].toCharArray());
+
+      Set<ProfileProperty> properties = new HashSet<>();
+      if (this.pooled) {
+        // the same as a resolved profile does with the properties it receives
+        properties.add(ProfileProperty.property("textures", value, signature));
+        profileProperties.add(ProfilePropertyPool.intern(properties));
+      } else {
+        // bypass the pools, like all profiles did before
+        properties.add(new DefaultProfileProperty("textures", value, signature));
+        profileProperties.add(properties);
+      }
+    }
+
+    counters.retainedKilobytes = (usedHeap() - heapBefore) / 1024;
+    return profileProperties;
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class HeapCounters {
+
+    public long retainedKilobytes;
+  }
+}
@@ -29,6 +29,7 @@
 import com.github.juliarn.npclib.api.flag.NpcFlaggedObject;
 import com.github.juliarn.npclib.api.profile.Profile;
 import com.github.juliarn.npclib.api.profile.ProfileResolver;
+import com.github.juliarn.npclib.api.protocol.NpcPacketCache;
 import com.github.juliarn.npclib.api.protocol.NpcSpecificOutboundPacket;
 import com.github.juliarn.npclib.api.protocol.enums.EntityAnimation;
 import com.github.juliarn.npclib.api.protocol.enums.ItemSlot;
@@ -36,11 +37,13 @@
 import com.github.juliarn.npclib.api.settings.NpcSettings;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 import org.contrum.holograms.api.Hologram;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
 import org.jetbrains.annotations.UnmodifiableView;
 
 public interface Npc<W, P, I, E> extends NpcFlaggedObject {
@@ -48,6 +51,7 @@
   NpcFlag<Boolean> LOOK_AT_PLAYER = NpcFlag.flag("imitate_player_look", false);
   NpcFlag<Boolean> HIT_WHEN_PLAYER_HITS = NpcFlag.flag("imitate_player_hit", false);
   NpcFlag<Boolean> SNEAK_WHEN_PLAYER_SNEAKS = NpcFlag.flag("imitate_player_sneak", false);
+  NpcFlag<Boolean> BUNDLE_SPAWN_PACKETS = NpcFlag.flag("bundle_spawn_packets", false);
 
   int entityId();
 
@@ -65,6 +69,8 @@
 
   @NotNull Platform<W, P, I, E> platform();
 
+  @NotNull NpcPacketCache packetCache();
+
   @NotNull NpcTracker<W, P, I, E> npcTracker();
 
   boolean shouldIncludePlayer(@NotNull P player);
@@ -97,6 +103,8 @@
 
   @NotNull NpcSpecificOutboundPacket<W, P, I, E> changeItem(@NotNull ItemSlot slot, @NotNull I item);
 
+  @NotNull NpcSpecificOutboundPacket<W, P, I, E> changeItems(@NotNull Map<ItemSlot, I> items);
+
   @NotNull Npc<W, P, I, E> lookAtPlayer(@NotNull P player, @NotNull Position position);
 
   @NotNull Npc<W,P, I, E> addCommand(@NotNull String command);
@@ -110,10 +118,15 @@
 
   I equipment(@NotNull ItemSlot slot);
 
+  @Unmodifiable
+  @NotNull Map<ItemSlot, I> equipment();
+
   @NotNull <T, O> NpcSpecificOutboundPacket<W, P, I, E> changeMetadata(
     @NotNull EntityMetadataFactory<T, O> metadata,
     @NotNull T value);
 
+  <T, O> void changeMetadata(@NotNull P player, @NotNull EntityMetadataFactory<T, O> metadata, @NotNull T value);
+
   Hologram hologram();
 
   Npc<W, P, I, E> hologram(Hologram hologram);
@@ -24,6 +24,7 @@
 
 package com.github.juliarn.npclib.api;
 
+import com.github.juliarn.npclib.api.profile.Profile;
 import java.util.Collection;
 import java.util.UUID;
 import org.jetbrains.annotations.NotNull;
@@ -32,6 +33,9 @@
 
 public interface NpcTracker<W, P, I, E> {
 
+  default void initialize(@NotNull Platform<W, P, I, E> platform) {
+  }
+
   @Nullable Npc<W, P, I, E> npcById(int entityId);
 
   @Nullable Npc<W, P, I, E> npcByUniqueId(@NotNull UUID uniqueId);
@@ -40,10 +44,22 @@
 
   void stopTrackingNpc(@NotNull Npc<W, P, I, E> npc);
 
+  void updateNpcPosition(@NotNull Npc<W, P, I, E> npc);
+
+  void updateNpcProfile(@NotNull Npc<W, P, I, E> npc, @NotNull Profile.Resolved previousProfile);
+
+  @NotNull Collection<Npc<W, P, I, E>> npcsNear(@NotNull W world, double x, double y, double z, double radius);
+
   @UnmodifiableView
   @NotNull Collection<Npc<W, P, I, E>> trackedNpcs();
 
   void addToQueue(@NotNull P player, @NotNull Npc<W, P, I, E> npc);
 
   void removeFromQueue(@NotNull P player, @NotNull Npc<W, P, I, E> npc);
+
+  void trackPlayer(@NotNull P player, @NotNull Collection<Npc<W, P, I, E>> npcs);
+
+  void stopTrackingPlayer(@NotNull P player, @NotNull Collection<Npc<W, P, I, E>> npcs);
+
+  void stopTrackingPlayer(@NotNull P player);
 }
@@ -48,6 +48,8 @@
 
   @NotNull PlatformTaskManager taskManager();
 
+  @NotNull NpcUpdateScheduler updateScheduler();
+
   @NotNull Npc.Builder<W, P, I, E> newNpcBuilder();
 
   @NotNull PlatformVersionAccessor versionAccessor();
@@ -72,6 +74,8 @@
 
     @NotNull Builder<W, P, I, E> taskManager(@NotNull PlatformTaskManager taskManager);
 
+    @NotNull Builder<W, P, I, E> updateScheduler(@NotNull NpcUpdateScheduler updateScheduler);
+
     @NotNull Builder<W, P, I, E> profileResolver(@NotNull ProfileResolver profileResolver);
 
     @NotNull Builder<W, P, I, E> worldAccessor(@NotNull PlatformWorldAccessor<W> worldAccessor);
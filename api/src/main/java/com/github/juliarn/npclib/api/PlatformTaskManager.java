@@ -32,7 +32,11 @@ public interface PlatformTaskManager {
 
   void scheduleDelayedSync(@NotNull Runnable task, int delayTicks);
 
+  void scheduleRepeatingSync(@NotNull Runnable task, int delayTicks, int periodTicks);
+
   void scheduleAsync(@NotNull Runnable task);
 
   void scheduleDelayedAsync(@NotNull Runnable task, int delayTicks);
+
+  void scheduleRepeatingAsync(@NotNull Runnable task, int delayTicks, int periodTicks);
 }
@@ -27,12 +27,16 @@
 import com.github.juliarn.npclib.api.event.CancellableNpcEvent;
 import com.github.juliarn.npclib.api.event.NpcEvent;
 import com.github.juliarn.npclib.api.log.PlatformLogger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import org.jetbrains.annotations.NotNull;
 
@@ -40,16 +44,37 @@ final class DefaultNpcEventManager implements NpcEventManager {
 
   private static final Comparator<NpcEventSubscription<? super NpcEvent>> SUBSCRIPTION_COMPARABLE =
     Comparator.comparingInt(NpcEventSubscription::order);
+  private static final NpcEventSubscription<? super NpcEvent>[] NO_SUBSCRIPTIONS = newSubscriptionArray(0);
 
   private final boolean debugEnabled;
   private final PlatformLogger platformLogger;
 
+  private final boolean instrumented;
+  private final long slowThresholdNanos;
+
   private final Map<Class<?>, List<NpcEventSubscription<? super NpcEvent>>> registeredSubscribers =
     new ConcurrentHashMap<>(16, 0.9f, 1);
 
-  public DefaultNpcEventManager(boolean debugEnabled, @NotNull PlatformLogger logger) {
+  // the ordered subscriptions for each posted event class, replaced as a whole when a subscription changes
+  // so that a table which is resolved concurrently to the change can never be used again
+  private volatile Map<Class<?>, NpcEventSubscription<? super NpcEvent>[]> dispatchTable = new ConcurrentHashMap<>();
+  private volatile Map<Class<?>, Boolean> subscriberLookup = new ConcurrentHashMap<>();
+
+  public DefaultNpcEventManager(
+    boolean debugEnabled,
+    @NotNull PlatformLogger logger,
+    boolean instrumented,
+    long slowThresholdNanos
+  ) {
     this.debugEnabled = debugEnabled;
     this.platformLogger = logger;
+    this.instrumented = instrumented;
+    this.slowThresholdNanos = slowThresholdNanos;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static @NotNull NpcEventSubscription<? super NpcEvent>[] newSubscriptionArray(int size) {
+    return (NpcEventSubscription<? super NpcEvent>[]) new NpcEventSubscription<?>[size];
   }
 
   private static boolean isEventCancelled(@NotNull NpcEvent event) {
@@ -60,39 +85,100 @@ private static boolean isEventCancelled(@NotNull NpcEvent event) {
   public <E extends NpcEvent> @NotNull E post(@NotNull E event) {
     Objects.requireNonNull(event, "event");
 
-    for (Map.Entry<Class<?>, List<NpcEventSubscription<? super NpcEvent>>> entry : this.registeredSubscribers.entrySet()) {
-      Class<?> subscribedEventType = entry.getKey();
-      List<NpcEventSubscription<? super NpcEvent>> subscriptions = entry.getValue();
-
-      if (subscribedEventType.isInstance(event) && !subscriptions.isEmpty()) {
-        for (NpcEventSubscription<? super E> subscription : subscriptions) {
-          // once the event was cancelled we don't want to post it to any further subscribers
-          boolean eventWasCancelled = isEventCancelled(event);
-          if (eventWasCancelled) {
-            break;
-          }
-
-          try {
-            subscription.eventConsumer().handle(event);
-          } catch (Throwable throwable) {
-            EventExceptionHandler.rethrowFatalException(throwable);
-            if (this.debugEnabled) {
-              // not a fatal exception but debug is enabled to we log it anyway
-              this.platformLogger.error(
-                String.format(
-                  "Subscriber %s was unable to handle %s",
-                  subscription.eventConsumer().getClass().getName(),
-                  event.getClass().getSimpleName()),
-                throwable);
-            }
-          }
-        }
+    Map<Class<?>, NpcEventSubscription<? super NpcEvent>[]> dispatchTable = this.dispatchTable;
+    NpcEventSubscription<? super NpcEvent>[] subscriptions = dispatchTable.computeIfAbsent(
+      event.getClass(),
+      this::resolveSubscriptions);
+
+    for (NpcEventSubscription<? super E> subscription : subscriptions) {
+      // once the event was cancelled we don't want to post it to any further subscribers
+      boolean eventWasCancelled = isEventCancelled(event);
+      if (eventWasCancelled) {
+        break;
+      }
+
+      if (this.instrumented) {
+        this.postInstrumented(subscription, event);
+      } else {
+        this.postToSubscription(subscription, event);
       }
     }
 
     return event;
   }
 
+  private <E extends NpcEvent> boolean postToSubscription(
+    @NotNull NpcEventSubscription<? super E> subscription,
+    @NotNull E event
+  ) {
+    try {
+      subscription.eventConsumer().handle(event);
+      return true;
+    } catch (Throwable throwable) {
+      EventExceptionHandler.rethrowFatalException(throwable);
+      if (this.debugEnabled) {
+        // not a fatal exception but debug is enabled to we log it anyway
+        this.platformLogger.error(
+          String.format(
+            "Subscriber %s was unable to handle %s",
+            subscription.eventConsumer().getClass().getName(),
+            event.getClass().getSimpleName()),
+          throwable);
+      }
+      return false;
+    }
+  }
+
+  private <E extends NpcEvent> void postInstrumented(
+    @NotNull NpcEventSubscription<? super E> subscription,
+    @NotNull E event
+  ) {
+    long startTime = System.nanoTime();
+    boolean successful = false;
+    try {
+      successful = this.postToSubscription(subscription, event);
+    } finally {
+      // fatal exceptions are rethrown, they are counted as failed invocations
+      long duration = System.nanoTime() - startTime;
+      DefaultNpcEventSubscriptionStats stats = ((DefaultNpcEventSubscription<?>) subscription).stats();
+      if (stats.recordInvocation(duration, !successful, this.slowThresholdNanos)) {
+        this.platformLogger.warning(String.format(
+          "Subscriber %s took %dms to handle %s (threshold: %dms)",
+          subscription.eventConsumer().getClass().getName(),
+          TimeUnit.NANOSECONDS.toMillis(duration),
+          event.getClass().getSimpleName(),
+          TimeUnit.NANOSECONDS.toMillis(this.slowThresholdNanos)));
+      }
+    }
+  }
+
+  @Override
+  public boolean hasSubscribers(@NotNull Class<? extends NpcEvent> eventType) {
+    Objects.requireNonNull(eventType, "eventType");
+    return this.subscriberLookup.computeIfAbsent(eventType, this::resolveHasSubscribers);
+  }
+
+  @Override
+  public boolean instrumented() {
+    return this.instrumented;
+  }
+
+  @Override
+  public @NotNull Collection<NpcEventSubscriptionStats> subscriptionStats() {
+    if (!this.instrumented) {
+      return Collections.emptyList();
+    }
+
+    List<NpcEventSubscriptionStats> stats = new ArrayList<>();
+    for (List<NpcEventSubscription<? super NpcEvent>> subscriptions : this.registeredSubscribers.values()) {
+      for (NpcEventSubscription<? super NpcEvent> subscription : subscriptions) {
+        stats.add(((DefaultNpcEventSubscription<?>) subscription).stats());
+      }
+    }
+
+    return stats;
+  }
+
   @Override
   public <E extends NpcEvent> @NotNull NpcEventSubscription<? super E> registerEventHandler(
     @NotNull Class<E> eventType,
@@ -119,7 +205,7 @@ private static boolean isEventCancelled(@NotNull NpcEvent event) {
       __ -> new CopyOnWriteArrayList<>());
     eventSubscriptions.add((NpcEventSubscription<? super NpcEvent>) subscription);
 
-    eventSubscriptions.sort(SUBSCRIPTION_COMPARABLE);
+    this.invalidateDispatchTable();
     return subscription;
   }
 
@@ -128,13 +214,51 @@ public void unregisterEventHandlerIf(@NotNull Predicate<NpcEventSubscription<? s
     for (List<NpcEventSubscription<? super NpcEvent>> subscriptions : this.registeredSubscribers.values()) {
       subscriptions.removeIf(subscriptionFilter);
     }
+
+    this.invalidateDispatchTable();
   }
 
   void removeSubscription(@NotNull NpcEventSubscription<?> subscription) {
     List<NpcEventSubscription<? super NpcEvent>> subscriptions = this.registeredSubscribers.get(
       subscription.eventType());
-    if (subscriptions != null) {
-      subscriptions.remove(subscription);
+    if (subscriptions != null && subscriptions.remove(subscription)) {
+      this.invalidateDispatchTable();
     }
   }
+
+  private void invalidateDispatchTable() {
+    this.dispatchTable = new ConcurrentHashMap<>();
+    this.subscriberLookup = new ConcurrentHashMap<>();
+  }
+
+  private boolean resolveHasSubscribers(@NotNull Class<?> eventType) {
+    // the posted event might be a subtype of the given type, so subscriptions to a subtype count as well
+    for (Map.Entry<Class<?>, List<NpcEventSubscription<? super NpcEvent>>> entry : this.registeredSubscribers.entrySet()) {
+      Class<?> subscribedEventType = entry.getKey();
+      if (!entry.getValue().isEmpty()
+        && (subscribedEventType.isAssignableFrom(eventType) || eventType.isAssignableFrom(subscribedEventType))) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private @NotNull NpcEventSubscription<? super NpcEvent>[] resolveSubscriptions(@NotNull Class<?> eventClass) {
+    // collect the subscriptions of all event types the event class is assignable to
+    List<NpcEventSubscription<? super NpcEvent>> subscriptions = new ArrayList<>();
+    for (Map.Entry<Class<?>, List<NpcEventSubscription<? super NpcEvent>>> entry : this.registeredSubscribers.entrySet()) {
+      if (entry.getKey().isAssignableFrom(eventClass)) {
+        subscriptions.addAll(entry.getValue());
+      }
+    }
+
+    if (subscriptions.isEmpty()) {
+      return NO_SUBSCRIPTIONS;
+    }
+
+    // stable sort, subscriptions with the same order keep their registration order
+    subscriptions.sort(SUBSCRIPTION_COMPARABLE);
+    return subscriptions.toArray(newSubscriptionArray(subscriptions.size()));
+  }
 }
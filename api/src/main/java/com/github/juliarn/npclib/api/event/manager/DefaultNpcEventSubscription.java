@@ -34,6 +34,7 @@
   private final NpcEventConsumer<E> consumer;
 
   private final DefaultNpcEventManager eventManager;
+  private final DefaultNpcEventSubscriptionStats stats = new DefaultNpcEventSubscriptionStats(this);
 
   public DefaultNpcEventSubscription(
     int order,
@@ -62,6 +63,10 @@ public int order() {
     return this.consumer;
   }
 
+  @NotNull DefaultNpcEventSubscriptionStats stats() {
+    return this.stats;
+  }
+
   @Override
   public void dispose() {
     this.eventManager.removeSubscription(this);
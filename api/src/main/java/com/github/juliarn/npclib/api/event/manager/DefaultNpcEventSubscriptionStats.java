@@ -0,0 +1,93 @@
+/*
+ * This file is part of npc-lib, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022-2023 Julian M., Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.juliarn.npclib.api.event.manager;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.jetbrains.annotations.NotNull;
+
+final class DefaultNpcEventSubscriptionStats implements NpcEventSubscriptionStats {
+
+  private final NpcEventSubscription<?> subscription;
+
+  private final LongAdder invocations = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final AtomicLong maxNanos = new AtomicLong();
+  private final LongAdder exceptions = new LongAdder();
+  private final LongAdder slowInvocations = new LongAdder();
+
+  public DefaultNpcEventSubscriptionStats(@NotNull NpcEventSubscription<?> subscription) {
+    this.subscription = subscription;
+  }
+
+  boolean recordInvocation(long nanos, boolean failed, long slowThresholdNanos) {
+    this.invocations.increment();
+    this.totalNanos.add(nanos);
+    this.maxNanos.accumulateAndGet(nanos, Math::max);
+
+    if (failed) {
+      this.exceptions.increment();
+    }
+
+    // returns true if this was the first slow invocation of the subscription
+    if (slowThresholdNanos > 0 && nanos >= slowThresholdNanos) {
+      boolean first = this.slowInvocations.sum() == 0;
+      this.slowInvocations.increment();
+      return first;
+    }
+
+    return false;
+  }
+
+  @Override
+  public @NotNull NpcEventSubscription<?> subscription() {
+    return this.subscription;
+  }
+
+  @Override
+  public long invocations() {
+    return this.invocations.sum();
+  }
+
+  @Override
+  public long totalNanos() {
+    return this.totalNanos.sum();
+  }
+
+  @Override
+  public long maxNanos() {
+    return this.maxNanos.get();
+  }
+
+  @Override
+  public long exceptions() {
+    return this.exceptions.sum();
+  }
+
+  @Override
+  public long slowInvocations() {
+    return this.slowInvocations.sum();
+  }
+}
@@ -26,6 +26,7 @@
 
 import com.github.juliarn.npclib.api.event.NpcEvent;
 import com.github.juliarn.npclib.api.log.PlatformLogger;
+import java.util.Collection;
 import java.util.Objects;
 import java.util.function.Predicate;
 import org.jetbrains.annotations.Contract;
@@ -36,12 +37,28 @@ public interface NpcEventManager {
   @Contract("_, _ -> new")
   static @NotNull NpcEventManager createDefault(boolean debugEnabled, @NotNull PlatformLogger logger) {
     Objects.requireNonNull(logger, "logger");
-    return new DefaultNpcEventManager(debugEnabled, logger);
+    return new DefaultNpcEventManager(debugEnabled, logger, false, 0);
+  }
+
+  @Contract("_, _, _ -> new")
+  static @NotNull NpcEventManager createInstrumented(
+    boolean debugEnabled,
+    @NotNull PlatformLogger logger,
+    long slowThresholdNanos
+  ) {
+    Objects.requireNonNull(logger, "logger");
+    return new DefaultNpcEventManager(debugEnabled, logger, true, slowThresholdNanos);
   }
 
   @Contract("_ -> param1")
   <E extends NpcEvent> @NotNull E post(@NotNull E event);
 
+  boolean hasSubscribers(@NotNull Class<? extends NpcEvent> eventType);
+
+  boolean instrumented();
+
+  @NotNull Collection<NpcEventSubscriptionStats> subscriptionStats();
+
   <E extends NpcEvent> @NotNull NpcEventSubscription<? super E> registerEventHandler(
     @NotNull Class<E> eventType,
     @NotNull NpcEventConsumer<E> consumer);
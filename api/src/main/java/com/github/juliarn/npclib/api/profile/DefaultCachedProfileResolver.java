@@ -24,77 +24,189 @@
 
 package com.github.juliarn.npclib.api.profile;
 
-import java.util.HashMap;
+import com.github.juliarn.npclib.api.log.PlatformLogger;
+import java.lang.ref.WeakReference;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 final class DefaultCachedProfileResolver implements ProfileResolver.Cached {
 
-  private static final long ENTRY_KEEP_ALIVE_TIME = TimeUnit.HOURS.toMillis(3);
+  static final int DEFAULT_MAX_SIZE = 10_000;
+  static final long DEFAULT_ENTRY_KEEP_ALIVE_TIME = TimeUnit.HOURS.toMillis(3);
+
+  private static final long CLEANUP_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+  // runs the cleanup of all caches and all file io of the persistent tier, keeping it away from the callers
+  private static final ScheduledExecutorService CLEANUP_EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread thread = new Thread(r, "npc-lib Profile Cache Cleanup");
+    thread.setDaemon(true);
+    return thread;
+  });
 
   private final ProfileResolver delegate;
+  private final long entryKeepAliveMillis;
+
+  private final LruCache<String, UUID> nameToUniqueIdCache;
+  private final LruCache<UUID, Profile.Resolved> uuidToProfileCache;
+
+  // optional persistent tier, loaded into memory asynchronously after construction
+  private final PlatformLogger logger;
+  private final ProfileCacheFile cacheFile;
+  private final CompletableFuture<Void> cacheFileLoad;
+
+  // resolve requests which are currently running, keyed by the profile id or name
+  private final Map<Object, CompletableFuture<Profile.Resolved>> inflightRequests = new ConcurrentHashMap<>();
 
-  // using HashMap here might lead to inconsistent result views, but that doesn't matter in the context
-  private final Map<String, CacheEntry<UUID>> nameToUniqueIdCache = new HashMap<>();
-  private final Map<UUID, CacheEntry<Profile.Resolved>> uuidToProfileCache = new HashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
 
-  public DefaultCachedProfileResolver(@NotNull ProfileResolver delegate) {
+  public DefaultCachedProfileResolver(
+    @NotNull ProfileResolver delegate,
+    int maxSize,
+    long entryKeepAliveMillis,
+    @Nullable Path cacheFile,
+    @NotNull PlatformLogger logger
+  ) {
     this.delegate = delegate;
-  }
+    this.logger = logger;
+    this.entryKeepAliveMillis = entryKeepAliveMillis;
+    this.nameToUniqueIdCache = new LruCache<>(maxSize, this.evictions);
+    this.uuidToProfileCache = new LruCache<>(maxSize, this.evictions);
+    this.cacheFile = cacheFile == null ? null : new ProfileCacheFile(cacheFile, logger);
+    this.cacheFileLoad = cacheFile == null
+      ? CompletableFuture.completedFuture(null)
+      : CompletableFuture.runAsync(this::loadCacheFile, CLEANUP_EXECUTOR);
 
-  private static @Nullable <K, V> V findCacheEntry(@NotNull Map<K, CacheEntry<V>> cache, @NotNull K key) {
-    // check if an entry is associated with the given key
-    CacheEntry<V> entry = cache.get(key);
-    if (entry == null) {
-      return null;
-    }
+    scheduleCleanup(this);
+  }
 
-    // check if the entry is outdated
-    if (entry.timeoutTime <= System.currentTimeMillis()) {
-      cache.remove(key);
-      return null;
-    }
+  private static void scheduleCleanup(@NotNull DefaultCachedProfileResolver resolver) {
+    // only weakly reference the resolver, the cleanup task is cancelled once it was garbage collected
+    WeakReference<DefaultCachedProfileResolver> resolverReference = new WeakReference<>(resolver);
+    AtomicReference<ScheduledFuture<?>> taskReference = new AtomicReference<>();
+    taskReference.set(CLEANUP_EXECUTOR.scheduleWithFixedDelay(() -> {
+      DefaultCachedProfileResolver target = resolverReference.get();
+      if (target == null) {
+        ScheduledFuture<?> task = taskReference.get();
+        if (task != null) {
+          task.cancel(false);
+        }
+        return;
+      }
 
-    // all fine
-    return entry.value;
+      long now = System.currentTimeMillis();
+      target.nameToUniqueIdCache.removeExpired(now);
+      target.uuidToProfileCache.removeExpired(now);
+    }, CLEANUP_INTERVAL_MILLIS, CLEANUP_INTERVAL_MILLIS, TimeUnit.MILLISECONDS));
   }
 
   @Override
   public @NotNull CompletableFuture<Profile.Resolved> resolveProfile(@NotNull Profile profile) {
+    // wait for the persistent tier before asking the delegate, it might know the profile already
+    if (!this.cacheFileLoad.isDone()) {
+      return this.cacheFileLoad.thenCompose($ -> this.resolveProfile(profile));
+    }
+
     // check if we can get the profile instantly from the cache
     Profile.Resolved cached = this.fromCache(profile);
     if (cached != null) {
+      this.hits.increment();
       return CompletableFuture.completedFuture(cached);
     }
 
+    this.misses.increment();
+
+    // join a running request for the same profile if there is one
+    Object requestKey = profile.uniqueId() != null ? profile.uniqueId() : profile.name();
+    if (requestKey == null) {
+      return this.delegate.resolveProfile(profile);
+    }
+
+    CompletableFuture<Profile.Resolved> request = new CompletableFuture<>();
+    CompletableFuture<Profile.Resolved> runningRequest = this.inflightRequests.putIfAbsent(requestKey, request);
+    if (runningRequest != null) {
+      return runningRequest.thenApply(Function.identity());
+    }
+
     // try to complete using the delegate resolver
-    return this.delegate.resolveProfile(profile).whenComplete((resolvedProfile, exception) -> {
-      // don't do anything if the operation wasn't successful
+    CompletableFuture<Profile.Resolved> delegateRequest;
+    try {
+      delegateRequest = this.delegate.resolveProfile(profile);
+    } catch (RuntimeException exception) {
+      this.inflightRequests.remove(requestKey, request);
+      request.completeExceptionally(exception);
+      return request;
+    }
+
+    delegateRequest.whenComplete((resolvedProfile, exception) -> {
+      // don't cache anything if the operation wasn't successful
       if (exception == null && resolvedProfile != null) {
         // cache the result, override possible values which were previously inserted to reset the keep alive time
-        this.nameToUniqueIdCache.put(
-          resolvedProfile.name(),
-          new CacheEntry<>(resolvedProfile.uniqueId(), ENTRY_KEEP_ALIVE_TIME));
-        this.uuidToProfileCache.put(
-          resolvedProfile.uniqueId(),
-          new CacheEntry<>(resolvedProfile, ENTRY_KEEP_ALIVE_TIME));
+        long timeoutTime = System.currentTimeMillis() + this.entryKeepAliveMillis;
+        this.putInMemory(resolvedProfile, timeoutTime);
+        if (this.cacheFile != null) {
+          CLEANUP_EXECUTOR.execute(() -> this.cacheFile.append(resolvedProfile, timeoutTime));
+        }
+      }
+
+      // remove the request before completing it, later requests are answered by the cache
+      this.inflightRequests.remove(requestKey, request);
+      if (exception != null) {
+        request.completeExceptionally(exception);
+      } else {
+        request.complete(resolvedProfile);
       }
     });
+
+    // don't expose the shared future, a caller completing it would complete it for all waiting callers
+    return request.thenApply(Function.identity());
+  }
+
+  private void putInMemory(@NotNull Profile.Resolved profile, long timeoutTime) {
+    this.nameToUniqueIdCache.put(profile.name(), profile.uniqueId(), timeoutTime);
+    this.uuidToProfileCache.put(profile.uniqueId(), profile, timeoutTime);
+  }
+
+  private void loadCacheFile() {
+    try {
+      // the records keep their original timeout time, expired ones are not loaded
+      long now = System.currentTimeMillis();
+      Map<UUID, ProfileCacheFile.CacheRecord> records = this.cacheFile.load(now);
+      for (ProfileCacheFile.CacheRecord record : records.values()) {
+        // profiles which were resolved in the meantime are newer than the persisted ones
+        if (this.uuidToProfileCache.get(record.profile.uniqueId(), now) == null) {
+          this.putInMemory(record.profile, record.timeoutTime);
+        }
+      }
+    } catch (RuntimeException exception) {
+      // the persistent tier is best effort, the cache just starts empty if the file can't be loaded
+      this.logger.error("Unable to load profile cache file", exception);
+    }
   }
 
   @Override
   public @Nullable Profile.Resolved fromCache(@NotNull String name) {
-    UUID cachedUniqueId = findCacheEntry(this.nameToUniqueIdCache, name);
+    UUID cachedUniqueId = this.nameToUniqueIdCache.get(name, System.currentTimeMillis());
     return cachedUniqueId == null ? null : this.fromCache(cachedUniqueId);
   }
 
   @Override
   public @Nullable Profile.Resolved fromCache(@NotNull UUID uniqueId) {
-    return findCacheEntry(this.uuidToProfileCache, uniqueId);
+    return this.uuidToProfileCache.get(uniqueId, System.currentTimeMillis());
   }
 
   @Override
@@ -118,14 +230,78 @@ public DefaultCachedProfileResolver(@NotNull ProfileResolver delegate) {
     return null;
   }
 
+  @Override
+  public long hitCount() {
+    return this.hits.sum();
+  }
+
+  @Override
+  public long missCount() {
+    return this.misses.sum();
+  }
+
+  @Override
+  public long evictionCount() {
+    return this.evictions.sum();
+  }
+
+  private static final class LruCache<K, V> {
+
+    private final LinkedHashMap<K, CacheEntry<V>> entries;
+
+    public LruCache(int maxSize, @NotNull LongAdder evictions) {
+      // access ordered, the least recently used entry is evicted once the size limit is exceeded
+      this.entries = new LinkedHashMap<K, CacheEntry<V>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+          if (this.size() > maxSize) {
+            evictions.increment();
+            return true;
+          }
+          return false;
+        }
+      };
+    }
+
+    public synchronized @Nullable V get(@NotNull K key, long now) {
+      // check if an entry is associated with the given key
+      CacheEntry<V> entry = this.entries.get(key);
+      if (entry == null) {
+        return null;
+      }
+
+      // check if the entry is outdated
+      if (entry.timeoutTime <= now) {
+        this.entries.remove(key);
+        return null;
+      }
+
+      // all fine
+      return entry.value;
+    }
+
+    public synchronized void put(@NotNull K key, @NotNull V value, long timeoutTime) {
+      this.entries.put(key, new CacheEntry<>(value, timeoutTime));
+    }
+
+    public synchronized void removeExpired(long now) {
+      Iterator<CacheEntry<V>> iterator = this.entries.values().iterator();
+      while (iterator.hasNext()) {
+        if (iterator.next().timeoutTime <= now) {
+          iterator.remove();
+        }
+      }
+    }
+  }
+
   private static final class CacheEntry<T> {
 
     private final T value;
     private final long timeoutTime;
 
-    public CacheEntry(@Nullable T value, long keepMillis) {
+    public CacheEntry(@NotNull T value, long timeoutTime) {
       this.value = value;
-      this.timeoutTime = System.currentTimeMillis() + keepMillis;
+      this.timeoutTime = timeoutTime;
     }
   }
 }
@@ -0,0 +1,163 @@
+/*
+ * This file is part of npc-lib, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022-2023 Julian M., Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.juliarn.npclib.api.profile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+final class DefaultProfileHttpTransport implements ProfileHttpTransport {
+
+  public static final DefaultProfileHttpTransport INSTANCE = new DefaultProfileHttpTransport();
+
+  private static final int DEFAULT_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(10);
+  private static final int MAX_REDIRECTS = 10;
+
+  private DefaultProfileHttpTransport() {
+  }
+
+  private static @NotNull HttpURLConnection createBaseConnection(
+    @NotNull String endpoint,
+    @Nullable String body
+  ) throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) new URL(endpoint).openConnection();
+
+    // default properties, the connection is kept alive and reused for later requests to the same host
+    connection.setRequestMethod(body == null ? "GET" : "POST");
+    connection.setRequestProperty("Accept", "application/json");
+    connection.setRequestProperty("User-Agent", "juliarn/npc-lib2");
+
+    // ensure that the request will not take forever
+    connection.setReadTimeout(DEFAULT_TIMEOUT);
+    connection.setConnectTimeout(DEFAULT_TIMEOUT);
+
+    // ensure that these are 'true' even if the defaults changed
+    connection.setUseCaches(true);
+    connection.setInstanceFollowRedirects(true);
+
+    // write the request body, if given
+    if (body != null) {
+      connection.setDoOutput(true);
+      connection.setRequestProperty("Content-Type", "application/json");
+      try (OutputStream output = connection.getOutputStream()) {
+        output.write(body.getBytes(StandardCharsets.UTF_8));
+      }
+    }
+
+    return connection;
+  }
+
+  private static void drainAndClose(@Nullable InputStream stream) {
+    // the underlying connection can only be reused once the response was read completely
+    if (stream != null) {
+      try (InputStream closing = stream) {
+        byte[] buffer = new byte[512];
+        while (closing.read(buffer) != -1) {
+          // just discard the data
+        }
+      } catch (IOException ignored) {
+        // the connection is not reused in this case
+      }
+    }
+  }
+
+  private static @Nullable InputStream responseStream(@NotNull HttpURLConnection connection) {
+    try {
+      return connection.getInputStream();
+    } catch (IOException exception) {
+      return connection.getErrorStream();
+    }
+  }
+
+  @Override
+  public <T> T execute(
+    @NotNull String endpoint,
+    @Nullable String body,
+    @NotNull ResponseHandler<T> responseHandler
+  ) throws IOException {
+    HttpURLConnection connection = createBaseConnection(endpoint, body);
+
+    // little hack - we cannot just follow redirects as some endpoints (for example CF workers)
+    // are setting a cookie and redirect us, we need to keep that cookie for the next request
+    // so we re-request the site when we were redirected
+    int redirectCount = 0;
+    do {
+      connection.connect();
+
+      // check for a redirect
+      int status = connection.getResponseCode();
+      boolean redirect = status == HttpURLConnection.HTTP_MOVED_TEMP
+        || status == HttpURLConnection.HTTP_MOVED_PERM
+        || status == HttpURLConnection.HTTP_SEE_OTHER;
+
+      if (redirect) {
+        // get the cookies and the target endpoint
+        String cookies = connection.getHeaderField("Set-Cookie");
+        String redirectTarget = connection.getHeaderField("Location");
+        drainAndClose(responseStream(connection));
+
+        // retry the request
+        connection = createBaseConnection(redirectTarget, body);
+        connection.setRequestProperty("Cookie", cookies);
+      } else {
+        // we are connected successfully, let the handler process the response
+        HttpURLConnection responseConnection = connection;
+        InputStream stream = responseStream(connection);
+        try {
+          return responseHandler.handle(new Response() {
+            @Override
+            public int status() {
+              return status;
+            }
+
+            @Override
+            public @Nullable String header(@NotNull String name) {
+              return responseConnection.getHeaderField(name);
+            }
+
+            @Override
+            public @NotNull InputStream body() throws IOException {
+              if (stream == null) {
+                throw new IOException("No response body present");
+              }
+              return stream;
+            }
+          });
+        } finally {
+          drainAndClose(stream);
+        }
+      }
+    } while (redirectCount++ < MAX_REDIRECTS);
+
+    // too many redirects
+    throw new IllegalStateException("Endpoint request redirected more than 10 times!");
+  }
+}
@@ -35,10 +35,14 @@ final class DefaultProfileProperty implements ProfileProperty {
   private final String value;
   private final String signature;
 
+  // the properties are used as keys of the intern pool, don't re-hash the (large) values every time
+  private final int hashCode;
+
   public DefaultProfileProperty(@NotNull String name, @NotNull String value, @Nullable String signature) {
     this.name = name;
     this.value = value;
     this.signature = signature;
+    this.hashCode = Objects.hash(name, value, signature);
   }
 
   @Override
@@ -58,7 +62,7 @@ public DefaultProfileProperty(@NotNull String name, @NotNull String value, @Null
 
   @Override
   public int hashCode() {
-    return Objects.hash(this.name, this.value, this.signature);
+    return this.hashCode;
   }
 
   @Override
@@ -24,139 +24,358 @@
 
 package com.github.juliarn.npclib.api.profile;
 
-import com.github.juliarn.npclib.api.util.Util;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
-import io.leangen.geantyref.TypeFactory;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.Reader;
-import java.lang.reflect.Type;
+import java.io.StringWriter;
 import java.net.HttpURLConnection;
-import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.regex.Pattern;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-final class MojangProfileResolver implements ProfileResolver {
+final class MojangProfileResolver implements ProfileResolver.Throttled {
 
-  public static final MojangProfileResolver INSTANCE = new MojangProfileResolver();
+  private static final int HTTP_TOO_MANY_REQUESTS = 429;
 
-  private static final int DEFAULT_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(10);
+  // the bulk endpoint accepts at most 10 names per request
+  private static final int MAX_BULK_NAMES = 10;
+  private static final long BULK_WINDOW_MILLIS = 50;
+  private static final int MAX_CONCURRENT_REQUESTS = 4;
 
-  private static final Gson GSON = new GsonBuilder()
-    .disableHtmlEscaping()
-    .registerTypeAdapter(ProfileProperty.class, new ProfilePropertyTypeAdapter())
-    .create();
-  private static final Type PROFILE_PROPERTIES_TYPE = TypeFactory.parameterizedClass(Set.class, ProfileProperty.class);
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+  private static final ProfilePropertyTypeAdapter PROFILE_PROPERTY_ADAPTER = new ProfilePropertyTypeAdapter();
 
-  private static final Pattern UUID_NO_DASH_PATTERN = Pattern.compile("-", Pattern.LITERAL);
-  private static final Pattern UUID_DASHER_PATTERN = Pattern.compile("(\\w{8})(\\w{4})(\\w{4})(\\w{4})(\\w{12})");
-
-  private static final String NAME_TO_UUID_ENDPOINT = "https://api.mojang.com/users/profiles/minecraft/%s";
+  private static final String BULK_NAME_TO_UUID_ENDPOINT = "https://api.mojang.com/profiles/minecraft";
   private static final String UUID_TO_PROFILE_ENDPOINT = "https://sessionserver.mojang.com/session/minecraft/profile/%s?unsigned=false";
 
-  private static @NotNull JsonObject makeRequest(@NotNull String endpoint) throws IOException {
-    HttpURLConnection connection = createBaseConnection(endpoint);
-
-    // little hack - we cannot just follow redirects as some endpoints (for example CF workers)
-    // are setting a cookie and redirect us, we need to keep that cookie for the next request
-    // so we re-request the site when we were redirected
-    int redirectCount = 0;
-    do {
-      connection.connect();
-
-      // check for a redirect
-      int status = connection.getResponseCode();
-      boolean redirect = status == HttpURLConnection.HTTP_MOVED_TEMP
-        || status == HttpURLConnection.HTTP_MOVED_PERM
-        || status == HttpURLConnection.HTTP_SEE_OTHER;
-
-      if (redirect) {
-        // get the cookies and the target endpoint
-        String cookies = connection.getHeaderField("Set-Cookie");
-        String redirectTarget = connection.getHeaderField("Location");
-
-        // retry the request
-        connection = createBaseConnection(redirectTarget);
-        connection.setRequestProperty("Cookie", cookies);
+  private static final ScheduledExecutorService BULK_SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread thread = new Thread(r, "npc-lib Profile Bulk Scheduler");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  public static final MojangProfileResolver INSTANCE = new MojangProfileResolver(ProfileHttpTransport.urlConnection());
+
+  private final ProfileHttpTransport transport;
+  private final String bulkNameToUniqueIdEndpoint;
+  private final String uniqueIdToProfileEndpoint;
+  private final MojangRequestScheduler requestScheduler;
+
+  // name lookups which are waiting for the next bulk request, keyed by the lower case name
+  private final Object bulkLock = new Object();
+  private final Map<String, CompletableFuture<UUID>> pendingNameLookups = new LinkedHashMap<>();
+  private boolean bulkFlushScheduled;
+
+  MojangProfileResolver(@NotNull ProfileHttpTransport transport) {
+    this(transport, BULK_NAME_TO_UUID_ENDPOINT, UUID_TO_PROFILE_ENDPOINT);
+  }
+
+  MojangProfileResolver(
+    @NotNull ProfileHttpTransport transport,
+    @NotNull String bulkNameToUniqueIdEndpoint,
+    @NotNull String uniqueIdToProfileEndpoint
+  ) {
+    this(
+      transport,
+      bulkNameToUniqueIdEndpoint,
+      uniqueIdToProfileEndpoint,
+      new MojangRequestScheduler(MAX_CONCURRENT_REQUESTS));
+  }
+
+  MojangProfileResolver(
+    @NotNull ProfileHttpTransport transport,
+    @NotNull String bulkNameToUniqueIdEndpoint,
+    @NotNull String uniqueIdToProfileEndpoint,
+    @NotNull MojangRequestScheduler requestScheduler
+  ) {
+    this.transport = transport;
+    this.bulkNameToUniqueIdEndpoint = bulkNameToUniqueIdEndpoint;
+    this.uniqueIdToProfileEndpoint = uniqueIdToProfileEndpoint;
+    this.requestScheduler = requestScheduler;
+  }
+
+  private <T> T makeRequest(
+    @NotNull String endpoint,
+    @Nullable String body,
+    @NotNull ResponseDecoder<T> decoder
+  ) throws IOException {
+    return this.transport.execute(endpoint, body, response -> {
+      int status = response.status();
+      if (status == HttpURLConnection.HTTP_OK) {
+        // decode the incoming data, the transport takes care of closing the stream
+        JsonReader reader = new JsonReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8));
+        return decoder.decode(reader);
+      } else if (status == HTTP_TOO_MANY_REQUESTS) {
+        // rate limit, the server might tell us when we can try again
+        throw new MojangRequestScheduler.RateLimitedException(parseRetryAfter(response.header("Retry-After")));
       } else {
-        // we are connected successfully
-        if (status == HttpURLConnection.HTTP_OK) {
-          // parse the incoming data
-          try (Reader reader = new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)) {
-            return GSON.fromJson(reader, JsonElement.class).getAsJsonObject();
-          }
-        } else {
-          // rate limit, invalid name/uuid etc.
-          throw new IllegalArgumentException("Unable to fetch data, server responded with " + status);
-        }
+        // invalid name/uuid etc.
+        throw new IllegalArgumentException("Unable to fetch data, server responded with " + status);
+      }
+    });
+  }
+
+  private static long parseRetryAfter(@Nullable String retryAfter) {
+    if (retryAfter != null) {
+      try {
+        return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+      } catch (NumberFormatException ignored) {
+        // http date format, just use the default backoff
+      }
+    }
+    return -1;
+  }
+
+  static @NotNull UUID parseUniqueId(@NotNull String rawUniqueId) {
+    // mojang sends the unique ids without dashes
+    if (rawUniqueId.length() != 32) {
+      return UUID.fromString(rawUniqueId);
+    }
+
+    long mostSignificantBits = parseHex(rawUniqueId, 0);
+    long leastSignificantBits = parseHex(rawUniqueId, 16);
+    return new UUID(mostSignificantBits, leastSignificantBits);
+  }
+
+  private static long parseHex(@NotNull String input, int offset) {
+    long result = 0;
+    for (int i = offset; i < offset + 16; i++) {
+      int digit = Character.digit(input.charAt(i), 16);
+      if (digit == -1) {
+        throw new IllegalArgumentException("Invalid unique id " + input);
       }
-    } while (redirectCount++ < 10);
+      result = (result << 4) | digit;
+    }
+    return result;
+  }
 
-    // too many redirects
-    throw new IllegalStateException("Endpoint request redirected more than 10 times!");
+  static @NotNull String formatUniqueId(@NotNull UUID uniqueId) {
+    char[] chars = new char[32];
+    formatHex(uniqueId.getMostSignificantBits(), chars, 0);
+    formatHex(uniqueId.getLeastSignificantBits(), chars, 16);
+    return new String(chars);
   }
 
-  private static @NotNull HttpURLConnection createBaseConnection(@NotNull String endpoint) throws IOException {
-    HttpURLConnection connection = (HttpURLConnection) new URL(endpoint).openConnection();
+  private static void formatHex(long value, char[] target, int offset) {
+    for (int i = offset + 15; i >= offset; i--) {
+      target[i] = HEX_DIGITS[(int) (value & 0xF)];
+      value >>>= 4;
+    }
+  }
+
+  private static @NotNull String encodeNames(@NotNull Collection<String> names) throws IOException {
+    StringWriter output = new StringWriter();
+    try (JsonWriter writer = new JsonWriter(output)) {
+      writer.beginArray();
+      for (String name : names) {
+        writer.value(name);
+      }
+      writer.endArray();
+    }
+    return output.toString();
+  }
+
+  static @NotNull Map<String, UUID> decodeUniqueIds(@NotNull JsonReader reader) throws IOException {
+    // the response only contains the names which exist, all using their correct casing
+    Map<String, UUID> uniqueIds = new HashMap<>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      String name = null;
+      UUID uniqueId = null;
+
+      reader.beginObject();
+      while (reader.hasNext()) {
+        switch (reader.nextName()) {
+          case "name":
+            name = reader.nextString();
+            break;
+          case "id":
+            uniqueId = parseUniqueId(reader.nextString());
+            break;
+          default:
+            reader.skipValue();
+            break;
+        }
+      }
+      reader.endObject();
+
+      if (name != null && uniqueId != null) {
+        uniqueIds.put(name.toLowerCase(Locale.ROOT), uniqueId);
+      }
+    }
+    reader.endArray();
 
-    // default properties
-    connection.setRequestMethod("GET");
-    connection.setRequestProperty("Connection", "close");
-    connection.setRequestProperty("Accept", "application/json");
-    connection.setRequestProperty("User-Agent", "juliarn/npc-lib2");
+    return uniqueIds;
+  }
 
-    // ensure that the request will not take forever
-    connection.setReadTimeout(DEFAULT_TIMEOUT);
-    connection.setConnectTimeout(DEFAULT_TIMEOUT);
+  static @NotNull Profile.Resolved decodeProfile(
+    @NotNull JsonReader reader,
+    @NotNull UUID uniqueId
+  ) throws IOException {
+    String name = null;
+    Set<ProfileProperty> properties = new HashSet<>();
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.nextName()) {
+        case "name":
+          name = reader.nextString();
+          break;
+        case "properties":
+          reader.beginArray();
+          while (reader.hasNext()) {
+            ProfileProperty property = PROFILE_PROPERTY_ADAPTER.read(reader);
+            if (property != null) {
+              properties.add(property);
+            }
+          }
+          reader.endArray();
+          break;
+        default:
+          reader.skipValue();
+          break;
+      }
+    }
+    reader.endObject();
 
-    // ensure that these are 'true' even if the defaults changed
-    connection.setUseCaches(true);
-    connection.setInstanceFollowRedirects(true);
+    if (name == null) {
+      throw new IllegalArgumentException("Profile response of " + uniqueId + " is missing the name");
+    }
 
-    return connection;
+    // create the profile from the received data
+    return Profile.resolved(name, uniqueId, properties);
   }
 
   @Override
   public @NotNull CompletableFuture<Profile.Resolved> resolveProfile(@NotNull Profile profile) {
-    return CompletableFuture.supplyAsync(Util.callableToSupplier(() -> {
-      // check if we need to resolve the uuid of the profile
-      UUID uniqueId = profile.uniqueId();
-      if (uniqueId == null) {
-        // this will give us either a valid object or throw an exception
-        JsonObject responseData = makeRequest(String.format(NAME_TO_UUID_ENDPOINT, profile.name()));
-        String rawUniqueId = responseData.get("id").getAsString();
-
-        // insert dashes into the unique id string we get to parse it
-        String dashedId = UUID_DASHER_PATTERN.matcher(rawUniqueId).replaceAll("$1-$2-$3-$4-$5");
-        uniqueId = UUID.fromString(dashedId);
+    // check if we need to resolve the uuid of the profile
+    UUID uniqueId = profile.uniqueId();
+    if (uniqueId == null) {
+      return this.lookupUniqueId(Objects.requireNonNull(profile.name(), "name"))
+        .thenCompose(resolvedId -> this.requestScheduler.schedule(
+          MojangRequestScheduler.PRIORITY_NORMAL,
+          () -> this.fetchProfile(resolvedId)));
+    }
+
+    return this.requestScheduler.schedule(MojangRequestScheduler.PRIORITY_NORMAL, () -> this.fetchProfile(uniqueId));
+  }
+
+  @Override
+  public @NotNull RequestStats requestStats() {
+    return this.requestScheduler;
+  }
+
+  private @NotNull Profile.Resolved fetchProfile(@NotNull UUID uniqueId) throws IOException {
+    // now as the unique id is present we can send the request to get the all the other information about the profile
+    String endpoint = String.format(this.uniqueIdToProfileEndpoint, formatUniqueId(uniqueId));
+    return this.makeRequest(endpoint, null, reader -> decodeProfile(reader, uniqueId));
+  }
+
+  private @NotNull CompletableFuture<UUID> lookupUniqueId(@NotNull String name) {
+    Map<String, CompletableFuture<UUID>> fullBatch = null;
+    CompletableFuture<UUID> lookup;
+
+    synchronized (this.bulkLock) {
+      // names are case-insensitive, join a pending lookup for the same name
+      String lookupKey = name.toLowerCase(Locale.ROOT);
+      lookup = this.pendingNameLookups.get(lookupKey);
+      if (lookup != null) {
+        return lookup;
+      }
+
+      lookup = new CompletableFuture<>();
+      this.pendingNameLookups.put(lookupKey, lookup);
+
+      // send the request directly if the batch is full, else wait for more names to arrive
+      if (this.pendingNameLookups.size() >= MAX_BULK_NAMES) {
+        fullBatch = this.drainPendingLookups();
+      } else if (!this.bulkFlushScheduled) {
+        this.bulkFlushScheduled = true;
+        BULK_SCHEDULER.schedule(this::flushPendingLookups, BULK_WINDOW_MILLIS, TimeUnit.MILLISECONDS);
       }
+    }
 
-      // now as the unique id is present we can send the request to get the all the other information about the profile
-      String profileId = UUID_NO_DASH_PATTERN.matcher(uniqueId.toString()).replaceAll("");
-      JsonObject responseData = makeRequest(String.format(UUID_TO_PROFILE_ENDPOINT, profileId));
+    if (fullBatch != null) {
+      this.scheduleBulkLookup(fullBatch);
+    }
 
-      // get the name of the player
-      String name = responseData.get("name").getAsString();
-      Set<ProfileProperty> properties = GSON.fromJson(responseData.get("properties"), PROFILE_PROPERTIES_TYPE);
+    return lookup;
+  }
 
-      // create the profile from the received data
-      return Profile.resolved(name, uniqueId, properties);
+  private void flushPendingLookups() {
+    List<Map<String, CompletableFuture<UUID>>> batches = new ArrayList<>();
+    synchronized (this.bulkLock) {
+      this.bulkFlushScheduled = false;
+      while (!this.pendingNameLookups.isEmpty()) {
+        batches.add(this.drainPendingLookups());
+      }
+    }
+
+    for (Map<String, CompletableFuture<UUID>> batch : batches) {
+      this.scheduleBulkLookup(batch);
+    }
+  }
+
+  private @NotNull Map<String, CompletableFuture<UUID>> drainPendingLookups() {
+    Map<String, CompletableFuture<UUID>> batch = new HashMap<>();
+    Iterator<Map.Entry<String, CompletableFuture<UUID>>> iterator = this.pendingNameLookups.entrySet().iterator();
+    while (iterator.hasNext() && batch.size() < MAX_BULK_NAMES) {
+      Map.Entry<String, CompletableFuture<UUID>> entry = iterator.next();
+      batch.put(entry.getKey(), entry.getValue());
+      iterator.remove();
+    }
+
+    return batch;
+  }
+
+  private void scheduleBulkLookup(@NotNull Map<String, CompletableFuture<UUID>> batch) {
+    // the bulk lookup is prioritized, as it unblocks the profile requests of all names in the batch
+    this.requestScheduler.schedule(
+      MojangRequestScheduler.PRIORITY_HIGH,
+      () -> this.makeRequest(
+        this.bulkNameToUniqueIdEndpoint,
+        encodeNames(batch.keySet()),
+        MojangProfileResolver::decodeUniqueIds)
+    ).whenComplete((uniqueIds, exception) -> batch.forEach((name, lookup) -> {
+      if (exception != null) {
+        lookup.completeExceptionally(exception);
+        return;
+      }
+
+      UUID uniqueId = uniqueIds.get(name);
+      if (uniqueId != null) {
+        lookup.complete(uniqueId);
+      } else {
+        lookup.completeExceptionally(new IllegalArgumentException("Unable to resolve unique id of profile " + name));
+      }
     }));
   }
 
+  @FunctionalInterface
+  private interface ResponseDecoder<T> {
+
+    T decode(@NotNull JsonReader reader) throws IOException;
+  }
+
   private static final class ProfilePropertyTypeAdapter extends TypeAdapter<ProfileProperty> {
 
     @Override
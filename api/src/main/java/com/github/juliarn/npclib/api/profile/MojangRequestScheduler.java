@@ -0,0 +1,258 @@
+/*
+ * This file is part of npc-lib, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022-2023 Julian M., Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.juliarn.npclib.api.profile;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.jetbrains.annotations.NotNull;
+
+final class MojangRequestScheduler implements ProfileResolver.RequestStats {
+
+  static final int PRIORITY_HIGH = 0;
+  static final int PRIORITY_NORMAL = 1;
+
+  // mojang allows 600 requests per 10 minutes, the bucket refills continuously at that rate
+  private static final int BUCKET_CAPACITY = 600;
+  private static final long NANOS_PER_TOKEN = TimeUnit.MINUTES.toNanos(10) / BUCKET_CAPACITY;
+
+  private static final int MAX_ATTEMPTS = 5;
+  private static final long BASE_BACKOFF_MILLIS = 1000;
+  private static final long MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+  private static final ScheduledExecutorService RETRY_SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread thread = new Thread(r, "npc-lib Profile Request Retry");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final long baseBackoffMillis;
+  private final ThreadPoolExecutor executor;
+  private final AtomicLong requestSequence = new AtomicLong();
+
+  // token bucket state, guarded by this scheduler
+  private double tokens = BUCKET_CAPACITY;
+  private long lastRefillTime = System.nanoTime();
+  private long pausedUntil;
+
+  private final AtomicInteger delayedRetries = new AtomicInteger();
+  private final LongAdder executedRequests = new LongAdder();
+  private final LongAdder completedRequests = new LongAdder();
+  private final LongAdder rateLimitedResponses = new LongAdder();
+  private final LongAdder totalWaitNanos = new LongAdder();
+  private final AtomicLong maxWaitNanos = new AtomicLong();
+
+  public MojangRequestScheduler(int concurrency) {
+    this(concurrency, BASE_BACKOFF_MILLIS);
+  }
+
+  MojangRequestScheduler(int concurrency, long baseBackoffMillis) {
+    this.baseBackoffMillis = baseBackoffMillis;
+
+    AtomicInteger threadCounter = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(
+      concurrency,
+      concurrency,
+      30L,
+      TimeUnit.SECONDS,
+      new PriorityBlockingQueue<>(),
+      r -> {
+        Thread thread = new Thread(r, "npc-lib Profile Resolver #" + threadCounter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    this.executor.allowCoreThreadTimeOut(true);
+  }
+
+  public @NotNull <T> CompletableFuture<T> schedule(int priority, @NotNull Callable<T> request) {
+    ScheduledRequest<T> scheduledRequest = new ScheduledRequest<>(priority, this.requestSequence.getAndIncrement(), request);
+    this.executor.execute(scheduledRequest);
+    return scheduledRequest.future;
+  }
+
+  private synchronized long tryAcquireToken() {
+    long now = System.nanoTime();
+
+    // all requests are paused after the server told us that we're sending too many requests
+    if (this.pausedUntil - now > 0) {
+      return this.pausedUntil - now;
+    }
+
+    // refill the bucket based on the time which elapsed since the last refill
+    this.tokens = Math.min(BUCKET_CAPACITY, this.tokens + (double) (now - this.lastRefillTime) / NANOS_PER_TOKEN);
+    this.lastRefillTime = now;
+
+    if (this.tokens >= 1) {
+      this.tokens--;
+      return 0;
+    }
+
+    return (long) ((1 - this.tokens) * NANOS_PER_TOKEN);
+  }
+
+  private void acquireToken() throws InterruptedException {
+    long waitNanos;
+    while ((waitNanos = this.tryAcquireToken()) > 0) {
+      TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+  }
+
+  private synchronized void pause(long millis) {
+    long pauseEnd = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+    if (pauseEnd - this.pausedUntil > 0) {
+      this.pausedUntil = pauseEnd;
+    }
+  }
+
+  private long backoffMillis(int attempt) {
+    // exponential backoff, randomized between half and the full delay
+    long backoff = Math.min(MAX_BACKOFF_MILLIS, this.baseBackoffMillis << Math.min(attempt, 16));
+    return ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1);
+  }
+
+  @Override
+  public int queueDepth() {
+    return this.executor.getQueue().size() + this.delayedRetries.get();
+  }
+
+  @Override
+  public long completedRequests() {
+    return this.completedRequests.sum();
+  }
+
+  @Override
+  public long rateLimitedResponses() {
+    return this.rateLimitedResponses.sum();
+  }
+
+  @Override
+  public long averageWaitNanos() {
+    long executed = this.executedRequests.sum();
+    return executed == 0 ? 0 : this.totalWaitNanos.sum() / executed;
+  }
+
+  @Override
+  public long maxWaitNanos() {
+    return this.maxWaitNanos.get();
+  }
+
+  static final class RateLimitedException extends IOException {
+
+    private final long retryAfterMillis;
+
+    public RateLimitedException(long retryAfterMillis) {
+      super("Rate limited by the server, retry after " + retryAfterMillis + "ms");
+      this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public long retryAfterMillis() {
+      return this.retryAfterMillis;
+    }
+  }
+
+  private final class ScheduledRequest<T> implements Runnable, Comparable<ScheduledRequest<?>> {
+
+    private final int priority;
+    private final long sequence;
+    private final Callable<T> request;
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+
+    private long enqueueTime = System.nanoTime();
+
+    private int attempts;
+
+    public ScheduledRequest(int priority, long sequence, @NotNull Callable<T> request) {
+      this.priority = priority;
+      this.sequence = sequence;
+      this.request = request;
+    }
+
+    @Override
+    public void run() {
+      try {
+        MojangRequestScheduler.this.acquireToken();
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        this.future.completeExceptionally(exception);
+        return;
+      }
+
+      // the time the request waited in the queue and for a token
+      long waitTime = System.nanoTime() - this.enqueueTime;
+      MojangRequestScheduler.this.executedRequests.increment();
+      MojangRequestScheduler.this.totalWaitNanos.add(waitTime);
+      MojangRequestScheduler.this.maxWaitNanos.accumulateAndGet(waitTime, Math::max);
+
+      try {
+        T result = this.request.call();
+        MojangRequestScheduler.this.completedRequests.increment();
+        this.future.complete(result);
+      } catch (RateLimitedException exception) {
+        MojangRequestScheduler.this.rateLimitedResponses.increment();
+
+        // honour the delay requested by the server, or back off if none was given
+        long delay = exception.retryAfterMillis() > 0 ? exception.retryAfterMillis() : backoffMillis(this.attempts);
+        MojangRequestScheduler.this.pause(delay);
+        this.retryOrFail(exception, delay);
+      } catch (IOException exception) {
+        this.retryOrFail(exception, backoffMillis(this.attempts));
+      } catch (Throwable throwable) {
+        MojangRequestScheduler.this.completedRequests.increment();
+        this.future.completeExceptionally(throwable);
+      }
+    }
+
+    private void retryOrFail(@NotNull Throwable cause, long delayMillis) {
+      if (++this.attempts >= MAX_ATTEMPTS) {
+        MojangRequestScheduler.this.completedRequests.increment();
+        this.future.completeExceptionally(cause);
+        return;
+      }
+
+      // the request keeps its priority and sequence, so it's executed before requests which were submitted later
+      MojangRequestScheduler.this.delayedRetries.incrementAndGet();
+      RETRY_SCHEDULER.schedule(() -> {
+        MojangRequestScheduler.this.delayedRetries.decrementAndGet();
+        this.enqueueTime = System.nanoTime();
+        MojangRequestScheduler.this.executor.execute(this);
+      }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int compareTo(@NotNull ScheduledRequest<?> other) {
+      int result = Integer.compare(this.priority, other.priority);
+      return result != 0 ? result : Long.compare(this.sequence, other.sequence);
+    }
+  }
+}
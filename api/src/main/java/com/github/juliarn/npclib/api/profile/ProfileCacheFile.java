@@ -0,0 +1,259 @@
+/*
+ * This file is part of npc-lib, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022-2023 Julian M., Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.juliarn.npclib.api.profile;
+
+import com.github.juliarn.npclib.api.log.PlatformLogger;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.jetbrains.annotations.NotNull;
+
+final class ProfileCacheFile {
+
+  private static final int MAGIC = 0x4E504331; // NPC1
+
+  // upper bounds for the values read from the file, anything larger means that the file is corrupted
+  private static final int MAX_STRING_LENGTH = 64 * 1024;
+  private static final int MAX_PROPERTY_COUNT = 32;
+
+  private final Path path;
+  private final PlatformLogger logger;
+
+  private DataOutputStream output;
+  // only the first failed append is logged until a record was written again
+  private boolean appendFailureLogged;
+
+  public ProfileCacheFile(@NotNull Path path, @NotNull PlatformLogger logger) {
+    this.path = path;
+    this.logger = logger;
+  }
+
+  private static void writeString(@NotNull DataOutputStream output, @NotNull String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  private static @NotNull String readString(@NotNull DataInputStream input) throws IOException {
+    int length = input.readInt();
+    if (length < 0 || length > MAX_STRING_LENGTH) {
+      throw new IOException("Invalid string length " + length);
+    }
+
+    byte[] bytes = new byte[length];
+    input.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void writeRecord(
+    @NotNull DataOutputStream output,
+    @NotNull Profile.Resolved profile,
+    long timeoutTime
+  ) throws IOException {
+    output.writeLong(timeoutTime);
+    output.writeLong(profile.uniqueId().getMostSignificantBits());
+    output.writeLong(profile.uniqueId().getLeastSignificantBits());
+    writeString(output, profile.name());
+
+    Set<ProfileProperty> properties = profile.properties();
+    output.writeInt(properties.size());
+    for (ProfileProperty property : properties) {
+      writeString(output, property.name());
+      writeString(output, property.value());
+
+      String signature = property.signature();
+      output.writeBoolean(signature != null);
+      if (signature != null) {
+        writeString(output, signature);
+      }
+    }
+  }
+
+  private static @NotNull CacheRecord readRecord(@NotNull DataInputStream input) throws IOException {
+    long timeoutTime = input.readLong();
+    UUID uniqueId = new UUID(input.readLong(), input.readLong());
+    String name = readString(input);
+
+    int propertyCount = input.readInt();
+    if (propertyCount < 0 || propertyCount > MAX_PROPERTY_COUNT) {
+      throw new IOException("Invalid property count " + propertyCount);
+    }
+
+    Set<ProfileProperty> properties = new HashSet<>(propertyCount);
+    for (int i = 0; i < propertyCount; i++) {
+      String propertyName = readString(input);
+      String value = readString(input);
+      String signature = input.readBoolean() ? readString(input) : null;
+      properties.add(ProfileProperty.property(propertyName, value, signature));
+    }
+
+    return new CacheRecord(Profile.resolved(name, uniqueId, properties), timeoutTime);
+  }
+
+  public synchronized @NotNull Map<UUID, CacheRecord> load(long now) {
+    Map<UUID, CacheRecord> records = new LinkedHashMap<>();
+    if (!Files.exists(this.path)) {
+      return records;
+    }
+
+    int readRecords = 0;
+    boolean corrupted = false;
+    try (InputStream stream = Files.newInputStream(this.path);
+      DataInputStream input = new DataInputStream(new BufferedInputStream(stream))) {
+      if (input.readInt() != MAGIC) {
+        corrupted = true;
+      } else {
+        while (true) {
+          // the file may only end between two records
+          input.mark(1);
+          if (input.read() == -1) {
+            break;
+          }
+          input.reset();
+
+          CacheRecord record = readRecord(input);
+          readRecords++;
+
+          // later records of the same profile replace the earlier ones
+          records.remove(record.profile.uniqueId());
+          if (record.timeoutTime > now) {
+            records.put(record.profile.uniqueId(), record);
+          }
+        }
+      }
+    } catch (IOException | RuntimeException exception) {
+      // a partially written record (EOFException) or invalid data, the following records can't be read
+      corrupted = true;
+      this.logger.error(String.format(
+        "Unable to read profile cache file %s completely, loaded %d records",
+        this.path,
+        records.size()), exception);
+    }
+
+    // rewrite the file if it mostly contains stale records or couldn't be read completely, this also
+    // drops a partially written record so that new records are not appended after it
+    if (corrupted || readRecords > records.size() * 2) {
+      this.rewrite(records);
+    }
+
+    return records;
+  }
+
+  public synchronized void append(@NotNull Profile.Resolved profile, long timeoutTime) {
+    try {
+      if (this.output == null) {
+        this.output = this.openOutput();
+      }
+
+      writeRecord(this.output, profile, timeoutTime);
+      this.output.flush();
+      this.appendFailureLogged = false;
+    } catch (IOException exception) {
+      // the persistent cache is best effort, the profile is still cached in memory
+      if (!this.appendFailureLogged) {
+        this.appendFailureLogged = true;
+        this.logger.error("Unable to write to profile cache file " + this.path, exception);
+      }
+      this.closeOutput();
+    }
+  }
+
+  private @NotNull DataOutputStream openOutput() throws IOException {
+    Path parent = this.path.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+
+    boolean newFile = !Files.exists(this.path) || Files.size(this.path) == 0;
+    DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(
+      this.path,
+      StandardOpenOption.CREATE,
+      StandardOpenOption.WRITE,
+      StandardOpenOption.APPEND)));
+    if (newFile) {
+      output.writeInt(MAGIC);
+    }
+
+    return output;
+  }
+
+  private void rewrite(@NotNull Map<UUID, CacheRecord> records) {
+    this.closeOutput();
+
+    Path tempFile = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+    try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+      output.writeInt(MAGIC);
+      for (CacheRecord record : records.values()) {
+        writeRecord(output, record.profile, record.timeoutTime);
+      }
+    } catch (IOException exception) {
+      this.logger.error("Unable to rewrite profile cache file " + this.path, exception);
+      return;
+    }
+
+    try {
+      Files.move(tempFile, this.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException exception) {
+      // best effort, records will be appended to the existing file
+      this.logger.error("Unable to replace profile cache file " + this.path, exception);
+    }
+  }
+
+  private void closeOutput() {
+    DataOutputStream output = this.output;
+    if (output != null) {
+      this.output = null;
+      try {
+        output.close();
+      } catch (IOException exception) {
+        this.logger.error("Unable to close profile cache file " + this.path, exception);
+      }
+    }
+  }
+
+  static final class CacheRecord {
+
+    final Profile.Resolved profile;
+    final long timeoutTime;
+
+    public CacheRecord(@NotNull Profile.Resolved profile, long timeoutTime) {
+      this.profile = profile;
+      this.timeoutTime = timeoutTime;
+    }
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * This file is part of npc-lib, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022-2023 Julian M., Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.juliarn.npclib.api.profile;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import org.jetbrains.annotations.NotNull;
+
+final class ProfilePropertyPool {
+
+  // texture properties are large and shared between a lot of profiles, so equal instances are canonicalized.
+  // the values are weak as well, as they would otherwise keep the (weak) keys reachable
+  private static final Map<ProfileProperty, WeakReference<ProfileProperty>> PROPERTIES = new WeakHashMap<>();
+  private static final Map<Set<ProfileProperty>, WeakReference<Set<ProfileProperty>>> PROPERTY_SETS =
+    new WeakHashMap<>();
+
+  private ProfilePropertyPool() {
+    throw new UnsupportedOperationException();
+  }
+
+  private static @NotNull <T> T intern(@NotNull Map<T, WeakReference<T>> pool, @NotNull T value) {
+    synchronized (pool) {
+      WeakReference<T> reference = pool.get(value);
+      T canonical = reference == null ? null : reference.get();
+      if (canonical == null) {
+        pool.put(value, new WeakReference<>(value));
+        return value;
+      }
+
+      return canonical;
+    }
+  }
+
+  static @NotNull ProfileProperty intern(@NotNull ProfileProperty property) {
+    return intern(PROPERTIES, property);
+  }
+
+  static @NotNull Set<ProfileProperty> intern(@NotNull Set<ProfileProperty> properties) {
+    if (properties.isEmpty()) {
+      return Collections.emptySet();
+    }
+
+    Set<ProfileProperty> canonicalProperties = new HashSet<>(properties.size());
+    for (ProfileProperty property : properties) {
+      canonicalProperties.add(intern(property));
+    }
+
+    return intern(PROPERTY_SETS, Collections.unmodifiableSet(canonicalProperties));
+  }
+}
@@ -24,22 +24,92 @@
 
 package com.github.juliarn.npclib.api.profile;
 
+import com.github.juliarn.npclib.api.log.PlatformLogger;
+import java.nio.file.Path;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 @FunctionalInterface
 public interface ProfileResolver {
 
-  static @NotNull ProfileResolver mojang() {
+  static @NotNull ProfileResolver.Throttled mojang() {
     return MojangProfileResolver.INSTANCE;
   }
 
+  static @NotNull ProfileResolver.Throttled mojang(@NotNull ProfileHttpTransport transport) {
+    Objects.requireNonNull(transport, "transport");
+    return new MojangProfileResolver(transport);
+  }
+
   static @NotNull ProfileResolver.Cached caching(@NotNull ProfileResolver delegate) {
+    return caching(
+      delegate,
+      DefaultCachedProfileResolver.DEFAULT_MAX_SIZE,
+      DefaultCachedProfileResolver.DEFAULT_ENTRY_KEEP_ALIVE_TIME,
+      TimeUnit.MILLISECONDS);
+  }
+
+  static @NotNull ProfileResolver.Cached caching(@NotNull ProfileResolver delegate, @NotNull Path cacheFile) {
+    Objects.requireNonNull(cacheFile, "cacheFile");
+    return caching(
+      delegate,
+      DefaultCachedProfileResolver.DEFAULT_MAX_SIZE,
+      DefaultCachedProfileResolver.DEFAULT_ENTRY_KEEP_ALIVE_TIME,
+      TimeUnit.MILLISECONDS,
+      cacheFile);
+  }
+
+  static @NotNull ProfileResolver.Cached caching(
+    @NotNull ProfileResolver delegate,
+    int maxSize,
+    long entryKeepAliveTime,
+    @NotNull TimeUnit timeUnit
+  ) {
+    return caching(delegate, maxSize, entryKeepAliveTime, timeUnit, null);
+  }
+
+  static @NotNull ProfileResolver.Cached caching(
+    @NotNull ProfileResolver delegate,
+    int maxSize,
+    long entryKeepAliveTime,
+    @NotNull TimeUnit timeUnit,
+    @Nullable Path cacheFile
+  ) {
+    return caching(
+      delegate,
+      maxSize,
+      entryKeepAliveTime,
+      timeUnit,
+      cacheFile,
+      PlatformLogger.fromJul(Logger.getLogger(ProfileResolver.class.getName())));
+  }
+
+  static @NotNull ProfileResolver.Cached caching(
+    @NotNull ProfileResolver delegate,
+    int maxSize,
+    long entryKeepAliveTime,
+    @NotNull TimeUnit timeUnit,
+    @Nullable Path cacheFile,
+    @NotNull PlatformLogger logger
+  ) {
     Objects.requireNonNull(delegate, "delegate");
-    return new DefaultCachedProfileResolver(delegate);
+    Objects.requireNonNull(timeUnit, "timeUnit");
+    Objects.requireNonNull(logger, "logger");
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize must be positive");
+    }
+
+    return new DefaultCachedProfileResolver(
+      delegate,
+      maxSize,
+      timeUnit.toMillis(entryKeepAliveTime),
+      cacheFile,
+      logger);
   }
 
   @NotNull CompletableFuture<Profile.Resolved> resolveProfile(@NotNull Profile profile);
@@ -51,5 +121,29 @@ interface Cached extends ProfileResolver {
     @Nullable Profile.Resolved fromCache(@NotNull UUID uniqueId);
 
     @Nullable Profile.Resolved fromCache(@NotNull Profile profile);
+
+    long hitCount();
+
+    long missCount();
+
+    long evictionCount();
+  }
+
+  interface Throttled extends ProfileResolver {
+
+    @NotNull RequestStats requestStats();
+  }
+
+  interface RequestStats {
+
+    int queueDepth();
+
+    long completedRequests();
+
+    long rateLimitedResponses();
+
+    long averageWaitNanos();
+
+    long maxWaitNanos();
   }
 }
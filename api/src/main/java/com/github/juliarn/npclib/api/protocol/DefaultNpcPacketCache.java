@@ -0,0 +1,95 @@
+/*
+ * This file is part of npc-lib, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022-2023 Julian M., Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.juliarn.npclib.api.protocol;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.NotNull;
+
+final class DefaultNpcPacketCache implements NpcPacketCache {
+
+  // packets which don't depend on the npc state are kept across invalidations, but only up to this amount
+  private static final int MAX_STABLE_PACKETS = 64;
+
+  // replaced on invalidation, so that a packet which was built concurrently ends up in the discarded map
+  private volatile Map<Object, Object> packets = new ConcurrentHashMap<>();
+  private volatile Map<Object, Object> stablePackets = new ConcurrentHashMap<>();
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public @NotNull <T> T computeIfAbsent(@NotNull Object key, @NotNull Supplier<T> factory) {
+    return (T) this.packets.computeIfAbsent(key, k -> factory.get());
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public @NotNull <T> T computeStableIfAbsent(@NotNull Object key, @NotNull Supplier<T> factory) {
+    Map<Object, Object> stablePackets = this.stablePackets;
+    Object packet = stablePackets.get(key);
+    if (packet != null) {
+      return (T) packet;
+    }
+
+    // start over instead of growing without bounds, e.g. when the values change constantly
+    if (stablePackets.size() >= MAX_STABLE_PACKETS) {
+      stablePackets = new ConcurrentHashMap<>();
+      this.stablePackets = stablePackets;
+    }
+
+    return (T) stablePackets.computeIfAbsent(key, k -> factory.get());
+  }
+
+  @Override
+  public void invalidate() {
+    this.packets = new ConcurrentHashMap<>();
+  }
+
+  static final class IdentityKey {
+
+    private final Object key;
+    private final Object value;
+
+    public IdentityKey(@NotNull Object key, @NotNull Object value) {
+      this.key = key;
+      this.value = value;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * this.key.hashCode() + System.identityHashCode(this.value);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof IdentityKey)) {
+        return false;
+      }
+
+      IdentityKey other = (IdentityKey) obj;
+      return this.value == other.value && this.key.equals(other.key);
+    }
+  }
+}
@@ -24,12 +24,16 @@
 
 package com.github.juliarn.npclib.api.protocol;
 
+import com.github.juliarn.npclib.api.Npc;
 import com.github.juliarn.npclib.api.Platform;
 import com.github.juliarn.npclib.api.Position;
 import com.github.juliarn.npclib.api.protocol.enums.EntityAnimation;
 import com.github.juliarn.npclib.api.protocol.enums.ItemSlot;
 import com.github.juliarn.npclib.api.protocol.enums.PlayerInfoAction;
 import com.github.juliarn.npclib.api.protocol.meta.EntityMetadataFactory;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import org.jetbrains.annotations.NotNull;
 
 public interface PlatformPacketAdapter<W, P, I, E> {
@@ -40,18 +44,72 @@
 
   @NotNull OutboundPacket<W, P, I, E> createPlayerInfoPacket(@NotNull PlayerInfoAction action);
 
+  default @NotNull BatchedOutboundPacket<W, P, I, E> createEntitySpawnBatchPacket() {
+    OutboundPacket<W, P, I, E> spawnPacket = this.createEntitySpawnPacket();
+    return (player, npcs) -> npcs.forEach(npc -> spawnPacket.schedule(player, npc));
+  }
+
+  default @NotNull BatchedOutboundPacket<W, P, I, E> createEntityRemoveBatchPacket() {
+    OutboundPacket<W, P, I, E> removePacket = this.createEntityRemovePacket();
+    return (player, npcs) -> npcs.forEach(npc -> removePacket.schedule(player, npc));
+  }
+
+  default @NotNull BatchedOutboundPacket<W, P, I, E> createPlayerInfoBatchPacket(@NotNull PlayerInfoAction action) {
+    OutboundPacket<W, P, I, E> playerInfoPacket = this.createPlayerInfoPacket(action);
+    return (player, npcs) -> npcs.forEach(npc -> playerInfoPacket.schedule(player, npc));
+  }
+
+  default boolean supportsSpawnBundles() {
+    return false;
+  }
+
+  default @NotNull CompletableFuture<Void> scheduleSpawnBundle(
+    @NotNull P player,
+    @NotNull Collection<Npc<W, P, I, E>> npcs
+  ) {
+    if (npcs.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    // no bundle support, send the regular spawn sequence with the usual delay between player info and spawn
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    Platform<W, P, I, E> platform = npcs.iterator().next().platform();
+    this.createPlayerInfoBatchPacket(PlayerInfoAction.ADD_PLAYER).schedule(player, npcs);
+    platform.updateScheduler().scheduleDelayed(() -> {
+      try {
+        this.createEntitySpawnBatchPacket().schedule(player, npcs);
+        for (Npc<W, P, I, E> npc : npcs) {
+          Map<ItemSlot, I> equipment = npc.equipment();
+          if (!equipment.isEmpty()) {
+            this.createEquipmentPacket(equipment).schedule(player, npc);
+          }
+        }
+        future.complete(null);
+      } catch (RuntimeException exception) {
+        future.completeExceptionally(exception);
+      }
+    }, 10);
+    return future;
+  }
+
   @NotNull OutboundPacket<W, P, I, E> createRotationPacket(float yaw, float pitch);
 
   @NotNull OutboundPacket<W, P, I, E> createAnimationPacket(@NotNull EntityAnimation animation);
 
   @NotNull OutboundPacket<W, P, I, E> createEquipmentPacket(@NotNull ItemSlot slot, @NotNull I item);
 
+  @NotNull OutboundPacket<W, P, I, E> createEquipmentPacket(@NotNull Map<ItemSlot, I> equipment);
+
   @NotNull OutboundPacket<W, P, I, E> createCustomPayloadPacket(@NotNull String channelId, byte[] payload);
 
   @NotNull OutboundPacket<W, P, I, E> createEntityTeleportPacket(String worldId, Position position);
 
+  @NotNull OutboundPacket<W, P, I, E> createEntityMovePacket(@NotNull Position from, @NotNull Position to);
+
   @NotNull <T, O> OutboundPacket<W, P, I, E> createEntityMetaPacket(
     @NotNull EntityMetadataFactory<T, O> metadata, @NotNull T value);
 
+  @NotNull OutboundPacket<W, P, I, E> createEntityMetaPacket(@NotNull Map<EntityMetadataFactory<?, ?>, Object> metadata);
+
   void initialize(@NotNull Platform<W, P, I, E> platform);
 }
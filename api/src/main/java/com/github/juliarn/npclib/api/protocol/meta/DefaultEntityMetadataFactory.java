@@ -26,10 +26,13 @@
 
 import com.github.juliarn.npclib.api.PlatformVersionAccessor;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.function.Function;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Unmodifiable;
 
 final class DefaultEntityMetadataFactory<I, O> implements EntityMetadataFactory<I, O> {
@@ -43,6 +46,8 @@
   private final Collection<EntityMetadataFactory<I, Object>> relatedMetadata;
   private final Function<PlatformVersionAccessor, Boolean> availabilityChecker;
 
+  private volatile CompiledPlan<I, O> compiledPlan;
+
   public DefaultEntityMetadataFactory(
     int baseIndex,
     int[] indexShitVersions,
@@ -69,20 +74,49 @@ public DefaultEntityMetadataFactory(
   @SuppressWarnings("unchecked")
   public @NotNull EntityMetadata<O> create(@NotNull I input, @NotNull PlatformVersionAccessor versionAccessor) {
     // check if the meta is available
-    if (this.availabilityChecker.apply(versionAccessor)) {
-      // try to convert the given input value
-      O value = this.inputConverter.apply(input);
-      if (value != null) {
-        // calculate the index & create the meta
-        int index = this.baseIndex + this.calcIndexShift(versionAccessor);
-        return new AvailableEntityMetadata<>(index, value, this.type);
-      }
+    EntityMetadataPlan.Step<I, O> step = this.compile(versionAccessor).primary();
+    if (step != null) {
+      return step.create(input);
     }
 
     // not available
     return (EntityMetadata<O>) UnavailableEntityMetadata.INSTANCE;
   }
 
+  @Override
+  public @NotNull EntityMetadataPlan<I, O> compile(@NotNull PlatformVersionAccessor versionAccessor) {
+    // the version accessor doesn't change during runtime, so the plan is only compiled again for a different accessor
+    CompiledPlan<I, O> plan = this.compiledPlan;
+    if (plan == null || plan.versionAccessor != versionAccessor) {
+      plan = this.doCompile(versionAccessor);
+      this.compiledPlan = plan;
+    }
+
+    return plan;
+  }
+
+  private @NotNull CompiledPlan<I, O> doCompile(@NotNull PlatformVersionAccessor versionAccessor) {
+    // nothing is sent if the metadata itself is not available
+    if (!this.availabilityChecker.apply(versionAccessor)) {
+      return new CompiledPlan<>(versionAccessor, null, Collections.emptyList());
+    }
+
+    // resolve the index for the current version
+    int index = this.baseIndex + this.calcIndexShift(versionAccessor);
+    EntityMetadataPlan.Step<I, O> primary = new CompiledStep<>(index, this.type, this.inputConverter);
+
+    // only keep the related metadata which is available as well
+    List<EntityMetadataPlan.Step<I, Object>> related = new ArrayList<>(this.relatedMetadata.size());
+    for (EntityMetadataFactory<I, Object> relatedMetadata : this.relatedMetadata) {
+      EntityMetadataPlan.Step<I, Object> relatedStep = relatedMetadata.compile(versionAccessor).primary();
+      if (relatedStep != null) {
+        related.add(relatedStep);
+      }
+    }
+
+    return new CompiledPlan<>(versionAccessor, primary, Collections.unmodifiableList(related));
+  }
+
   private int calcIndexShift(@NotNull PlatformVersionAccessor versionAccessor) {
     int shift = 0;
     for (int version : this.indexShitVersions) {
@@ -93,6 +127,59 @@ private int calcIndexShift(@NotNull PlatformVersionAccessor versionAccessor) {
     return shift;
   }
 
+  private static final class CompiledPlan<I, O> implements EntityMetadataPlan<I, O> {
+
+    private final PlatformVersionAccessor versionAccessor;
+    private final Step<I, O> primary;
+    private final List<Step<I, Object>> related;
+
+    public CompiledPlan(
+      @NotNull PlatformVersionAccessor versionAccessor,
+      @Nullable Step<I, O> primary,
+      @NotNull List<Step<I, Object>> related
+    ) {
+      this.versionAccessor = versionAccessor;
+      this.primary = primary;
+      this.related = related;
+    }
+
+    @Override
+    public @Nullable Step<I, O> primary() {
+      return this.primary;
+    }
+
+    @Override
+    public @NotNull List<Step<I, Object>> related() {
+      return this.related;
+    }
+  }
+
+  private static final class CompiledStep<I, O> implements EntityMetadataPlan.Step<I, O> {
+
+    private final int index;
+    private final Type type;
+    private final Function<I, O> inputConverter;
+
+    public CompiledStep(int index, @NotNull Type type, @NotNull Function<I, O> inputConverter) {
+      this.index = index;
+      this.type = type;
+      this.inputConverter = inputConverter;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public @NotNull EntityMetadata<O> create(@NotNull I input) {
+      // try to convert the given input value
+      O value = this.inputConverter.apply(input);
+      if (value != null) {
+        return new AvailableEntityMetadata<>(this.index, value, this.type);
+      }
+
+      // not available
+      return (EntityMetadata<O>) UnavailableEntityMetadata.INSTANCE;
+    }
+  }
+
   private static final class AvailableEntityMetadata<O> implements EntityMetadata<O> {
 
     private final int index;
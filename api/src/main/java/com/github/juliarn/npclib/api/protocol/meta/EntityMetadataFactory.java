@@ -55,6 +55,11 @@
 
   @NotNull EntityMetadata<O> create(@NotNull I input, @NotNull PlatformVersionAccessor versionAccessor);
 
+  default @NotNull EntityMetadataPlan<I, O> compile(@NotNull PlatformVersionAccessor versionAccessor) {
+    // no pre-compiled plan available, the metadata is created again for each input
+    return new UncachedEntityMetadataPlan<>(this, versionAccessor);
+  }
+
   interface Builder<I, O> {
 
     @NotNull Builder<I, O> baseIndex(int index);
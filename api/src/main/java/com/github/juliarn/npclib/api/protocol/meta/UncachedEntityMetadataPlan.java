@@ -0,0 +1,65 @@
+/*
+ * This file is part of npc-lib, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022-2023 Julian M., Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.juliarn.npclib.api.protocol.meta;
+
+import com.github.juliarn.npclib.api.PlatformVersionAccessor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Unmodifiable;
+
+final class UncachedEntityMetadataPlan<I, O> implements EntityMetadataPlan<I, O> {
+
+  private final Step<I, O> primary;
+  private final List<Step<I, Object>> related;
+
+  public UncachedEntityMetadataPlan(
+    @NotNull EntityMetadataFactory<I, O> factory,
+    @NotNull PlatformVersionAccessor versionAccessor
+  ) {
+    this.primary = input -> factory.create(input, versionAccessor);
+
+    // each step asks its factory, unavailable metadata is skipped when sending
+    Collection<EntityMetadataFactory<I, Object>> relatedMetadata = factory.relatedMetadata();
+    List<Step<I, Object>> related = new ArrayList<>(relatedMetadata.size());
+    for (EntityMetadataFactory<I, Object> relatedFactory : relatedMetadata) {
+      related.add(input -> relatedFactory.create(input, versionAccessor));
+    }
+    this.related = Collections.unmodifiableList(related);
+  }
+
+  @Override
+  public @NotNull Step<I, O> primary() {
+    return this.primary;
+  }
+
+  @Override
+  @Unmodifiable
+  public @NotNull List<Step<I, Object>> related() {
+    return this.related;
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * This file is part of npc-lib, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022-2023 Julian M., Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.juliarn.npclib.api.profile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+final class DefaultProfileHttpTransportTest {
+
+  private StubMojangServer server;
+  private String profileEndpoint;
+
+  @BeforeEach
+  void startServer() throws Exception {
+    UUID uniqueId = UUID.randomUUID();
+
+    this.server = new StubMojangServer();
+    this.server.addProfile("Alice", uniqueId);
+    this.profileEndpoint = String.format(this.server.profileEndpoint(), MojangProfileResolver.formatUniqueId(uniqueId));
+  }
+
+  @AfterEach
+  void stopServer() {
+    this.server.close();
+  }
+
+  @Test
+  void sequentialRequestsReuseConnection() throws Exception {
+    // the handler ignores the body, the transport has to consume it to keep the connection alive
+    for (int i = 0; i < 5; i++) {
+      int status = ProfileHttpTransport.urlConnection().execute(this.profileEndpoint, null, response -> response.status());
+      assertEquals(200, status);
+    }
+
+    ProfileHttpTransport.urlConnection().execute(this.server.bulkEndpoint(), "[\"Alice\"]", response -> response.status());
+
+    assertEquals(6, this.server.profileRequestTimes().size() + this.server.bulkRequests().size());
+    assertEquals(1, this.server.clientPorts().size());
+  }
+
+  @Test
+  void errorResponsesKeepConnectionAlive() throws Exception {
+    String missingEndpoint = String.format(this.server.profileEndpoint(), MojangProfileResolver.formatUniqueId(UUID.randomUUID()));
+    this.server.rateLimitProfileRequests(1, "1");
+
+    // rate limit and not found responses are answered with a body, which is drained on the same connection
+    int rateLimitStatus = ProfileHttpTransport.urlConnection().execute(this.profileEndpoint, null, response -> response.status());
+    int missingStatus = ProfileHttpTransport.urlConnection().execute(missingEndpoint, null, response -> response.status());
+    int status = ProfileHttpTransport.urlConnection().execute(this.profileEndpoint, null, response -> response.status());
+
+    assertEquals(429, rateLimitStatus);
+    assertEquals(404, missingStatus);
+    assertEquals(200, status);
+    assertEquals(1, this.server.clientPorts().size());
+  }
+}
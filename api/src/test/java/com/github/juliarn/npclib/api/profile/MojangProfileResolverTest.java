@@ -0,0 +1,186 @@
+/*
+ * This file is part of npc-lib, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022-2023 Julian M., Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.juliarn.npclib.api.profile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+final class MojangProfileResolverTest {
+
+  // keeps the backoff of rate limited requests without retry after header short
+  private static final long BASE_BACKOFF_MILLIS = 20;
+
+  private StubMojangServer server;
+  private MojangRequestScheduler requestScheduler;
+  private MojangProfileResolver resolver;
+
+  @BeforeEach
+  void startServer() throws Exception {
+    this.server = new StubMojangServer();
+    this.requestScheduler = new MojangRequestScheduler(4, BASE_BACKOFF_MILLIS);
+    this.resolver = new MojangProfileResolver(
+      ProfileHttpTransport.urlConnection(),
+      this.server.bulkEndpoint(),
+      this.server.profileEndpoint(),
+      this.requestScheduler);
+  }
+
+  @AfterEach
+  void stopServer() {
+    this.server.close();
+  }
+
+  @Test
+  void fullBulkBatchesAreSplitAtTenNames() throws Exception {
+    List<CompletableFuture<Profile.Resolved>> futures = new ArrayList<>();
+    for (int i = 0; i < 25; i++) {
+      String name = "Player" + i;
+      this.server.addProfile(name, UUID.randomUUID());
+      futures.add(this.resolver.resolveProfile(Profile.unresolved(name)));
+    }
+
+    for (CompletableFuture<Profile.Resolved> future : futures) {
+      future.get(10, TimeUnit.SECONDS);
+    }
+
+    // two full batches are sent directly, the remaining names after the bulk window
+    List<Integer> batchSizes = new ArrayList<>();
+    for (List<String> bulkRequest : this.server.bulkRequests()) {
+      batchSizes.add(bulkRequest.size());
+    }
+    batchSizes.sort(Comparator.reverseOrder());
+
+    assertEquals(3, batchSizes.size());
+    assertEquals(10, batchSizes.get(0).intValue());
+    assertEquals(10, batchSizes.get(1).intValue());
+    assertEquals(5, batchSizes.get(2).intValue());
+  }
+
+  @Test
+  void partialBulkBatchIsSentAfterWindow() throws Exception {
+    this.server.addProfile("Alice", UUID.randomUUID());
+    this.server.addProfile("Bob", UUID.randomUUID());
+    this.server.addProfile("Carol", UUID.randomUUID());
+
+    long submitTime = System.nanoTime();
+    CompletableFuture<Profile.Resolved> alice = this.resolver.resolveProfile(Profile.unresolved("Alice"));
+    CompletableFuture<Profile.Resolved> bob = this.resolver.resolveProfile(Profile.unresolved("Bob"));
+    CompletableFuture<Profile.Resolved> carol = this.resolver.resolveProfile(Profile.unresolved("carol"));
+    CompletableFuture.allOf(alice, bob, carol).get(10, TimeUnit.SECONDS);
+
+    // all names share one request which is sent once the bulk window elapsed
+    assertEquals(1, this.server.bulkRequests().size());
+    assertEquals(3, this.server.bulkRequests().get(0).size());
+    long waitedNanos = this.server.bulkRequestTimes().get(0) - submitTime;
+    assertTrue(waitedNanos >= TimeUnit.MILLISECONDS.toNanos(50), "bulk request was sent after " + waitedNanos + "ns");
+
+    Profile.Resolved profile = carol.get();
+    assertEquals("Carol", profile.name());
+    assertEquals(this.server.uniqueId("Carol"), profile.uniqueId());
+    assertEquals(1, profile.properties().size());
+  }
+
+  @Test
+  void missingNamesFailOnlyTheirOwnLookup() throws Exception {
+    this.server.addProfile("Alice", UUID.randomUUID());
+
+    CompletableFuture<Profile.Resolved> alice = this.resolver.resolveProfile(Profile.unresolved("Alice"));
+    CompletableFuture<Profile.Resolved> missing = this.resolver.resolveProfile(Profile.unresolved("Missing"));
+
+    assertEquals(this.server.uniqueId("Alice"), alice.get(10, TimeUnit.SECONDS).uniqueId());
+    ExecutionException exception = assertThrows(ExecutionException.class, () -> missing.get(10, TimeUnit.SECONDS));
+    assertInstanceOf(IllegalArgumentException.class, exception.getCause());
+
+    // both names were looked up in the same request, no profile was requested for the missing name
+    assertEquals(1, this.server.bulkRequests().size());
+    assertEquals(1, this.server.profileRequestTimes().size());
+  }
+
+  @Test
+  void rateLimitedRequestWaitsForRetryAfter() throws Exception {
+    UUID uniqueId = UUID.randomUUID();
+    this.server.addProfile("Alice", uniqueId);
+    this.server.rateLimitProfileRequests(1, "1");
+
+    Profile.Resolved profile = this.resolver.resolveProfile(Profile.unresolved(uniqueId)).get(10, TimeUnit.SECONDS);
+    assertEquals("Alice", profile.name());
+
+    // the retry is only sent after the delay requested by the server
+    List<Long> requestTimes = this.server.profileRequestTimes();
+    assertEquals(2, requestTimes.size());
+    long retryDelayNanos = requestTimes.get(1) - requestTimes.get(0);
+    assertTrue(retryDelayNanos >= TimeUnit.SECONDS.toNanos(1), "retry was sent after " + retryDelayNanos + "ns");
+    assertEquals(1, this.requestScheduler.rateLimitedResponses());
+  }
+
+  @Test
+  void rateLimitedRequestBacksOffWithoutRetryAfter() throws Exception {
+    UUID uniqueId = UUID.randomUUID();
+    this.server.addProfile("Alice", uniqueId);
+    this.server.rateLimitProfileRequests(2, null);
+
+    Profile.Resolved profile = this.resolver.resolveProfile(Profile.unresolved(uniqueId)).get(10, TimeUnit.SECONDS);
+    assertEquals("Alice", profile.name());
+
+    // each retry waits at least half of the exponential backoff of its attempt
+    List<Long> requestTimes = this.server.profileRequestTimes();
+    assertEquals(3, requestTimes.size());
+    long firstRetryDelayNanos = requestTimes.get(1) - requestTimes.get(0);
+    long secondRetryDelayNanos = requestTimes.get(2) - requestTimes.get(1);
+    assertTrue(firstRetryDelayNanos >= TimeUnit.MILLISECONDS.toNanos(BASE_BACKOFF_MILLIS / 2));
+    assertTrue(secondRetryDelayNanos >= TimeUnit.MILLISECONDS.toNanos(BASE_BACKOFF_MILLIS));
+    assertEquals(2, this.requestScheduler.rateLimitedResponses());
+    assertEquals(1, this.requestScheduler.completedRequests());
+  }
+
+  @Test
+  void rateLimitedRequestFailsAfterMaxAttempts() throws Exception {
+    UUID uniqueId = UUID.randomUUID();
+    this.server.addProfile("Alice", uniqueId);
+    this.server.rateLimitProfileRequests(10, null);
+
+    CompletableFuture<Profile.Resolved> future = this.resolver.resolveProfile(Profile.unresolved(uniqueId));
+    ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+    assertInstanceOf(MojangRequestScheduler.RateLimitedException.class, exception.getCause());
+
+    // the request is given up after five attempts, the remaining rate limit responses are never requested
+    assertEquals(5, this.server.profileRequestTimes().size());
+    assertEquals(5, this.requestScheduler.rateLimitedResponses());
+    assertEquals(1, this.requestScheduler.completedRequests());
+  }
+}
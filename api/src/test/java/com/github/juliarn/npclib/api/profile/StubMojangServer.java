@@ -0,0 +1,215 @@
+/*
+ * This file is part of npc-lib, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022-2023 Julian M., Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.juliarn.npclib.api.profile;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+// serves the mojang endpoints used by the profile resolver from memory, and records the requests it received
+final class StubMojangServer implements AutoCloseable {
+
+  private static final String BULK_PATH = "/profiles/minecraft";
+  private static final String PROFILE_PATH = "/session/minecraft/profile/";
+
+  private final HttpServer server;
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  private final Map<String, String> namesByLowerName = new ConcurrentHashMap<>();
+  private final Map<UUID, String> namesByUniqueId = new ConcurrentHashMap<>();
+
+  // responses which are sent before the profile endpoint answers normally again
+  private final Queue<String> rateLimitResponses = new ConcurrentLinkedQueue<>();
+
+  private final List<List<String>> bulkRequests = new CopyOnWriteArrayList<>();
+  private final List<Long> bulkRequestTimes = new CopyOnWriteArrayList<>();
+  private final List<Long> profileRequestTimes = new CopyOnWriteArrayList<>();
+  private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+  public StubMojangServer() throws IOException {
+    this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    this.server.createContext(BULK_PATH, this::handleBulkRequest);
+    this.server.createContext(PROFILE_PATH, this::handleProfileRequest);
+    this.server.setExecutor(this.executor);
+    this.server.start();
+  }
+
+  public @NotNull String baseUrl() {
+    return "http://127.0.0.1:" + this.server.getAddress().getPort();
+  }
+
+  public @NotNull String bulkEndpoint() {
+    return this.baseUrl() + BULK_PATH;
+  }
+
+  public @NotNull String profileEndpoint() {
+    return this.baseUrl() + PROFILE_PATH + "%s";
+  }
+
+  public void addProfile(@NotNull String name, @NotNull UUID uniqueId) {
+    this.namesByLowerName.put(name.toLowerCase(Locale.ROOT), name);
+    this.namesByUniqueId.put(uniqueId, name);
+  }
+
+  public @Nullable UUID uniqueId(@NotNull String name) {
+    for (Map.Entry<UUID, String> entry : this.namesByUniqueId.entrySet()) {
+      if (entry.getValue().equalsIgnoreCase(name)) {
+        return entry.getKey();
+      }
+    }
+    return null;
+  }
+
+  public void rateLimitProfileRequests(int times, @Nullable String retryAfter) {
+    for (int i = 0; i < times; i++) {
+      // an empty string marks a response without a retry after header
+      this.rateLimitResponses.add(retryAfter == null ? "" : retryAfter);
+    }
+  }
+
+  public @NotNull List<List<String>> bulkRequests() {
+    return new ArrayList<>(this.bulkRequests);
+  }
+
+  public @NotNull List<Long> bulkRequestTimes() {
+    return new ArrayList<>(this.bulkRequestTimes);
+  }
+
+  public @NotNull List<Long> profileRequestTimes() {
+    return new ArrayList<>(this.profileRequestTimes);
+  }
+
+  public @NotNull Set<Integer> clientPorts() {
+    return this.clientPorts;
+  }
+
+  private void handleBulkRequest(@NotNull HttpExchange exchange) throws IOException {
+    this.clientPorts.add(exchange.getRemoteAddress().getPort());
+    this.bulkRequestTimes.add(System.nanoTime());
+
+    List<String> names = new ArrayList<>();
+    InputStreamReader reader = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8);
+    for (JsonElement name : JsonParser.parseReader(reader).getAsJsonArray()) {
+      names.add(name.getAsString());
+    }
+    this.bulkRequests.add(names);
+
+    // unknown names are just left out of the response
+    JsonArray response = new JsonArray();
+    for (String name : names) {
+      String knownName = this.namesByLowerName.get(name.toLowerCase(Locale.ROOT));
+      UUID uniqueId = knownName == null ? null : this.uniqueId(knownName);
+      if (uniqueId != null) {
+        JsonObject profile = new JsonObject();
+        profile.addProperty("id", MojangProfileResolver.formatUniqueId(uniqueId));
+        profile.addProperty("name", knownName);
+        response.add(profile);
+      }
+    }
+
+    respond(exchange, 200, response.toString(), null);
+  }
+
+  private void handleProfileRequest(@NotNull HttpExchange exchange) throws IOException {
+    this.clientPorts.add(exchange.getRemoteAddress().getPort());
+    this.profileRequestTimes.add(System.nanoTime());
+
+    String retryAfter = this.rateLimitResponses.poll();
+    if (retryAfter != null) {
+      respond(exchange, 429, "{\"error\":\"TooManyRequestsException\"}", retryAfter.isEmpty() ? null : retryAfter);
+      return;
+    }
+
+    String rawUniqueId = exchange.getRequestURI().getPath().substring(PROFILE_PATH.length());
+    UUID uniqueId = MojangProfileResolver.parseUniqueId(rawUniqueId);
+    String name = this.namesByUniqueId.get(uniqueId);
+    if (name == null) {
+      respond(exchange, 404, "{\"error\":\"Not Found\"}", null);
+      return;
+    }
+
+    JsonObject property = new JsonObject();
+    property.addProperty("name", "textures");
+    property.addProperty("value", "texture-of-" + name);
+    property.addProperty("signature", "signature-of-" + name);
+
+    JsonArray properties = new JsonArray();
+    properties.add(property);
+
+    JsonObject response = new JsonObject();
+    response.addProperty("id", rawUniqueId);
+    response.addProperty("name", name);
+    response.add("properties", properties);
+    respond(exchange, 200, response.toString(), null);
+  }
+
+  private static void respond(
+    @NotNull HttpExchange exchange,
+    int status,
+    @NotNull String body,
+    @Nullable String retryAfter
+  ) throws IOException {
+    if (retryAfter != null) {
+      exchange.getResponseHeaders().add("Retry-After", retryAfter);
+    }
+
+    // a fixed length response allows the client to keep the connection alive
+    byte[] content = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, content.length);
+    try (OutputStream output = exchange.getResponseBody()) {
+      output.write(content);
+    }
+  }
+
+  @Override
+  public void close() {
+    this.server.stop(0);
+    this.executor.shutdownNow();
+  }
+}
@@ -29,6 +29,7 @@ plugins {
   alias(libs.plugins.spotless)
   alias(libs.plugins.nexusPublish)
   alias(libs.plugins.shadow) apply false
+  alias(libs.plugins.jmh) apply false
 }
 
 defaultTasks("build", "shadowJar")
@@ -24,6 +24,10 @@
 
 import com.github.jengelman.gradle.plugins.shadow.tasks.ShadowJar
 
+plugins {
+  alias(libs.plugins.jmh)
+}
+
 repositories {
   mavenLocal()
 }
@@ -40,6 +44,16 @@ dependencies {
   compileOnly(libs.paper)
   compileOnly(libs.protocolLib)
   compileOnly("org.contrum.holograms:spigot:1.0.4")
+
+  // the benchmarks build the real packetevents wrappers against a stubbed packetevents api
+  jmh(libs.packetEvents)
+  jmh(libs.paper)
+  jmh(libs.mockito)
+  jmh("org.contrum.holograms:spigot:1.0.4")
+}
+
+jmh {
+  jmhVersion.set(libs.versions.jmhCore)
 }
 
 tasks.withType<ShadowJar> {
@@ -0,0 +1,129 @@
+/*
+ * This file is part of npc-lib, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022-2023 Julian M., Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.juliarn.npclib.bukkit.protocol;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.github.juliarn.npclib.api.Position;
+import com.github.juliarn.npclib.api.profile.Profile;
+import com.github.juliarn.npclib.common.npc.CommonNpc;
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.PacketEventsAPI;
+import com.github.retrooper.packetevents.manager.server.ServerManager;
+import com.github.retrooper.packetevents.manager.server.ServerVersion;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityRotation;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityTeleport;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// builds the real packetevents wrappers: comparing the server version for every packet (the previous adapter code)
+// vs. the factories which the adapter selected once for the version. the wrappers resolve the server version through
+// the packetevents api, which is stubbed here as there is no running server; both variants pay that lookup equally
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PacketEventsVersionedFactoryBenchmark {
+
+  @Param({"V_1_8_8", "V_1_20_2"})
+  public String version;
+
+  private ServerVersion serverVersion;
+  private PacketEventsPacketAdapter adapter;
+  private CommonNpc<String, Object, Object, Object> npc;
+
+  @Setup
+  public void setup() {
+    this.serverVersion = ServerVersion.valueOf(this.version);
+
+    ServerManager serverManager = mock(ServerManager.class);
+    when(serverManager.getVersion()).thenReturn(this.serverVersion);
+
+    PacketEventsAPI<?> packetEventsApi = mock(PacketEventsAPI.class);
+    when(packetEventsApi.getServerManager()).thenReturn(serverManager);
+    PacketEvents.setAPI(packetEventsApi);
+
+    this.adapter = PacketEventsPacketAdapter.INSTANCE;
+    this.adapter.selectVersionedFactories(this.serverVersion);
+
+    this.npc = new CommonNpc<>(
+      Collections.emptyMap(),
+      1337,
+      Profile.resolved("npc", UUID.randomUUID()),
+      "world",
+      Position.position(10.5, 64, -20.5, 90F, 12.5F, "world"),
+      null,
+      null);
+  }
+
+  @Benchmark
+  public PacketWrapper<?> branchingSpawn() {
+    if (this.serverVersion.isNewerThanOrEquals(ServerVersion.V_1_20_2)) {
+      return PacketEventsPacketAdapter.createSpawnEntityWrapper(this.npc);
+    } else {
+      return PacketEventsPacketAdapter.createSpawnPlayerWrapper(this.npc);
+    }
+  }
+
+  @Benchmark
+  public PacketWrapper<?> selectedSpawn() {
+    return this.adapter.createSpawnWrapper(this.npc);
+  }
+
+  @Benchmark
+  public PacketWrapper<?> branchingRotation() {
+    Position position = this.npc.position();
+    if (this.serverVersion.isNewerThanOrEquals(ServerVersion.V_1_9)) {
+      return new WrapperPlayServerEntityRotation(this.npc.entityId(), position.yaw(), position.pitch(), true);
+    } else {
+      return new WrapperPlayServerEntityTeleport(
+        this.npc.entityId(),
+        PacketEventsPacketAdapter.npcLocation(this.npc, position.yaw(), position.pitch()),
+        true);
+    }
+  }
+
+  @Benchmark
+  public PacketWrapper<?> selectedRotation() {
+    Position position = this.npc.position();
+    return this.adapter.createRotationWrapper(this.npc, position.yaw(), position.pitch());
+  }
+}
@@ -38,6 +38,7 @@
 import com.github.juliarn.npclib.bukkit.util.BukkitPlatformUtil;
 import com.github.juliarn.npclib.common.CommonNpcActionController;
 import com.github.juliarn.npclib.common.flag.CommonNpcFlaggedBuilder;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -49,7 +50,6 @@
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.player.PlayerInteractEvent;
-import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerMoveEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.player.PlayerToggleSneakEvent;
@@ -64,6 +64,7 @@ public final class BukkitActionController extends CommonNpcActionController impl
   // based on the given flags
   private final int spawnDistance;
   private final int imitateDistance;
+  private final int imitateDistanceSquared;
 
   public BukkitActionController(
     @NotNull Map<NpcFlag<?>, Optional<?>> flags,
@@ -83,9 +84,8 @@ public BukkitActionController(
       eventManager.registerEventHandler(ShowNpcEvent.Post.class, event -> {
         // remove the npc from the tab list after the given amount of time (never smaller than 0 because of validation)
         int tabRemovalTicks = this.flagValueOrDefault(TAB_REMOVAL_TICKS);
-        plugin.getServer().getScheduler().runTaskLaterAsynchronously(plugin, () -> {
+        event.npc().platform().updateScheduler().scheduleDelayed(() -> {
           // schedule the removal of the player from the tab list, can be done async
-          Player player = event.player();
           event.npc().platform().packetFactory()
             .createPlayerInfoPacket(PlayerInfoAction.REMOVE_PLAYER)
             .toSpecific(event.npc());
@@ -94,11 +94,9 @@ public BukkitActionController(
     }
 
     // pre-calculate flag values
-    int spawnDistance = this.flagValueOrDefault(SPAWN_DISTANCE);
-    this.spawnDistance = spawnDistance * spawnDistance;
-
-    int imitateDistance = this.flagValueOrDefault(IMITATE_DISTANCE);
-    this.imitateDistance = imitateDistance * imitateDistance;
+    this.spawnDistance = this.flagValueOrDefault(SPAWN_DISTANCE);
+    this.imitateDistance = this.flagValueOrDefault(IMITATE_DISTANCE);
+    this.imitateDistanceSquared = this.imitateDistance * this.imitateDistance;
 
     // register listener to update the npc rotation after it is tracked
     if (this.flagValueOrDefault(NpcActionController.AUTO_SYNC_POSITION_ON_SPAWN)) {
@@ -107,7 +105,7 @@ public BukkitActionController(
         Location to = player.getLocation();
 
         double distance = BukkitPlatformUtil.distance(event.npc(), to);
-        if (distance <= this.imitateDistance && event.npc().flagValueOrDefault(Npc.LOOK_AT_PLAYER)) {
+        if (distance <= this.imitateDistanceSquared && event.npc().flagValueOrDefault(Npc.LOOK_AT_PLAYER)) {
           event.npc().lookAtPlayer(player, BukkitPlatformUtil.positionFromBukkitLegacy(to));
         }
       });
@@ -128,50 +126,29 @@ public BukkitActionController(
     return new BukkitActionControllerBuilder(plugin, eventManager, versionAccessor, npcTracker);
   }
 
-  @EventHandler
-  public void handleJoin(PlayerJoinEvent event) {
-    Player player = event.getPlayer();
-    for (Npc<World, Player, ItemStack, Plugin> npc : this.npcTracker.trackedNpcs()) {
-
-      double distance = BukkitPlatformUtil.distance(npc, player.getLocation());
-      if (distance > this.spawnDistance) {
-        continue;
-      }
-
-      if (npc.world().equals(player.getWorld())) {
-        this.npcTracker.addToQueue(player, npc);
-      }
-    }
-  }
-
   @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
   public void handleMove(@NotNull PlayerMoveEvent event) {
     Location to = event.getTo();
     Location from = event.getFrom();
 
-    boolean changedWorld = !Objects.equals(from.getWorld(), to.getWorld());
-    boolean changedOrientation = from.getYaw() != to.getYaw() || from.getPitch() != to.getPitch();
+    // only position changes can cause a rotation of the npcs
     boolean changedPosition = from.getX() != to.getX() || from.getY() != to.getY() || from.getZ() != to.getZ();
-
-    if (changedPosition || changedOrientation || changedWorld) {
+    if (changedPosition) {
       Player player = event.getPlayer();
-      for (Npc<World, Player, ItemStack, Plugin> npc : this.npcTracker.trackedNpcs()) {
-        Position pos = npc.position();
-        if (!npc.world().equals(player.getWorld()) || !npc.world().isChunkLoaded(pos.chunkX(), pos.chunkZ())) {
-          continue;
-        }
+      if (player.hasMetadata("apple:fps:npc")) {
+        return;
+      }
 
-        double distance = BukkitPlatformUtil.distance(npc, to);
-        if (distance > this.spawnDistance) {
+      // npcs outside the spawn distance are not visible to the player and can be skipped
+      int lookupDistance = Math.min(this.spawnDistance, this.imitateDistance);
+      for (Npc<World, Player, ItemStack, Plugin> npc : this.npcsNear(to, lookupDistance)) {
+        Position pos = npc.position();
+        if (!npc.world().isChunkLoaded(pos.chunkX(), pos.chunkZ())) {
           continue;
         }
 
-        if (player.hasMetadata("apple:fps:npc")) {
-          return;
-        }
-
         // check if we should rotate the npc towards the player
-        if (changedPosition && npc.tracksPlayer(player) && distance <= this.imitateDistance && npc.flagValueOrDefault(Npc.LOOK_AT_PLAYER)) {
+        if (npc.tracksPlayer(player) && npc.flagValueOrDefault(Npc.LOOK_AT_PLAYER)) {
           npc.lookAtPlayer(player, BukkitPlatformUtil.positionFromBukkitLegacy(to));
         }
       }
@@ -181,18 +158,11 @@ public void handleMove(@NotNull PlayerMoveEvent event) {
   @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
   public void handleSneak(@NotNull PlayerToggleSneakEvent event) {
     Player player = event.getPlayer();
-    for (Npc<World, Player, ItemStack, Plugin> npc : this.npcTracker.trackedNpcs()) {
-      double distance = BukkitPlatformUtil.distance(npc, player.getLocation());
-
+    for (Npc<World, Player, ItemStack, Plugin> npc : this.npcsNear(player.getLocation(), this.imitateDistance)) {
       // check if we should imitate the action
-      if (Objects.equals(player.getWorld(), npc.world())
-        && npc.tracksPlayer(player)
-        && distance <= this.imitateDistance
-        && npc.flagValueOrDefault(Npc.SNEAK_WHEN_PLAYER_SNEAKS)) {
+      if (npc.tracksPlayer(player) && npc.flagValueOrDefault(Npc.SNEAK_WHEN_PLAYER_SNEAKS)) {
         // let the npc sneak as well
-        npc.platform().packetFactory()
-          .createEntityMetaPacket(EntityMetadataFactory.sneakingMetaFactory(), event.isSneaking())
-          .schedule(player, npc);
+        npc.changeMetadata(player, EntityMetadataFactory.sneakingMetaFactory(), event.isSneaking());
       }
     }
   }
@@ -201,14 +171,9 @@ public void handleSneak(@NotNull PlayerToggleSneakEvent event) {
   public void handleLeftClick(@NotNull PlayerInteractEvent event) {
     if (event.getAction() == Action.LEFT_CLICK_AIR || event.getAction() == Action.LEFT_CLICK_BLOCK) {
       Player player = event.getPlayer();
-      for (Npc<World, Player, ItemStack, Plugin> npc : this.npcTracker.trackedNpcs()) {
-        double distance = BukkitPlatformUtil.distance(npc, player.getLocation());
-
+      for (Npc<World, Player, ItemStack, Plugin> npc : this.npcsNear(player.getLocation(), this.imitateDistance)) {
         // check if we should imitate the action
-        if (Objects.equals(player.getWorld(), npc.world())
-          && npc.tracksPlayer(player)
-          && distance <= this.imitateDistance
-          && npc.flagValueOrDefault(Npc.HIT_WHEN_PLAYER_HITS)) {
+        if (npc.tracksPlayer(player) && npc.flagValueOrDefault(Npc.HIT_WHEN_PLAYER_HITS)) {
           // let the npc left click as well
           npc.platform().packetFactory().createAnimationPacket(EntityAnimation.SWING_MAIN_ARM).schedule(player, npc);
         }
@@ -218,10 +183,15 @@ public void handleLeftClick(@NotNull PlayerInteractEvent event) {
 
   @EventHandler(priority = EventPriority.MONITOR)
   public void handleQuit(@NotNull PlayerQuitEvent event) {
-    for (Npc<World, Player, ItemStack, Plugin> npc : this.npcTracker.trackedNpcs()) {
-      // check if the npc tracks the player which disconnected and stop tracking him if so
-      npc.stopTrackingPlayer(event.getPlayer());
-    }
+    // stop tracking the player which disconnected for all npcs at once
+    this.npcTracker.stopTrackingPlayer(event.getPlayer());
+  }
+
+  private @NotNull Collection<Npc<World, Player, ItemStack, Plugin>> npcsNear(
+    @NotNull Location location,
+    int distance
+  ) {
+    return this.npcTracker.npcsNear(location.getWorld(), location.getX(), location.getY(), location.getZ(), distance);
   }
 
   private static final class BukkitActionControllerBuilder
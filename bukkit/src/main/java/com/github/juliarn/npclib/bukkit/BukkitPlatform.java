@@ -111,6 +111,7 @@ protected void prepareBuild() {
       this.npcTracker,
       this.profileResolver,
       this.taskManager,
+      this.updateScheduler,
       actionController,
       this.versionAccessor,
       this.eventManager,
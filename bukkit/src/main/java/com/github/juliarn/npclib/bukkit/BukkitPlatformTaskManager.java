@@ -52,6 +52,11 @@ public void scheduleDelayedSync(@NotNull Runnable task, int delayTicks) {
     this.plugin.getServer().getScheduler().runTaskLater(this.plugin, task, delayTicks);
   }
 
+  @Override
+  public void scheduleRepeatingSync(@NotNull Runnable task, int delayTicks, int periodTicks) {
+    this.plugin.getServer().getScheduler().runTaskTimer(this.plugin, task, delayTicks, periodTicks);
+  }
+
   @Override
   public void scheduleAsync(@NotNull Runnable task) {
     this.plugin.getServer().getScheduler().runTaskAsynchronously(this.plugin, task);
@@ -61,4 +66,9 @@ public void scheduleAsync(@NotNull Runnable task) {
   public void scheduleDelayedAsync(@NotNull Runnable task, int delayTicks) {
     this.plugin.getServer().getScheduler().runTaskLaterAsynchronously(this.plugin, task, delayTicks);
   }
+
+  @Override
+  public void scheduleRepeatingAsync(@NotNull Runnable task, int delayTicks, int periodTicks) {
+    this.plugin.getServer().getScheduler().runTaskTimerAsynchronously(this.plugin, task, delayTicks, periodTicks);
+  }
 }
@@ -28,8 +28,11 @@
 import com.github.juliarn.npclib.api.Platform;
 import com.github.juliarn.npclib.api.PlatformVersionAccessor;
 import com.github.juliarn.npclib.api.Position;
+import com.github.juliarn.npclib.api.event.AttackNpcEvent;
 import com.github.juliarn.npclib.api.event.InteractNpcEvent;
+import com.github.juliarn.npclib.api.profile.Profile;
 import com.github.juliarn.npclib.api.profile.ProfileProperty;
+import com.github.juliarn.npclib.api.protocol.BatchedOutboundPacket;
 import com.github.juliarn.npclib.api.protocol.OutboundPacket;
 import com.github.juliarn.npclib.api.protocol.PlatformPacketAdapter;
 import com.github.juliarn.npclib.api.protocol.chat.Component;
@@ -39,8 +42,10 @@
 import com.github.juliarn.npclib.api.protocol.enums.PlayerInfoAction;
 import com.github.juliarn.npclib.api.protocol.meta.EntityMetadata;
 import com.github.juliarn.npclib.api.protocol.meta.EntityMetadataFactory;
+import com.github.juliarn.npclib.api.protocol.meta.EntityMetadataPlan;
 import com.github.juliarn.npclib.common.event.DefaultAttackNpcEvent;
 import com.github.juliarn.npclib.common.event.DefaultInteractNpcEvent;
+import com.github.juliarn.npclib.common.util.NpcProfileHelper;
 import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.PacketEventsAPI;
 import com.github.retrooper.packetevents.event.PacketListenerPriority;
@@ -65,11 +70,13 @@
 import com.github.retrooper.packetevents.util.adventure.AdventureSerializer;
 import com.github.retrooper.packetevents.wrapper.PacketWrapper;
 import com.github.retrooper.packetevents.wrapper.play.client.WrapperPlayClientInteractEntity;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerBundle;
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerDestroyEntities;
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityAnimation;
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityEquipment;
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityHeadLook;
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityMetadata;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityRelativeMoveAndRotation;
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityRotation;
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityTeleport;
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerPlayerInfo;
@@ -85,15 +92,20 @@
 import java.lang.reflect.Type;
 import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
@@ -101,6 +113,7 @@
 import org.bukkit.plugin.Plugin;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 final class PacketEventsPacketAdapter implements PlatformPacketAdapter<World, Player, ItemStack, Plugin> {
 
@@ -116,61 +129,118 @@ final class PacketEventsPacketAdapter implements PlatformPacketAdapter<World, Pl
     Optional.class,
     net.kyori.adventure.text.Component.class);
 
+  // the packetevents specific data of each metadata type, bounded by the amount of metadata types
+  private static final Map<Type, CompiledMetadataType> COMPILED_METADATA_TYPES = new ConcurrentHashMap<>();
 
   // lazy initialized, then never null again
-  private ServerVersion serverVersion;
   private PlayerManager packetPlayerManager;
+  private boolean spawnBundles;
+
+  // version specific packet handling, selected once during initialization
+  private Function<Npc<?, ?, ?, ?>, PacketWrapper<?>> spawnWrapperFactory;
+  private RotationWrapperFactory rotationWrapperFactory;
+  private boolean playerInfoUpdates;
+  private boolean equipmentLists;
+  private double maxMoveDelta;
 
   private static @NotNull Location npcLocation(@NotNull Npc<?, ?, ?, ?> npc) {
     return npcLocation(npc, npc.position().yaw(), npc.position().pitch());
   }
 
-  private static @NotNull Location npcLocation(@NotNull Npc<?, ?, ?, ?> npc, float yaw, float pitch) {
+  static @NotNull Location npcLocation(@NotNull Npc<?, ?, ?, ?> npc, float yaw, float pitch) {
     Position pos = npc.position();
     return new Location(pos.x(), pos.y(), pos.z(), yaw, pitch);
   }
 
-  private static @NotNull EntityData createEntityData(
-    int index,
-    @NotNull Type type,
-    @NotNull Object value,
+  private static @NotNull UserProfile toUserProfile(@NotNull Profile.Resolved profile) {
+    // convert the profile to a UserProfile
+    UserProfile userProfile = new UserProfile(profile.uniqueId(), profile.name());
+    for (ProfileProperty property : profile.properties()) {
+      TextureProperty textureProperty = new TextureProperty(property.name(), property.value(), property.signature());
+      userProfile.getTextureProperties().add(textureProperty);
+    }
+    return userProfile;
+  }
+
+  private static @Nullable EntityData createEntityData(
+    @NotNull EntityMetadata<?> metadata,
     @NotNull PlatformVersionAccessor versionAccessor
   ) {
-    // pre-convert the value if needed
-    BiFunction<PlatformVersionAccessor, Object, Map.Entry<Type, Object>> converter
-      = Lazy.SERIALIZER_CONVERTERS.get(type);
-    if (converter != null) {
-      Map.Entry<Type, Object> converted = converter.apply(versionAccessor, value);
-      // re-assign the type and value
-      type = converted.getKey();
-      value = converted.getValue();
+    // the meta is not sent if it's not available for the input
+    if (!metadata.available()) {
+      return null;
+    }
+
+    // get or compile the packetevents specific data of the type, racing threads compile equal data
+    Type type = metadata.type();
+    CompiledMetadataType compiledType = COMPILED_METADATA_TYPES.get(type);
+    if (compiledType == null) {
+      compiledType = new CompiledMetadataType(type);
+      COMPILED_METADATA_TYPES.putIfAbsent(type, compiledType);
     }
 
-    return new EntityData(index, Lazy.ENTITY_DATA_TYPE_LOOKUP.get(type), value);
+    return compiledType.createEntityData(metadata.index(), metadata.value(), versionAccessor);
+  }
+
+  @NotNull PacketWrapper<?> createSpawnWrapper(@NotNull Npc<?, ?, ?, ?> npc) {
+    return this.spawnWrapperFactory.apply(npc);
+  }
+
+  @NotNull PacketWrapper<?> createRotationWrapper(@NotNull Npc<?, ?, ?, ?> npc, float yaw, float pitch) {
+    return this.rotationWrapperFactory.create(npc, yaw, pitch);
+  }
+
+  static @NotNull PacketWrapper<?> createSpawnEntityWrapper(@NotNull Npc<?, ?, ?, ?> npc) {
+    // SpawnEntity (https://wiki.vg/Protocol#Spawn_Entity)
+    Location location = npcLocation(npc);
+    return new WrapperPlayServerSpawnEntity(
+      npc.entityId(),
+      Optional.of(npc.profile().uniqueId()),
+      EntityTypes.PLAYER,
+      location.getPosition(),
+      location.getPitch(),
+      location.getYaw(),
+      0,
+      0,
+      Optional.empty());
+  }
+
+  static @NotNull PacketWrapper<?> createSpawnPlayerWrapper(@NotNull Npc<?, ?, ?, ?> npc) {
+    // SpawnPlayer (https://wiki.vg/Protocol#Spawn_Player)
+    return new WrapperPlayServerSpawnPlayer(npc.entityId(), npc.profile().uniqueId(), npcLocation(npc));
+  }
+
+  private static @NotNull WrapperPlayServerPlayerInfoUpdate.PlayerInfo createPlayerInfo(
+    @NotNull Profile.Resolved profile
+  ) {
+    return new WrapperPlayServerPlayerInfoUpdate.PlayerInfo(
+      toUserProfile(profile),
+      false,
+      20,
+      GameMode.CREATIVE,
+      null,
+      null);
+  }
+
+  private static @NotNull Equipment createEquipment(@NotNull ItemSlot slot, @NotNull ItemStack item) {
+    EquipmentSlot equipmentSlot = Lazy.ITEM_SLOT_CONVERTER.get(slot);
+    com.github.retrooper.packetevents.protocol.item.ItemStack is = SpigotReflectionUtil.decodeBukkitItemStack(item);
+    return new Equipment(equipmentSlot, is);
+  }
+
+  private static @NotNull List<Equipment> createEquipment(@NotNull Map<ItemSlot, ItemStack> equipment) {
+    List<Equipment> items = new ArrayList<>(equipment.size());
+    for (Map.Entry<ItemSlot, ItemStack> entry : equipment.entrySet()) {
+      items.add(createEquipment(entry.getKey(), entry.getValue()));
+    }
+    return items;
   }
 
   @Override
   public @NotNull OutboundPacket<World, Player, ItemStack, Plugin> createEntitySpawnPacket() {
     return (player, npc) -> {
-      Location location = npcLocation(npc);
-      PacketWrapper<?> wrapper;
-      if (this.serverVersion.isNewerThanOrEquals(ServerVersion.V_1_20_2)) {
-        // SpawnEntity (https://wiki.vg/Protocol#Spawn_Entity)
-        wrapper = new WrapperPlayServerSpawnEntity(
-          npc.entityId(),
-          Optional.of(npc.profile().uniqueId()),
-          EntityTypes.PLAYER,
-          location.getPosition(),
-          location.getPitch(),
-          location.getYaw(),
-          0,
-          0,
-          Optional.empty());
-      } else {
-        // SpawnPlayer (https://wiki.vg/Protocol#Spawn_Player)
-        wrapper = new WrapperPlayServerSpawnPlayer(npc.entityId(), npc.profile().uniqueId(), location);
-      }
       // send the packet without notifying any listeners
+      PacketWrapper<?> wrapper = this.createSpawnWrapper(npc);
       this.packetPlayerManager.sendPacketSilently(player, wrapper);
 
       if (npc.hologram() != null) {
@@ -179,13 +249,55 @@ final class PacketEventsPacketAdapter implements PlatformPacketAdapter<World, Pl
 
         hideNamePlate(npc, player);
       }
+    };
+  }
 
-      for (ItemSlot itemSlot : ItemSlot.values()) {
-        if (npc.equipment(itemSlot) != null) {
-          this.createEquipmentPacket(itemSlot, npc.equipment(itemSlot)).toSpecific(npc);
+  @Override
+  public boolean supportsSpawnBundles() {
+    return this.spawnBundles;
+  }
+
+  @Override
+  public @NotNull CompletableFuture<Void> scheduleSpawnBundle(
+    @NotNull Player player,
+    @NotNull Collection<Npc<World, Player, ItemStack, Plugin>> npcs
+  ) {
+    return NpcProfileHelper.acceptNpcProfiles(player, npcs, profiles -> {
+      int index = 0;
+      for (Npc<World, Player, ItemStack, Plugin> npc : npcs) {
+        Profile.Resolved profile = profiles.get(index++);
+
+        // BundleDelimiter (https://wiki.vg/Protocol#Bundle_Delimiter), the client handles
+        // all packets between two delimiters in the same tick
+        this.packetPlayerManager.writePacketSilently(player, new WrapperPlayServerBundle());
+
+        // the tab list entry is not listed, no need to remove it later
+        this.packetPlayerManager.writePacketSilently(player, new WrapperPlayServerPlayerInfoUpdate(
+          Lazy.ADD_ACTIONS,
+          Collections.singletonList(createPlayerInfo(profile))));
+        this.packetPlayerManager.writePacketSilently(player, this.createSpawnWrapper(npc));
+
+        // same sequence as the unbundled spawn, all equipment pieces fit into a single packet
+        Map<ItemSlot, ItemStack> equipment = npc.equipment();
+        if (!equipment.isEmpty()) {
+          this.packetPlayerManager.writePacketSilently(
+            player,
+            new WrapperPlayServerEntityEquipment(npc.entityId(), createEquipment(equipment)));
         }
+
+        this.packetPlayerManager.writePacketSilently(player, new WrapperPlayServerBundle());
       }
-    };
+
+      // one flush for the whole sequence
+      this.packetPlayerManager.getUser(player).flushPackets();
+
+      for (Npc<World, Player, ItemStack, Plugin> npc : npcs) {
+        if (npc.hologram() != null) {
+          npc.hologram().spawn(player);
+          hideNamePlate(npc, player);
+        }
+      }
+    });
   }
 
   public void hideNamePlate(Npc<?, ?, ?, ?> npc, Player player) {
@@ -232,60 +344,76 @@ public void hideNamePlate(Npc<?, ?, ?, ?> npc, Player player) {
 
   @Override
   public @NotNull OutboundPacket<World, Player, ItemStack, Plugin> createEntityRemovePacket() {
-    return (player, npc) -> {
+    BatchedOutboundPacket<World, Player, ItemStack, Plugin> batchPacket = this.createEntityRemoveBatchPacket();
+    return (player, npc) -> batchPacket.schedule(player, Collections.singletonList(npc));
+  }
+
+  @Override
+  public @NotNull BatchedOutboundPacket<World, Player, ItemStack, Plugin> createEntityRemoveBatchPacket() {
+    return (player, npcs) -> {
+      int index = 0;
+      int[] entityIds = new int[npcs.size()];
+      for (Npc<World, Player, ItemStack, Plugin> npc : npcs) {
+        entityIds[index++] = npc.entityId();
+      }
+
       // DestroyEntities (https://wiki.vg/Protocol#Destroy_Entities)
-      PacketWrapper<?> wrapper = new WrapperPlayServerDestroyEntities(npc.entityId());
+      PacketWrapper<?> wrapper = new WrapperPlayServerDestroyEntities(entityIds);
       this.packetPlayerManager.sendPacketSilently(player, wrapper);
 
-      if (npc.hologram() != null) {
-        npc.hologram().destroy(player);
+      for (Npc<World, Player, ItemStack, Plugin> npc : npcs) {
+        if (npc.hologram() != null) {
+          npc.hologram().destroy(player);
+        }
       }
     };
   }
 
-
-
   @Override
   public @NotNull OutboundPacket<World, Player, ItemStack, Plugin> createPlayerInfoPacket(
     @NotNull PlayerInfoAction action
   ) {
-    return (player, npc) -> npc.settings().profileResolver().resolveNpcProfile(player, npc).thenAcceptAsync(profile -> {
-      // convert the profile to a UserProfile
-      UserProfile userProfile = new UserProfile(profile.uniqueId(), profile.name());
-      for (ProfileProperty property : profile.properties()) {
-        TextureProperty textureProperty = new TextureProperty(property.name(), property.value(), property.signature());
-        userProfile.getTextureProperties().add(textureProperty);
-      }
+    BatchedOutboundPacket<World, Player, ItemStack, Plugin> batchPacket = this.createPlayerInfoBatchPacket(action);
+    return (player, npc) -> batchPacket.schedule(player, Collections.singletonList(npc));
+  }
 
+  @Override
+  public @NotNull BatchedOutboundPacket<World, Player, ItemStack, Plugin> createPlayerInfoBatchPacket(
+    @NotNull PlayerInfoAction action
+  ) {
+    return (player, npcs) -> NpcProfileHelper.acceptNpcProfiles(player, npcs, profiles -> {
       // the wrapper we want to send
       PacketWrapper<?> wrapper;
 
       // check if we need to apply the old handling or new handling
-      if (this.serverVersion.isNewerThanOrEquals(ServerVersion.V_1_19_3)) {
+      if (this.playerInfoUpdates) {
         if (action == PlayerInfoAction.REMOVE_PLAYER) {
           // PlayerRemove (https://wiki.vg/Protocol#Player_Remove)
-          List<UUID> uuidsToRemove = Collections.singletonList(profile.uniqueId());
+          List<UUID> uuidsToRemove = new ArrayList<>(profiles.size());
+          for (Profile.Resolved profile : profiles) {
+            uuidsToRemove.add(profile.uniqueId());
+          }
           wrapper = new WrapperPlayServerPlayerInfoRemove(uuidsToRemove);
         } else {
-          // create the player
-          WrapperPlayServerPlayerInfoUpdate.PlayerInfo playerInfo = new WrapperPlayServerPlayerInfoUpdate.PlayerInfo(
-            userProfile,
-            false,
-            20,
-            GameMode.CREATIVE,
-            null,
-            null);
+          // create the players
+          List<WrapperPlayServerPlayerInfoUpdate.PlayerInfo> playerInfos = new ArrayList<>(profiles.size());
+          for (Profile.Resolved profile : profiles) {
+            playerInfos.add(createPlayerInfo(profile));
+          }
 
           // PlayerInfo (https://wiki.vg/Protocol#Player_Info)
-          wrapper = new WrapperPlayServerPlayerInfoUpdate(Lazy.ADD_ACTIONS, Collections.singletonList(playerInfo));
+          wrapper = new WrapperPlayServerPlayerInfoUpdate(Lazy.ADD_ACTIONS, playerInfos);
         }
       } else {
         // create the player profile data
-        WrapperPlayServerPlayerInfo.PlayerData playerData = new WrapperPlayServerPlayerInfo.PlayerData(
-          null,
-          userProfile,
-          GameMode.CREATIVE,
-          20);
+        List<WrapperPlayServerPlayerInfo.PlayerData> playerData = new ArrayList<>(profiles.size());
+        for (Profile.Resolved profile : profiles) {
+          playerData.add(new WrapperPlayServerPlayerInfo.PlayerData(
+            null,
+            toUserProfile(profile),
+            GameMode.CREATIVE,
+            20));
+        }
 
         // PlayerInfo (https://wiki.vg/Protocol#Player_Info)
         WrapperPlayServerPlayerInfo.Action playerInfoAction = Lazy.PLAYER_INFO_ACTION_CONVERTER.get(action);
@@ -304,14 +432,7 @@ public void hideNamePlate(Npc<?, ?, ?, ?> npc, Player player) {
       PacketWrapper<?> headRotation = new WrapperPlayServerEntityHeadLook(npc.entityId(), yaw);
 
       // entity teleport (https://wiki.vg/Protocol#Entity_Teleport) or Player Rotation (https://wiki.vg/Protocol#Player_Rotation)
-      PacketWrapper<?> rotation;
-      if (this.serverVersion.isNewerThanOrEquals(ServerVersion.V_1_9)) {
-        // mc 1.9: player rotation
-        rotation = new WrapperPlayServerEntityRotation(npc.entityId(), yaw, pitch, true);
-      } else {
-        // mc 1.8: entity teleport
-        rotation = new WrapperPlayServerEntityTeleport(npc.entityId(), npcLocation(npc, yaw, pitch), true);
-      }
+      PacketWrapper<?> rotation = this.createRotationWrapper(npc, yaw, pitch);
 
       // send the packet without notifying any listeners
       this.packetPlayerManager.sendPacketSilently(player, rotation);
@@ -340,11 +461,8 @@ public void hideNamePlate(Npc<?, ?, ?, ?> npc, Player player) {
     @NotNull ItemStack item
   ) {
     return (player, npc) -> {
-      EquipmentSlot equipmentSlot = Lazy.ITEM_SLOT_CONVERTER.get(slot);
-      com.github.retrooper.packetevents.protocol.item.ItemStack is = SpigotReflectionUtil.decodeBukkitItemStack(item);
-
       // EntityEquipment (https://wiki.vg/Protocol#Entity_Equipment)
-      Equipment equipment = new Equipment(equipmentSlot, is);
+      Equipment equipment = createEquipment(slot, item);
       PacketWrapper<?> wrapper = new WrapperPlayServerEntityEquipment(
         npc.entityId(),
         Collections.singletonList(equipment));
@@ -354,6 +472,30 @@ public void hideNamePlate(Npc<?, ?, ?, ?> npc, Player player) {
     };
   }
 
+  @Override
+  public @NotNull OutboundPacket<World, Player, ItemStack, Plugin> createEquipmentPacket(
+    @NotNull Map<ItemSlot, ItemStack> equipment
+  ) {
+    return (player, npc) -> {
+      if (equipment.isEmpty()) {
+        return;
+      }
+
+      // EntityEquipment (https://wiki.vg/Protocol#Entity_Equipment)
+      List<Equipment> items = createEquipment(equipment);
+      if (this.equipmentLists) {
+        // mc 1.16: all equipment pieces fit into a single packet
+        this.packetPlayerManager.sendPacketSilently(player, new WrapperPlayServerEntityEquipment(npc.entityId(), items));
+      } else {
+        // one packet per slot on older versions
+        for (Equipment item : items) {
+          PacketWrapper<?> wrapper = new WrapperPlayServerEntityEquipment(npc.entityId(), Collections.singletonList(item));
+          this.packetPlayerManager.sendPacketSilently(player, wrapper);
+        }
+      }
+    };
+  }
+
   @Override
   public @NotNull OutboundPacket<World, Player, ItemStack, Plugin> createCustomPayloadPacket(
     @NotNull String channelId,
@@ -378,41 +520,143 @@ public void hideNamePlate(Npc<?, ?, ?, ?> npc, Player player) {
     };
   }
 
+  @Override
+  public @NotNull OutboundPacket<World, Player, ItemStack, Plugin> createEntityMovePacket(
+    @NotNull Position from,
+    @NotNull Position to
+  ) {
+    return (player, npc) -> {
+      double deltaX = to.x() - from.x();
+      double deltaY = to.y() - from.y();
+      double deltaZ = to.z() - from.z();
+
+      // mc 1.8 encodes the deltas as bytes (max 4 blocks), mc 1.9 as shorts (max 8 blocks)
+      double maxDelta = this.maxMoveDelta;
+      boolean relative = Math.abs(deltaX) < maxDelta && Math.abs(deltaY) < maxDelta && Math.abs(deltaZ) < maxDelta;
+
+      PacketWrapper<?> wrapper;
+      if (relative) {
+        // EntityPositionAndRotation (https://wiki.vg/Protocol#Update_Entity_Position_and_Rotation)
+        wrapper = new WrapperPlayServerEntityRelativeMoveAndRotation(
+          npc.entityId(),
+          deltaX,
+          deltaY,
+          deltaZ,
+          to.yaw(),
+          to.pitch(),
+          true);
+      } else {
+        // EntityTeleport (https://wiki.vg/Protocol#Entity_Teleport)
+        wrapper = new WrapperPlayServerEntityTeleport(
+          npc.entityId(),
+          new Location(to.x(), to.y(), to.z(), to.yaw(), to.pitch()),
+          true);
+      }
+
+      // head rotation (https://wiki.vg/Protocol#Entity_Head_Look)
+      PacketWrapper<?> headRotation = new WrapperPlayServerEntityHeadLook(npc.entityId(), to.yaw());
+
+      // send the packet without notifying any listeners
+      this.packetPlayerManager.sendPacketSilently(player, wrapper);
+      this.packetPlayerManager.sendPacketSilently(player, headRotation);
+    };
+  }
+
   @Override
   public @NotNull <T, O> OutboundPacket<World, Player, ItemStack, Plugin> createEntityMetaPacket(
     @NotNull EntityMetadataFactory<T, O> metadata,
     @NotNull T value
   ) {
     return (player, npc) -> {
-      // create the entity meta
-      PlatformVersionAccessor versionAccessor = npc.platform().versionAccessor();
-      EntityMetadata<O> entityMetadata = metadata.create(value, versionAccessor);
+      PacketWrapper<?> wrapper = this.createMetadataWrapper(npc, metadata, value);
+      if (wrapper != null) {
+        this.packetPlayerManager.sendPacketSilently(player, wrapper);
+      }
+    };
+  }
 
-      // check if the meta is available
-      if (!entityMetadata.available()) {
-        return;
+  @Override
+  public @NotNull OutboundPacket<World, Player, ItemStack, Plugin> createEntityMetaPacket(
+    @NotNull Map<EntityMetadataFactory<?, ?>, Object> metadata
+  ) {
+    return (player, npc) -> {
+      PacketWrapper<?> wrapper = this.createMetadataWrapper(npc, metadata);
+      if (wrapper != null) {
+        this.packetPlayerManager.sendPacketSilently(player, wrapper);
       }
+    };
+  }
 
-      // construct the meta we want to send out
-      List<EntityData> entityData = new ArrayList<>();
-      entityData.add(createEntityData(
-        entityMetadata.index(),
-        entityMetadata.type(),
-        entityMetadata.value(),
-        versionAccessor));
-
-      // add ll dependant metas
-      for (EntityMetadataFactory<T, Object> relatedMetadata : metadata.relatedMetadata()) {
-        EntityMetadata<Object> related = relatedMetadata.create(value, versionAccessor);
-        if (related.available()) {
-          entityData.add(createEntityData(related.index(), related.type(), related.value(), versionAccessor));
-        }
+  private @Nullable <T, O> PacketWrapper<?> createMetadataWrapper(
+    @NotNull Npc<?, ?, ?, ?> npc,
+    @NotNull EntityMetadataFactory<T, O> metadata,
+    @NotNull T value
+  ) {
+    Map<Integer, EntityData> entityData = new LinkedHashMap<>();
+    if (!collectEntityData(metadata, value, npc.platform().versionAccessor(), entityData)) {
+      return null;
+    }
+
+    // EntityMetadata (https://wiki.vg/Protocol#Entity_Metadata)
+    return new WrapperPlayServerEntityMetadata(npc.entityId(), new ArrayList<>(entityData.values()));
+  }
+
+  @SuppressWarnings("unchecked")
+  private @Nullable PacketWrapper<?> createMetadataWrapper(
+    @NotNull Npc<?, ?, ?, ?> npc,
+    @NotNull Map<EntityMetadataFactory<?, ?>, Object> metadata
+  ) {
+    // merge all metas into one packet, the last value for each index wins
+    PlatformVersionAccessor versionAccessor = npc.platform().versionAccessor();
+    Map<Integer, EntityData> entityData = new LinkedHashMap<>();
+    for (Map.Entry<EntityMetadataFactory<?, ?>, Object> entry : metadata.entrySet()) {
+      EntityMetadataFactory<Object, ?> factory = (EntityMetadataFactory<Object, ?>) entry.getKey();
+      collectEntityData(factory, entry.getValue(), versionAccessor, entityData);
+    }
+
+    // check if any meta is available
+    if (entityData.isEmpty()) {
+      return null;
+    }
+
+    // EntityMetadata (https://wiki.vg/Protocol#Entity_Metadata)
+    return new WrapperPlayServerEntityMetadata(npc.entityId(), new ArrayList<>(entityData.values()));
+  }
+
+  private static <T, O> boolean collectEntityData(
+    @NotNull EntityMetadataFactory<T, O> metadata,
+    @NotNull T value,
+    @NotNull PlatformVersionAccessor versionAccessor,
+    @NotNull Map<Integer, EntityData> target
+  ) {
+    // get the plan for the current version
+    EntityMetadataPlan<T, O> plan = metadata.compile(versionAccessor);
+
+    // check if the meta is available
+    EntityMetadataPlan.Step<T, O> primary = plan.primary();
+    if (primary == null) {
+      return false;
+    }
+
+    // construct the meta we want to send out
+    EntityMetadata<O> primaryMetadata = primary.create(value);
+    EntityData primaryData = createEntityData(primaryMetadata, versionAccessor);
+    if (primaryData == null) {
+      return false;
+    }
+
+    target.put(primaryMetadata.index(), primaryData);
+
+    // add all dependant metas which are available for the input
+    for (EntityMetadataPlan.Step<T, Object> related : plan.related()) {
+      EntityMetadata<Object> relatedMetadata = related.create(value);
+      EntityData relatedData = createEntityData(relatedMetadata, versionAccessor);
+      if (relatedData != null) {
+        target.put(relatedMetadata.index(), relatedData);
       }
+    }
 
-      // EntityMetadata (https://wiki.vg/Protocol#Entity_Metadata)
-      PacketWrapper<?> wrapper = new WrapperPlayServerEntityMetadata(npc.entityId(), entityData);
-      this.packetPlayerManager.sendPacketSilently(player, wrapper);
-    };
+    return true;
   }
 
   @Override
@@ -422,12 +666,35 @@ public void initialize(@NotNull Platform<World, Player, ItemStack, Plugin> platf
 
     // store the packet player manager & server version
     this.packetPlayerManager = packetEventsApi.getPlayerManager();
-    this.serverVersion = packetEventsApi.getServerManager().getVersion();
+    this.spawnBundles = platform.versionAccessor().atLeast(1, 19, 4);
+
+    // select the packet handling for the server version, the version never changes at runtime
+    this.selectVersionedFactories(packetEventsApi.getServerManager().getVersion());
 
     // add the packet listener
     packetEventsApi.getEventManager().registerListener(new NpcUsePacketAdapter(platform));
   }
 
+  void selectVersionedFactories(@NotNull ServerVersion serverVersion) {
+    boolean combatUpdate = serverVersion.isNewerThanOrEquals(ServerVersion.V_1_9);
+    this.spawnWrapperFactory = serverVersion.isNewerThanOrEquals(ServerVersion.V_1_20_2)
+      ? PacketEventsPacketAdapter::createSpawnEntityWrapper
+      : PacketEventsPacketAdapter::createSpawnPlayerWrapper;
+    if (combatUpdate) {
+      // mc 1.9: player rotation
+      this.rotationWrapperFactory = (npc, yaw, pitch) -> new WrapperPlayServerEntityRotation(npc.entityId(), yaw, pitch, true);
+    } else {
+      // mc 1.8: entity teleport
+      this.rotationWrapperFactory = (npc, yaw, pitch) -> new WrapperPlayServerEntityTeleport(
+        npc.entityId(),
+        npcLocation(npc, yaw, pitch),
+        true);
+    }
+    this.playerInfoUpdates = serverVersion.isNewerThanOrEquals(ServerVersion.V_1_19_3);
+    this.equipmentLists = serverVersion.isNewerThanOrEquals(ServerVersion.V_1_16);
+    this.maxMoveDelta = combatUpdate ? 8D : 4D;
+  }
+
   private static final class NpcUsePacketAdapter extends SimplePacketListenerAbstract {
 
     private final Platform<World, Player, ItemStack, Plugin> platform;
@@ -450,16 +717,22 @@ public void onPacketPlayReceive(@NotNull PacketPlayReceiveEvent event) {
           // call the event
           switch (packet.getAction()) {
             case ATTACK:
-              this.platform.eventManager().post(DefaultAttackNpcEvent.attackNpc(npc, player));
+              if (this.platform.eventManager().hasSubscribers(AttackNpcEvent.class)) {
+                this.platform.eventManager().post(DefaultAttackNpcEvent.attackNpc(npc, player));
+              }
               break;
             case INTERACT:
-              InteractNpcEvent.Hand hand = Lazy.HAND_CONVERTER.get(packet.getHand());
-              this.platform.eventManager().post(DefaultInteractNpcEvent.interactNpc(npc, player, hand));
-              if (!npc.getCommands().isEmpty()) {
+              if (this.platform.eventManager().hasSubscribers(InteractNpcEvent.class)) {
+                InteractNpcEvent.Hand hand = Lazy.HAND_CONVERTER.get(packet.getHand());
+                this.platform.eventManager().post(DefaultInteractNpcEvent.interactNpc(npc, player, hand));
+              }
+              // snapshot the commands, they might change until the task runs
+              List<String> commands = new ArrayList<>(npc.getCommands());
+              if (!commands.isEmpty()) {
                 new BukkitRunnable() {
                   @Override
                   public void run() {
-                    for (String command : npc.getCommands()) {
+                    for (String command : commands) {
                       Player other = (Player) player;
 
                       other.performCommand(command);
@@ -480,6 +753,49 @@ public void run() {
     }
   }
 
+  @FunctionalInterface
+  private interface RotationWrapperFactory {
+
+    @NotNull PacketWrapper<?> create(@NotNull Npc<?, ?, ?, ?> npc, float yaw, float pitch);
+  }
+
+  private static final class CompiledMetadataType {
+
+    private final Type type;
+    private final BiFunction<PlatformVersionAccessor, Object, Map.Entry<Type, Object>> converter;
+
+    // resolved on first use, the converted type only depends on the server version
+    private volatile EntityDataType<?> dataType;
+
+    public CompiledMetadataType(@NotNull Type type) {
+      this.type = type;
+      this.converter = Lazy.SERIALIZER_CONVERTERS.get(type);
+    }
+
+    public @NotNull EntityData createEntityData(
+      int index,
+      @NotNull Object value,
+      @NotNull PlatformVersionAccessor versionAccessor
+    ) {
+      // pre-convert the value if needed
+      Type type = this.type;
+      if (this.converter != null) {
+        Map.Entry<Type, Object> converted = this.converter.apply(versionAccessor, value);
+        // re-assign the type and value
+        type = converted.getKey();
+        value = converted.getValue();
+      }
+
+      EntityDataType<?> dataType = this.dataType;
+      if (dataType == null) {
+        dataType = Lazy.ENTITY_DATA_TYPE_LOOKUP.get(type);
+        this.dataType = dataType;
+      }
+
+      return new EntityData(index, dataType, value);
+    }
+  }
+
   private static final class Lazy {
 
     private static final EnumMap<ItemSlot, EquipmentSlot> ITEM_SLOT_CONVERTER;
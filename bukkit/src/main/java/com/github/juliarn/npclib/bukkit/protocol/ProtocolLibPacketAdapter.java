@@ -30,6 +30,7 @@
 import com.comphenix.protocol.events.PacketAdapter;
 import com.comphenix.protocol.events.PacketContainer;
 import com.comphenix.protocol.events.PacketEvent;
+import com.comphenix.protocol.injector.netty.WirePacket;
 import com.comphenix.protocol.utility.MinecraftReflection;
 import com.comphenix.protocol.utility.MinecraftVersion;
 import com.comphenix.protocol.wrappers.CustomPacketPayloadWrapper;
@@ -48,8 +49,12 @@
 import com.github.juliarn.npclib.api.Platform;
 import com.github.juliarn.npclib.api.PlatformVersionAccessor;
 import com.github.juliarn.npclib.api.Position;
+import com.github.juliarn.npclib.api.event.AttackNpcEvent;
 import com.github.juliarn.npclib.api.event.InteractNpcEvent;
+import com.github.juliarn.npclib.api.profile.Profile;
 import com.github.juliarn.npclib.api.profile.ProfileProperty;
+import com.github.juliarn.npclib.api.protocol.BatchedOutboundPacket;
+import com.github.juliarn.npclib.api.protocol.NpcPacketCache;
 import com.github.juliarn.npclib.api.protocol.OutboundPacket;
 import com.github.juliarn.npclib.api.protocol.PlatformPacketAdapter;
 import com.github.juliarn.npclib.api.protocol.chat.Component;
@@ -59,8 +64,10 @@
 import com.github.juliarn.npclib.api.protocol.enums.PlayerInfoAction;
 import com.github.juliarn.npclib.api.protocol.meta.EntityMetadata;
 import com.github.juliarn.npclib.api.protocol.meta.EntityMetadataFactory;
+import com.github.juliarn.npclib.api.protocol.meta.EntityMetadataPlan;
 import com.github.juliarn.npclib.common.event.DefaultAttackNpcEvent;
 import com.github.juliarn.npclib.common.event.DefaultInteractNpcEvent;
+import com.github.juliarn.npclib.common.util.NpcProfileHelper;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import io.leangen.geantyref.GenericTypeReflector;
@@ -71,15 +78,20 @@
 import java.lang.reflect.Type;
 import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
+import java.util.function.Supplier;
 import org.bukkit.Bukkit;
 import org.bukkit.World;
 import org.bukkit.entity.EntityType;
@@ -100,6 +112,16 @@ final class ProtocolLibPacketAdapter implements PlatformPacketAdapter<World, Pla
   private static final ProtocolManager PROTOCOL_MANAGER = ProtocolLibrary.getProtocolManager();
   private static final MinecraftVersion SERVER_VERSION = MinecraftVersion.fromServerVersion(Bukkit.getVersion());
 
+  // the server version never changes at runtime, resolving the checks once lets the jit fold the version branches
+  private static final boolean AT_LEAST_1_9 = MinecraftVersion.COMBAT_UPDATE.atOrAbove();
+  private static final boolean AT_LEAST_1_13 = MinecraftVersion.AQUATIC_UPDATE.atOrAbove();
+  private static final boolean AT_LEAST_1_14 = MinecraftVersion.VILLAGE_UPDATE.atOrAbove();
+  private static final boolean AT_LEAST_1_16 = MinecraftVersion.NETHER_UPDATE.atOrAbove();
+  private static final boolean AT_LEAST_1_17 = MinecraftVersion.CAVES_CLIFFS_1.atOrAbove();
+  private static final boolean AT_LEAST_1_19_3 = MinecraftVersion.FEATURE_PREVIEW_UPDATE.atOrAbove();
+  private static final boolean AT_LEAST_1_20_2 = MinecraftVersion.CONFIG_PHASE_PROTOCOL_UPDATE.atOrAbove();
+  private static final boolean AT_MOST_1_14 = MinecraftVersion.VILLAGE_UPDATE.isAtLeast(SERVER_VERSION);
+
   private static final EnumMap<EntityPose, Object> ENTITY_POSE_CONVERTER;
   private static final EnumMap<ItemSlot, EnumWrappers.ItemSlot> ITEM_SLOT_CONVERTER;
   private static final EnumMap<EnumWrappers.Hand, InteractNpcEvent.Hand> HAND_CONVERTER;
@@ -108,6 +130,9 @@ final class ProtocolLibPacketAdapter implements PlatformPacketAdapter<World, Pla
   // serializer converters for metadata
   private static final Map<Type, BiFunction<PlatformVersionAccessor, Object, Map.Entry<Type, Object>>> SERIALIZER_CONVERTERS;
 
+  // the protocollib specific data of each metadata type, bounded by the amount of metadata types
+  private static final Map<Type, CompiledMetadataType> COMPILED_METADATA_TYPES = new ConcurrentHashMap<>();
+
   // static actions we need to send out for all player updates (since 1.19.3)
   private static final EnumSet<EnumWrappers.PlayerInfoAction> ADD_ACTIONS = EnumSet.of(
     EnumWrappers.PlayerInfoAction.ADD_PLAYER,
@@ -116,6 +141,9 @@ final class ProtocolLibPacketAdapter implements PlatformPacketAdapter<World, Pla
     EnumWrappers.PlayerInfoAction.UPDATE_GAME_MODE,
     EnumWrappers.PlayerInfoAction.UPDATE_DISPLAY_NAME);
 
+  // set during initialization, bundles are supported since 1.19.4
+  private boolean spawnBundles;
+
   static {
     // associate item slots with their respective protocol lib enum
     ITEM_SLOT_CONVERTER = new EnumMap<>(ItemSlot.class);
@@ -211,111 +239,173 @@ final class ProtocolLibPacketAdapter implements PlatformPacketAdapter<World, Pla
   }
 
   private static @Nullable WrappedWatchableObject createWatchableObject(
-    int index,
-    @NotNull Type type,
-    @NotNull Object value,
+    @NotNull EntityMetadata<?> metadata,
     @NotNull PlatformVersionAccessor versionAccessor
   ) {
-    // pre-convert the value if needed
-    BiFunction<PlatformVersionAccessor, Object, Map.Entry<Type, Object>> converter = SERIALIZER_CONVERTERS.get(type);
-    if (converter != null) {
-      Map.Entry<Type, Object> converted = converter.apply(versionAccessor, value);
-      // re-assign the type and value
-      type = converted.getKey();
-      value = converted.getValue();
-
-      // the value might not be accessible on the current version
-      if (value == null) {
-        return null;
-      }
+    // the meta is not sent if it's not available for the input
+    if (!metadata.available()) {
+      return null;
     }
 
-    if (MinecraftVersion.COMBAT_UPDATE.atOrAbove()) {
-      // mc 1.9: watchable object now contains a serializer for the type
-      if (type instanceof ParameterizedType) {
-        ParameterizedType parameterized = (ParameterizedType) type;
-        boolean optional = parameterized.getRawType() == Optional.class;
-        if (optional) {
-          Type serializerType = parameterized.getActualTypeArguments()[0];
-          Class<?> rawSerializerType = GenericTypeReflector.erase(serializerType);
-
-          WrappedDataWatcher.Serializer serializer = WrappedDataWatcher.Registry.get(rawSerializerType, true);
-          return new WrappedWatchableObject(new WrappedDataWatcher.WrappedDataWatcherObject(index, serializer), value);
-        }
+    // get or compile the protocollib specific data of the type, racing threads compile equal data
+    Type type = metadata.type();
+    CompiledMetadataType compiledType = COMPILED_METADATA_TYPES.get(type);
+    if (compiledType == null) {
+      compiledType = new CompiledMetadataType(type);
+      COMPILED_METADATA_TYPES.putIfAbsent(type, compiledType);
+    }
+
+    return compiledType.createWatchableObject(metadata.index(), metadata.value(), versionAccessor);
+  }
+
+  private static @NotNull WrappedDataWatcher.Serializer resolveSerializer(@NotNull Type type) {
+    if (type instanceof ParameterizedType) {
+      ParameterizedType parameterized = (ParameterizedType) type;
+      boolean optional = parameterized.getRawType() == Optional.class;
+      if (optional) {
+        Type serializerType = parameterized.getActualTypeArguments()[0];
+        Class<?> rawSerializerType = GenericTypeReflector.erase(serializerType);
+        return WrappedDataWatcher.Registry.get(rawSerializerType, true);
       }
+    }
+
+    Class<?> raw = GenericTypeReflector.erase(type);
+    return WrappedDataWatcher.Registry.get(raw, false);
+  }
+
+  private static void sendCachedPacket(
+    @NotNull Player player,
+    @NotNull Npc<?, ?, ?, ?> npc,
+    @NotNull Object key,
+    boolean stable,
+    @NotNull Supplier<PacketContainer> packetFactory
+  ) {
+    // the packet is only encoded once per npc state, always in the format of the server version
+    Supplier<Optional<WirePacket>> wirePacketFactory = () -> Optional.ofNullable(packetFactory.get())
+      .map(WirePacket::fromPacket);
+    Optional<WirePacket> packet = stable
+      ? npc.packetCache().computeStableIfAbsent(key, wirePacketFactory)
+      : npc.packetCache().computeIfAbsent(key, wirePacketFactory);
+
+    // send the raw packet, bound packet listeners are not notified about it
+    packet.ifPresent(wirePacket -> PROTOCOL_MANAGER.sendWirePacket(player, wirePacket));
+  }
+
+  private static @NotNull PacketContainer createSpawnContainer(@NotNull Npc<?, ?, ?, ?> npc) {
+    PacketContainer container;
+    if (AT_LEAST_1_20_2) {
+      // SpawnEntity (https://wiki.vg/Protocol#Spawn_Entity)
+      container = new PacketContainer(PacketType.Play.Server.SPAWN_ENTITY);
+    } else {
+      // SpawnPlayer (https://wiki.vg/Protocol#Spawn_Player)
+      container = new PacketContainer(PacketType.Play.Server.NAMED_ENTITY_SPAWN);
+    }
+
+    // base information
+    container.getIntegers().write(0, npc.entityId());
+    container.getUUIDs().write(0, npc.profile().uniqueId());
+
+    if (AT_LEAST_1_20_2) {
+      container.getEntityTypeModifier().write(0, EntityType.PLAYER);
+    }
 
-      Class<?> raw = GenericTypeReflector.erase(type);
-      WrappedDataWatcher.Serializer serializer = WrappedDataWatcher.Registry.get(raw, false);
-      return new WrappedWatchableObject(new WrappedDataWatcher.WrappedDataWatcherObject(index, serializer), value);
+    // position
+    if (AT_LEAST_1_9) {
+      // mc 1.9: new position format (plain doubles)
+      container.getDoubles()
+        .write(0, npc.position().x())
+        .write(1, npc.position().y())
+        .write(2, npc.position().z());
     } else {
-      // mc 1.8: watchable object id
-      return new WrappedWatchableObject(index, value);
+      // mc 1.8: old position format (rotation angles)
+      container.getIntegers()
+        .write(1, (int) Math.floor(npc.position().x() * 32.0D))
+        .write(2, (int) Math.floor(npc.position().y() * 32.0D))
+        .write(3, (int) Math.floor(npc.position().z() * 32.0D));
+    }
+
+    // rotation (angles)
+    container.getBytes()
+      .write(0, (byte) (npc.position().yaw() * 256F / 360F))
+      .write(1, (byte) (npc.position().pitch() * 256F / 360F));
+
+    // metadata if on an old server version (< 15)
+    if (AT_MOST_1_14) {
+      container.getDataWatcherModifier().write(0, new WrappedDataWatcher());
     }
+
+    return container;
   }
 
   @Override
   public @NotNull OutboundPacket<World, Player, ItemStack, Plugin> createEntitySpawnPacket() {
-    return (player, npc) -> {
-      PacketContainer container;
-      if (MinecraftVersion.CONFIG_PHASE_PROTOCOL_UPDATE.atOrAbove()) {
-        // SpawnEntity (https://wiki.vg/Protocol#Spawn_Entity)
-        container = new PacketContainer(PacketType.Play.Server.SPAWN_ENTITY);
-      } else {
-        // SpawnPlayer (https://wiki.vg/Protocol#Spawn_Player)
-        container = new PacketContainer(PacketType.Play.Server.NAMED_ENTITY_SPAWN);
-      }
-
-      // base information
-      container.getIntegers().write(0, npc.entityId());
-      container.getUUIDs().write(0, npc.profile().uniqueId());
+    return (player, npc) -> sendCachedPacket(player, npc, "spawn", false, () -> createSpawnContainer(npc));
+  }
 
-      if (MinecraftVersion.CONFIG_PHASE_PROTOCOL_UPDATE.atOrAbove()) {
-        container.getEntityTypeModifier().write(0, EntityType.PLAYER);
-      }
+  @Override
+  public boolean supportsSpawnBundles() {
+    return this.spawnBundles;
+  }
 
-      // position
-      if (MinecraftVersion.COMBAT_UPDATE.atOrAbove()) {
-        // mc 1.9: new position format (plain doubles)
-        container.getDoubles()
-          .write(0, npc.position().x())
-          .write(1, npc.position().y())
-          .write(2, npc.position().z());
-      } else {
-        // mc 1.8: old position format (rotation angles)
-        container.getIntegers()
-          .write(1, (int) Math.floor(npc.position().x() * 32.0D))
-          .write(2, (int) Math.floor(npc.position().y() * 32.0D))
-          .write(3, (int) Math.floor(npc.position().z() * 32.0D));
-      }
+  @Override
+  public @NotNull CompletableFuture<Void> scheduleSpawnBundle(
+    @NotNull Player player,
+    @NotNull Collection<Npc<World, Player, ItemStack, Plugin>> npcs
+  ) {
+    return NpcProfileHelper.acceptNpcProfiles(player, npcs, profiles -> {
+      int index = 0;
+      for (Npc<World, Player, ItemStack, Plugin> npc : npcs) {
+        List<PacketContainer> packets = new ArrayList<>();
+        Profile.Resolved profile = profiles.get(index++);
+
+        // the tab list entry is not listed, no need to remove it later
+        packets.add(createPlayerInfoContainer(PlayerInfoAction.ADD_PLAYER, Collections.singletonList(profile)));
+        packets.add(createSpawnContainer(npc));
+
+        // same sequence as the unbundled spawn, all equipment pieces fit into a single packet
+        Map<ItemSlot, ItemStack> equipment = npc.equipment();
+        if (!equipment.isEmpty()) {
+          packets.add(createEquipmentContainer(npc, equipment));
+        }
 
-      // rotation (angles)
-      container.getBytes()
-        .write(0, (byte) (npc.position().yaw() * 256F / 360F))
-        .write(1, (byte) (npc.position().pitch() * 256F / 360F));
+        // Bundle (https://wiki.vg/Protocol#Bundle_Delimiter), the client handles all packets in the same tick
+        PacketContainer bundle = new PacketContainer(PacketType.Play.Server.BUNDLE);
+        bundle.getPacketBundles().write(0, packets);
 
-      // metadata if on an old server version (< 15)
-      if (MinecraftVersion.VILLAGE_UPDATE.isAtLeast(SERVER_VERSION)) {
-        container.getDataWatcherModifier().write(0, new WrappedDataWatcher());
+        // send the packet without notifying any bound packet listeners
+        PROTOCOL_MANAGER.sendServerPacket(player, bundle, false);
       }
-
-      // send the packet without notifying any bound packet listeners
-      PROTOCOL_MANAGER.sendServerPacket(player, container, false);
-    };
+    });
   }
 
   @Override
   public @NotNull OutboundPacket<World, Player, ItemStack, Plugin> createEntityRemovePacket() {
-    return (player, npc) -> {
+    BatchedOutboundPacket<World, Player, ItemStack, Plugin> batchPacket = this.createEntityRemoveBatchPacket();
+    return (player, npc) -> batchPacket.schedule(player, Collections.singletonList(npc));
+  }
+
+  @Override
+  public @NotNull BatchedOutboundPacket<World, Player, ItemStack, Plugin> createEntityRemoveBatchPacket() {
+    return (player, npcs) -> {
       // DestroyEntities (https://wiki.vg/Protocol#Destroy_Entities)
       PacketContainer container = new PacketContainer(PacketType.Play.Server.ENTITY_DESTROY);
 
-      // entity id
-      if (MinecraftVersion.CAVES_CLIFFS_1.atOrAbove()) {
+      // entity ids
+      if (AT_LEAST_1_17) {
         // mc 1.17: entity ids is a list
-        container.getIntLists().write(0, Lists.newArrayList(npc.entityId()));
+        List<Integer> entityIds = new ArrayList<>(npcs.size());
+        for (Npc<World, Player, ItemStack, Plugin> npc : npcs) {
+          entityIds.add(npc.entityId());
+        }
+        container.getIntLists().write(0, entityIds);
       } else {
         // mc 1.8: entity ids is an int array
-        container.getIntegerArrays().write(0, new int[]{npc.entityId()});
+        int index = 0;
+        int[] entityIds = new int[npcs.size()];
+        for (Npc<World, Player, ItemStack, Plugin> npc : npcs) {
+          entityIds[index++] = npc.entityId();
+        }
+        container.getIntegerArrays().write(0, entityIds);
       }
 
       // send the packet without notifying any bound packet listeners
@@ -327,36 +417,67 @@ final class ProtocolLibPacketAdapter implements PlatformPacketAdapter<World, Pla
   public @NotNull OutboundPacket<World, Player, ItemStack, Plugin> createPlayerInfoPacket(
     @NotNull PlayerInfoAction action
   ) {
-    return (player, npc) -> npc.settings().profileResolver().resolveNpcProfile(player, npc).thenAcceptAsync(profile -> {
-      // since 1.19.3 removing of players is handled in a separate packet
-      if (action == PlayerInfoAction.REMOVE_PLAYER && MinecraftVersion.FEATURE_PREVIEW_UPDATE.atOrAbove()) {
-        // PlayerRemove (https://wiki.vg/Protocol#Player_Remove)
-        PacketContainer container = new PacketContainer(PacketType.Play.Server.PLAYER_INFO_REMOVE);
-
-        // write the npc uuid to remove
-        List<UUID> uuidsToRemove = Collections.singletonList(profile.uniqueId());
-        container.getUUIDLists().write(0, uuidsToRemove);
+    BatchedOutboundPacket<World, Player, ItemStack, Plugin> batchPacket = this.createPlayerInfoBatchPacket(action);
+    return (player, npc) -> batchPacket.schedule(player, Collections.singletonList(npc));
+  }
 
-        // send the packet without notifying any bound packet listeners
-        PROTOCOL_MANAGER.sendServerPacket(player, container, false);
-        return;
+  @Override
+  public @NotNull BatchedOutboundPacket<World, Player, ItemStack, Plugin> createPlayerInfoBatchPacket(
+    @NotNull PlayerInfoAction action
+  ) {
+    return (player, npcs) -> NpcProfileHelper.acceptNpcProfiles(player, npcs, profiles -> {
+      // the packet for a single npc can be re-used for all players which see the npc profile
+      if (profiles.size() == 1) {
+        Npc<World, Player, ItemStack, Plugin> npc = npcs.iterator().next();
+        if (profiles.get(0) == npc.profile()) {
+          Object key = NpcPacketCache.identityKey(action, profiles.get(0));
+          sendCachedPacket(player, npc, key, false, () -> createPlayerInfoContainer(action, profiles));
+          return;
+        }
       }
 
-      // PlayerInfo (https://wiki.vg/Protocol#Player_Info)
-      PacketContainer container = new PacketContainer(PacketType.Play.Server.PLAYER_INFO);
+      // send the packet without notifying any bound packet listeners
+      PacketContainer container = createPlayerInfoContainer(action, profiles);
+      PROTOCOL_MANAGER.sendServerPacket(player, container, false);
+    });
+  }
 
-      // action
-      int playerInfoDataIndex = 0;
-      if (MinecraftVersion.FEATURE_PREVIEW_UPDATE.atOrAbove()) {
-        // at this point the only way this could be called is because we want to register a new player
-        playerInfoDataIndex = 1;
-        container.getPlayerInfoActions().write(0, ADD_ACTIONS);
-      } else {
-        // old system, just add the translated action
-        EnumWrappers.PlayerInfoAction playerInfoAction = PLAYER_INFO_ACTION_CONVERTER.get(action);
-        container.getPlayerInfoAction().write(0, playerInfoAction);
+  private static @NotNull PacketContainer createPlayerInfoContainer(
+    @NotNull PlayerInfoAction action,
+    @NotNull List<Profile.Resolved> profiles
+  ) {
+    // since 1.19.3 removing of players is handled in a separate packet
+    if (action == PlayerInfoAction.REMOVE_PLAYER && AT_LEAST_1_19_3) {
+      // PlayerRemove (https://wiki.vg/Protocol#Player_Remove)
+      PacketContainer container = new PacketContainer(PacketType.Play.Server.PLAYER_INFO_REMOVE);
+
+      // write the npc uuids to remove
+      List<UUID> uuidsToRemove = new ArrayList<>(profiles.size());
+      for (Profile.Resolved profile : profiles) {
+        uuidsToRemove.add(profile.uniqueId());
       }
+      container.getUUIDLists().write(0, uuidsToRemove);
+
+      return container;
+    }
 
+    // PlayerInfo (https://wiki.vg/Protocol#Player_Info)
+    PacketContainer container = new PacketContainer(PacketType.Play.Server.PLAYER_INFO);
+
+    // action
+    int playerInfoDataIndex = 0;
+    if (AT_LEAST_1_19_3) {
+      // at this point the only way this could be called is because we want to register a new player
+      playerInfoDataIndex = 1;
+      container.getPlayerInfoActions().write(0, ADD_ACTIONS);
+    } else {
+      // old system, just add the translated action
+      EnumWrappers.PlayerInfoAction playerInfoAction = PLAYER_INFO_ACTION_CONVERTER.get(action);
+      container.getPlayerInfoAction().write(0, playerInfoAction);
+    }
+
+    List<PlayerInfoData> playerInfoData = new ArrayList<>(profiles.size());
+    for (Profile.Resolved profile : profiles) {
       // convert to a protocol lib profile
       WrappedGameProfile wrappedGameProfile = new WrappedGameProfile(profile.uniqueId(), profile.name());
       for (ProfileProperty prop : profile.properties()) {
@@ -365,18 +486,16 @@ final class ProtocolLibPacketAdapter implements PlatformPacketAdapter<World, Pla
       }
 
       // add the player info data
-      PlayerInfoData playerInfoData = new PlayerInfoData(
+      playerInfoData.add(new PlayerInfoData(
         profile.uniqueId(),
         20,
         false,
         EnumWrappers.NativeGameMode.CREATIVE,
         wrappedGameProfile,
-        null);
-      container.getPlayerInfoDataLists().write(playerInfoDataIndex, Lists.newArrayList(playerInfoData));
-
-      // send the packet without notifying any bound packet listeners
-      PROTOCOL_MANAGER.sendServerPacket(player, container, false);
-    });
+        null));
+    }
+    container.getPlayerInfoDataLists().write(playerInfoDataIndex, playerInfoData);
+    return container;
   }
 
   @Override
@@ -393,7 +512,7 @@ final class ProtocolLibPacketAdapter implements PlatformPacketAdapter<World, Pla
 
       // entity teleport (https://wiki.vg/Protocol#Entity_Teleport) or Player Rotation (https://wiki.vg/Protocol#Player_Rotation)
       PacketContainer rotation;
-      if (MinecraftVersion.COMBAT_UPDATE.atOrAbove()) {
+      if (AT_LEAST_1_9) {
         // mc 1.9: player rotation
         rotation = new PacketContainer(PacketType.Play.Server.ENTITY_LOOK);
       } else {
@@ -446,39 +565,96 @@ final class ProtocolLibPacketAdapter implements PlatformPacketAdapter<World, Pla
     @NotNull ItemStack item
   ) {
     return (player, npc) -> {
-      // EntityEquipment (https://wiki.vg/Protocol#Entity_Equipment)
-      PacketContainer container = new PacketContainer(PacketType.Play.Server.ENTITY_EQUIPMENT);
+      // only the item which the npc is currently holding can be shared between the players
+      if (npc.equipment(slot) == item) {
+        // the item identity is part of the key, a concurrent item change can't leave a stale packet behind
+        Object key = NpcPacketCache.identityKey(slot, item);
+        sendCachedPacket(player, npc, key, false, () -> createEquipmentContainer(npc, slot, item));
+        return;
+      }
 
-      // entity id
-      container.getIntegers().write(0, npc.entityId());
+      // send the packet without notifying any bound packet listeners
+      PacketContainer container = createEquipmentContainer(npc, slot, item);
+      PROTOCOL_MANAGER.sendServerPacket(player, container, false);
+    };
+  }
 
-      // item
-      if (MinecraftVersion.NETHER_UPDATE.atOrAbove()) {
-        // mc 1.16: item slot & item stack pairs
-        EnumWrappers.ItemSlot itemSlot = ITEM_SLOT_CONVERTER.get(slot);
-        container.getSlotStackPairLists().write(0, Lists.newArrayList(new Pair<>(itemSlot, item)));
+  @Override
+  public @NotNull OutboundPacket<World, Player, ItemStack, Plugin> createEquipmentPacket(
+    @NotNull Map<ItemSlot, ItemStack> equipment
+  ) {
+    return (player, npc) -> {
+      if (equipment.isEmpty()) {
+        return;
+      }
+
+      if (AT_LEAST_1_16) {
+        // mc 1.16: all equipment pieces fit into a single packet
+        PROTOCOL_MANAGER.sendServerPacket(player, createEquipmentContainer(npc, equipment), false);
       } else {
-        if (MinecraftVersion.COMBAT_UPDATE.atOrAbove()) {
-          // mc 1.9: item slot
-          container.getItemSlots().write(0, ITEM_SLOT_CONVERTER.get(slot));
-        } else {
-          // mc 1.8: item slot id
-          int slotId = slot.ordinal();
-          if (slotId > 0) {
-            // off-hand did not exist in 1.8, so all ids are shifted one down
-            slotId -= 1;
-          }
+        // one packet per slot on older versions
+        for (Map.Entry<ItemSlot, ItemStack> entry : equipment.entrySet()) {
+          PacketContainer container = createEquipmentContainer(npc, entry.getKey(), entry.getValue());
+          PROTOCOL_MANAGER.sendServerPacket(player, container, false);
+        }
+      }
+    };
+  }
+
+  private static @NotNull PacketContainer createEquipmentContainer(
+    @NotNull Npc<?, ?, ?, ?> npc,
+    @NotNull Map<ItemSlot, ItemStack> equipment
+  ) {
+    // EntityEquipment (https://wiki.vg/Protocol#Entity_Equipment), only valid since 1.16
+    PacketContainer container = new PacketContainer(PacketType.Play.Server.ENTITY_EQUIPMENT);
+    container.getIntegers().write(0, npc.entityId());
+
+    // item slot & item stack pairs
+    List<Pair<EnumWrappers.ItemSlot, ItemStack>> pairs = new ArrayList<>(equipment.size());
+    for (Map.Entry<ItemSlot, ItemStack> entry : equipment.entrySet()) {
+      pairs.add(new Pair<>(ITEM_SLOT_CONVERTER.get(entry.getKey()), entry.getValue()));
+    }
+    container.getSlotStackPairLists().write(0, pairs);
 
-          container.getIntegers().write(1, slotId);
+    return container;
+  }
+
+  private static @NotNull PacketContainer createEquipmentContainer(
+    @NotNull Npc<?, ?, ?, ?> npc,
+    @NotNull ItemSlot slot,
+    @NotNull ItemStack item
+  ) {
+    // EntityEquipment (https://wiki.vg/Protocol#Entity_Equipment)
+    PacketContainer container = new PacketContainer(PacketType.Play.Server.ENTITY_EQUIPMENT);
+
+    // entity id
+    container.getIntegers().write(0, npc.entityId());
+
+    // item
+    if (AT_LEAST_1_16) {
+      // mc 1.16: item slot & item stack pairs
+      EnumWrappers.ItemSlot itemSlot = ITEM_SLOT_CONVERTER.get(slot);
+      container.getSlotStackPairLists().write(0, Lists.newArrayList(new Pair<>(itemSlot, item)));
+    } else {
+      if (AT_LEAST_1_9) {
+        // mc 1.9: item slot
+        container.getItemSlots().write(0, ITEM_SLOT_CONVERTER.get(slot));
+      } else {
+        // mc 1.8: item slot id
+        int slotId = slot.ordinal();
+        if (slotId > 0) {
+          // off-hand did not exist in 1.8, so all ids are shifted one down
+          slotId -= 1;
         }
 
-        // the actual item
-        container.getItemModifier().write(0, item);
+        container.getIntegers().write(1, slotId);
       }
 
-      // send the packet without notifying any bound packet listeners
-      PROTOCOL_MANAGER.sendServerPacket(player, container, false);
-    };
+      // the actual item
+      container.getItemModifier().write(0, item);
+    }
+
+    return container;
   }
 
   @Override
@@ -490,12 +666,12 @@ final class ProtocolLibPacketAdapter implements PlatformPacketAdapter<World, Pla
       // CustomPayload (https://wiki.vg/Protocol#Custom_Payload)
       PacketContainer container = new PacketContainer(PacketType.Play.Server.CUSTOM_PAYLOAD);
 
-      if (MinecraftVersion.AQUATIC_UPDATE.atOrAbove()) {
+      if (AT_LEAST_1_13) {
         // mc 1.13: channel id is now in the format of a resource location
         String[] parts = channelId.split(":", 2);
         MinecraftKey key = parts.length == 1 ? new MinecraftKey(channelId) : new MinecraftKey(parts[0], parts[1]);
 
-        if (MinecraftVersion.CONFIG_PHASE_PROTOCOL_UPDATE.atOrAbove()) {
+        if (AT_LEAST_1_20_2) {
           // mc 1.20.2: custom payload info is in a wrapper object
           CustomPacketPayloadWrapper payloadWrapper = new CustomPacketPayloadWrapper(payload, key);
           container.getCustomPacketPayloads().write(0, payloadWrapper);
@@ -508,7 +684,7 @@ final class ProtocolLibPacketAdapter implements PlatformPacketAdapter<World, Pla
         container.getStrings().write(0, channelId);
       }
 
-      if (!MinecraftVersion.CONFIG_PHASE_PROTOCOL_UPDATE.atOrAbove()) {
+      if (!AT_LEAST_1_20_2) {
         // pre 1.20.2: payload data is a ByteBuf field
         ByteBuf buffer = Unpooled.copiedBuffer(payload);
         Object wrappedSerializableBuffer = MinecraftReflection.getPacketDataSerializer(buffer);
@@ -522,7 +698,112 @@ final class ProtocolLibPacketAdapter implements PlatformPacketAdapter<World, Pla
 
   @Override
   public @NotNull OutboundPacket<World, Player, ItemStack, Plugin> createEntityTeleportPacket(String worldId, Position position) {
-    return null;
+    return (player, npc) -> {
+      // send the packet without notifying any bound packet listeners
+      PacketContainer container = createTeleportContainer(npc.entityId(), position);
+      PROTOCOL_MANAGER.sendServerPacket(player, container, false);
+    };
+  }
+
+  @Override
+  public @NotNull OutboundPacket<World, Player, ItemStack, Plugin> createEntityMovePacket(
+    @NotNull Position from,
+    @NotNull Position to
+  ) {
+    // pre-calculate the deltas, mc 1.8 uses fixed point numbers with 5 fraction bits, mc 1.9 with 12 fraction bits
+    boolean fixedPoint = !AT_LEAST_1_9;
+    double scale = fixedPoint ? 32.0D : 4096.0D;
+    long deltaX = (long) Math.floor(to.x() * scale) - (long) Math.floor(from.x() * scale);
+    long deltaY = (long) Math.floor(to.y() * scale) - (long) Math.floor(from.y() * scale);
+    long deltaZ = (long) Math.floor(to.z() * scale) - (long) Math.floor(from.z() * scale);
+
+    // check if the move can be expressed relatively, fall back to an absolute teleport otherwise
+    long max = fixedPoint ? Byte.MAX_VALUE : Short.MAX_VALUE;
+    long min = fixedPoint ? Byte.MIN_VALUE : Short.MIN_VALUE;
+    boolean relative = Math.max(deltaX, Math.max(deltaY, deltaZ)) <= max
+      && Math.min(deltaX, Math.min(deltaY, deltaZ)) >= min;
+
+    byte yawAngle = (byte) (to.yaw() * 256F / 360F);
+    byte pitchAngle = (byte) (to.pitch() * 256F / 360F);
+
+    return (player, npc) -> {
+      PacketContainer container;
+      if (relative) {
+        // EntityPositionAndRotation (https://wiki.vg/Protocol#Update_Entity_Position_and_Rotation)
+        container = new PacketContainer(PacketType.Play.Server.REL_ENTITY_MOVE_LOOK);
+        container.getIntegers().write(0, npc.entityId());
+
+        if (AT_LEAST_1_14) {
+          // mc 1.14: deltas are shorts
+          container.getShorts()
+            .write(0, (short) deltaX)
+            .write(1, (short) deltaY)
+            .write(2, (short) deltaZ);
+        } else if (!fixedPoint) {
+          // mc 1.9: deltas are stored in ints
+          container.getIntegers()
+            .write(1, (int) deltaX)
+            .write(2, (int) deltaY)
+            .write(3, (int) deltaZ);
+        } else {
+          // mc 1.8: deltas are bytes, followed by the rotation
+          container.getBytes()
+            .write(0, (byte) deltaX)
+            .write(1, (byte) deltaY)
+            .write(2, (byte) deltaZ);
+        }
+
+        // rotation (angles), after the deltas in 1.8
+        int rotationIndex = fixedPoint ? 3 : 0;
+        container.getBytes()
+          .write(rotationIndex, yawAngle)
+          .write(rotationIndex + 1, pitchAngle);
+
+        // ground status
+        container.getBooleans().write(0, true);
+      } else {
+        container = createTeleportContainer(npc.entityId(), to);
+      }
+
+      // head rotation (https://wiki.vg/Protocol#Entity_Head_Look)
+      PacketContainer headRotation = new PacketContainer(PacketType.Play.Server.ENTITY_HEAD_ROTATION);
+      headRotation.getBytes().write(0, yawAngle);
+      headRotation.getIntegers().write(0, npc.entityId());
+
+      // send the packet without notifying any bound packet listeners
+      PROTOCOL_MANAGER.sendServerPacket(player, container, false);
+      PROTOCOL_MANAGER.sendServerPacket(player, headRotation, false);
+    };
+  }
+
+  private static @NotNull PacketContainer createTeleportContainer(int entityId, @NotNull Position position) {
+    // EntityTeleport (https://wiki.vg/Protocol#Teleport_Entity)
+    PacketContainer container = new PacketContainer(PacketType.Play.Server.ENTITY_TELEPORT);
+    container.getIntegers().write(0, entityId);
+
+    // position
+    if (AT_LEAST_1_9) {
+      // mc 1.9: new position format (plain doubles)
+      container.getDoubles()
+        .write(0, position.x())
+        .write(1, position.y())
+        .write(2, position.z());
+    } else {
+      // mc 1.8: old position format (fixed point numbers)
+      container.getIntegers()
+        .write(1, (int) Math.floor(position.x() * 32.0D))
+        .write(2, (int) Math.floor(position.y() * 32.0D))
+        .write(3, (int) Math.floor(position.z() * 32.0D));
+    }
+
+    // rotation (angles)
+    container.getBytes()
+      .write(0, (byte) (position.yaw() * 256F / 360F))
+      .write(1, (byte) (position.pitch() * 256F / 360F));
+
+    // ground status
+    container.getBooleans().write(0, true);
+    return container;
   }
 
   @Override
@@ -530,72 +811,132 @@ final class ProtocolLibPacketAdapter implements PlatformPacketAdapter<World, Pla
     @NotNull EntityMetadataFactory<T, O> metadata,
     @NotNull T value
   ) {
-    return (player, npc) -> {
-      // create the entity meta
-      PlatformVersionAccessor versionAcc = npc.platform().versionAccessor();
-      EntityMetadata<O> entityMetadata = metadata.create(value, versionAcc);
+    // metadata packets don't depend on the npc state, they stay cached when the npc changes
+    return (player, npc) -> sendCachedPacket(
+      player,
+      npc,
+      new AbstractMap.SimpleImmutableEntry<>(metadata, value),
+      true,
+      () -> createMetaContainer(npc, metadata, value));
+  }
 
-      // check if the meta is available
-      if (!entityMetadata.available()) {
-        return;
+  @Override
+  public @NotNull OutboundPacket<World, Player, ItemStack, Plugin> createEntityMetaPacket(
+    @NotNull Map<EntityMetadataFactory<?, ?>, Object> metadata
+  ) {
+    return (player, npc) -> {
+      PacketContainer container = createMetaContainer(npc, metadata);
+      if (container != null) {
+        PROTOCOL_MANAGER.sendServerPacket(player, container, false);
       }
+    };
+  }
 
-      // construct the meta we want to send out
-      List<WrappedWatchableObject> watchableObjects = new ArrayList<>();
-      watchableObjects.add(createWatchableObject(
-        entityMetadata.index(),
-        entityMetadata.type(),
-        entityMetadata.value(),
-        versionAcc));
-
-      // add all dependant metas
-      for (EntityMetadataFactory<T, Object> relatedMetadata : metadata.relatedMetadata()) {
-        EntityMetadata<Object> related = relatedMetadata.create(value, versionAcc);
-        if (related.available()) {
-          // create & register the watchable object
-          WrappedWatchableObject watchableObject = createWatchableObject(
-            related.index(),
-            related.type(),
-            related.value(),
-            versionAcc);
-          if (watchableObject != null) {
-            watchableObjects.add(watchableObject);
-          }
-        }
-      }
+  private static @Nullable <T, O> PacketContainer createMetaContainer(
+    @NotNull Npc<?, ?, ?, ?> npc,
+    @NotNull EntityMetadataFactory<T, O> metadata,
+    @NotNull T value
+  ) {
+    Map<Integer, WrappedWatchableObject> watchableObjects = new LinkedHashMap<>();
+    if (!collectWatchableObjects(metadata, value, npc.platform().versionAccessor(), watchableObjects)) {
+      return null;
+    }
 
-      // EntityMetadata (https://wiki.vg/Protocol#Entity_Metadata)
-      PacketContainer container = new PacketContainer(PacketType.Play.Server.ENTITY_METADATA);
+    return createMetaContainer(npc.entityId(), watchableObjects.values());
+  }
 
-      // entity id
-      container.getIntegers().write(0, npc.entityId());
+  @SuppressWarnings("unchecked")
+  private static @Nullable PacketContainer createMetaContainer(
+    @NotNull Npc<?, ?, ?, ?> npc,
+    @NotNull Map<EntityMetadataFactory<?, ?>, Object> metadata
+  ) {
+    // merge all metas into one packet, the last value for each index wins
+    PlatformVersionAccessor versionAcc = npc.platform().versionAccessor();
+    Map<Integer, WrappedWatchableObject> watchableObjects = new LinkedHashMap<>();
+    for (Map.Entry<EntityMetadataFactory<?, ?>, Object> entry : metadata.entrySet()) {
+      EntityMetadataFactory<Object, ?> factory = (EntityMetadataFactory<Object, ?>) entry.getKey();
+      collectWatchableObjects(factory, entry.getValue(), versionAcc, watchableObjects);
+    }
 
-      // since 1.19.3 the metadata is wrapped in a specified object, we therefore need to convert all values
-      if (MinecraftVersion.FEATURE_PREVIEW_UPDATE.atOrAbove()) {
-        // convert the given values
-        List<WrappedDataValue> wrappedDataValues = new ArrayList<>(watchableObjects.size());
-        for (WrappedWatchableObject object : watchableObjects) {
-          WrappedDataValue dataValue = new WrappedDataValue(
-            object.getIndex(),
-            object.getWatcherObject().getSerializer(),
-            object.getRawValue());
-          wrappedDataValues.add(dataValue);
-        }
+    // check if any meta is available
+    if (watchableObjects.isEmpty()) {
+      return null;
+    }
 
-        // write the data values
-        container.getDataValueCollectionModifier().write(0, wrappedDataValues);
-      } else {
-        // entity id & metadata
-        container.getWatchableCollectionModifier().write(0, watchableObjects);
+    return createMetaContainer(npc.entityId(), watchableObjects.values());
+  }
+
+  private static <T, O> boolean collectWatchableObjects(
+    @NotNull EntityMetadataFactory<T, O> metadata,
+    @NotNull T value,
+    @NotNull PlatformVersionAccessor versionAcc,
+    @NotNull Map<Integer, WrappedWatchableObject> target
+  ) {
+    // get the plan for the current version
+    EntityMetadataPlan<T, O> plan = metadata.compile(versionAcc);
+
+    // check if the meta is available
+    EntityMetadataPlan.Step<T, O> primary = plan.primary();
+    if (primary == null) {
+      return false;
+    }
+
+    // construct the meta we want to send out
+    EntityMetadata<O> primaryMetadata = primary.create(value);
+    WrappedWatchableObject primaryObject = createWatchableObject(primaryMetadata, versionAcc);
+    if (primaryObject == null) {
+      return false;
+    }
+
+    target.put(primaryMetadata.index(), primaryObject);
+
+    // add all dependant metas which are available for the input
+    for (EntityMetadataPlan.Step<T, Object> related : plan.related()) {
+      EntityMetadata<Object> relatedMetadata = related.create(value);
+      WrappedWatchableObject watchableObject = createWatchableObject(relatedMetadata, versionAcc);
+      if (watchableObject != null) {
+        target.put(relatedMetadata.index(), watchableObject);
       }
+    }
 
-      // send the packet without notifying any bound packet listeners
-      PROTOCOL_MANAGER.sendServerPacket(player, container, false);
-    };
+    return true;
+  }
+
+  private static @NotNull PacketContainer createMetaContainer(
+    int entityId,
+    @NotNull Collection<WrappedWatchableObject> watchableObjects
+  ) {
+    // EntityMetadata (https://wiki.vg/Protocol#Entity_Metadata)
+    PacketContainer container = new PacketContainer(PacketType.Play.Server.ENTITY_METADATA);
+
+    // entity id
+    container.getIntegers().write(0, entityId);
+
+    // since 1.19.3 the metadata is wrapped in a specified object, we therefore need to convert all values
+    if (AT_LEAST_1_19_3) {
+      // convert the given values
+      List<WrappedDataValue> wrappedDataValues = new ArrayList<>(watchableObjects.size());
+      for (WrappedWatchableObject object : watchableObjects) {
+        WrappedDataValue dataValue = new WrappedDataValue(
+          object.getIndex(),
+          object.getWatcherObject().getSerializer(),
+          object.getRawValue());
+        wrappedDataValues.add(dataValue);
+      }
+
+      // write the data values
+      container.getDataValueCollectionModifier().write(0, wrappedDataValues);
+    } else {
+      // entity id & metadata
+      container.getWatchableCollectionModifier().write(0, new ArrayList<>(watchableObjects));
+    }
+
+    return container;
   }
 
   @Override
   public void initialize(@NotNull Platform<World, Player, ItemStack, Plugin> platform) {
+    this.spawnBundles = platform.versionAccessor().atLeast(1, 19, 4);
     PROTOCOL_MANAGER.addPacketListener(new NpcUsePacketAdapter(platform));
   }
 
@@ -622,7 +963,7 @@ public void onPacketReceiving(@NotNull PacketEvent event) {
         EnumWrappers.EntityUseAction action;
         EnumWrappers.Hand hand = EnumWrappers.Hand.MAIN_HAND;
 
-        if (MinecraftVersion.CAVES_CLIFFS_1.atOrAbove()) {
+        if (AT_LEAST_1_17) {
           // mc 1.17: hand & action are now in an internal wrapper class
           WrappedEnumEntityUseAction useAction = packet.getEnumEntityUseActions().read(0);
           action = useAction.getAction();
@@ -636,7 +977,7 @@ public void onPacketReceiving(@NotNull PacketEvent event) {
           action = packet.getEntityUseActions().read(0);
 
           // the hand is not explicitly send for attacks (always the main hand)
-          if (action != EnumWrappers.EntityUseAction.ATTACK && MinecraftVersion.COMBAT_UPDATE.atOrAbove()) {
+          if (action != EnumWrappers.EntityUseAction.ATTACK && AT_LEAST_1_9) {
             // mc 1.9: hand is now a thing
             hand = packet.getHands().read(0);
           }
@@ -645,11 +986,15 @@ public void onPacketReceiving(@NotNull PacketEvent event) {
         // call the event
         switch (action) {
           case ATTACK:
-            this.platform.eventManager().post(DefaultAttackNpcEvent.attackNpc(npc, player));
+            if (this.platform.eventManager().hasSubscribers(AttackNpcEvent.class)) {
+              this.platform.eventManager().post(DefaultAttackNpcEvent.attackNpc(npc, player));
+            }
             break;
           case INTERACT:
-            InteractNpcEvent.Hand usedHand = HAND_CONVERTER.get(hand);
-            this.platform.eventManager().post(DefaultInteractNpcEvent.interactNpc(npc, player, usedHand));
+            if (this.platform.eventManager().hasSubscribers(InteractNpcEvent.class)) {
+              InteractNpcEvent.Hand usedHand = HAND_CONVERTER.get(hand);
+              this.platform.eventManager().post(DefaultInteractNpcEvent.interactNpc(npc, player, usedHand));
+            }
             break;
           default:
             // we don't handle INTERACT_AT as the client sends it alongside the interact packet (duplicate event call)
@@ -661,4 +1006,52 @@ public void onPacketReceiving(@NotNull PacketEvent event) {
       }
     }
   }
+
+  private static final class CompiledMetadataType {
+
+    private final Type type;
+    private final BiFunction<PlatformVersionAccessor, Object, Map.Entry<Type, Object>> converter;
+
+    // resolved on first use, the converted type only depends on the server version
+    private volatile WrappedDataWatcher.Serializer serializer;
+
+    public CompiledMetadataType(@NotNull Type type) {
+      this.type = type;
+      this.converter = SERIALIZER_CONVERTERS.get(type);
+    }
+
+    public @Nullable WrappedWatchableObject createWatchableObject(
+      int index,
+      @NotNull Object value,
+      @NotNull PlatformVersionAccessor versionAccessor
+    ) {
+      // pre-convert the value if needed
+      Type type = this.type;
+      if (this.converter != null) {
+        Map.Entry<Type, Object> converted = this.converter.apply(versionAccessor, value);
+        // re-assign the type and value
+        type = converted.getKey();
+        value = converted.getValue();
+
+        // the value might not be accessible on the current version
+        if (value == null) {
+          return null;
+        }
+      }
+
+      if (AT_LEAST_1_9) {
+        // mc 1.9: watchable object now contains a serializer for the type
+        WrappedDataWatcher.Serializer serializer = this.serializer;
+        if (serializer == null) {
+          serializer = resolveSerializer(type);
+          this.serializer = serializer;
+        }
+
+        return new WrappedWatchableObject(new WrappedDataWatcher.WrappedDataWatcherObject(index, serializer), value);
+      } else {
+        // mc 1.8: watchable object id
+        return new WrappedWatchableObject(index, value);
+      }
+    }
+  }
 }
@@ -24,51 +24,52 @@
 
 package com.github.juliarn.npclib.bukkit.track;
 
-import static com.github.juliarn.npclib.api.NpcActionController.SPAWN_DISTANCE;
-
 import com.github.juliarn.npclib.api.Npc;
+import com.github.juliarn.npclib.api.Platform;
 import com.github.juliarn.npclib.api.Position;
 import com.github.juliarn.npclib.bukkit.util.BukkitPlatformUtil;
 import com.github.juliarn.npclib.common.CommonNpcTracker;
-import java.util.concurrent.TimeUnit;
-import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
 
-public class BukkitNpcTracker extends CommonNpcTracker<World, Player, ItemStack, Plugin> {
+public class BukkitNpcTracker extends CommonNpcTracker<World, Player, ItemStack, Plugin> implements Listener {
 
   public BukkitNpcTracker() {
     super();
-    executor.scheduleAtFixedRate(() -> {
-      for (Player player : Bukkit.getOnlinePlayers()) {
-        for (Npc<World, Player, ItemStack, Plugin> npc : trackedNpcs()) {
-          int spawnDistance = SPAWN_DISTANCE.defaultValue() * SPAWN_DISTANCE.defaultValue();
-
-          Position pos = npc.position();
-          if (!npc.world().equals(player.getWorld()) || !npc.world().isChunkLoaded(pos.chunkX(), pos.chunkZ())) {
-            npc.stopTrackingPlayer(player);
-            continue;
-          }
-
-          double distance = BukkitPlatformUtil.distance(npc, player.getLocation());
-          if (distance > spawnDistance) {
-            npc.stopTrackingPlayer(player);
-          } else {
-
-            if (npc.isPlayerTracked(player)) {
-              continue;
-            }
-
-            if (this.npcqueue.get(player) != null && this.npcqueue.get(player).contains(npc))
-              continue;
-
-            addToQueue(player, npc);
-          }
-        }
-      }
-    }, 0L, 20L, TimeUnit.MILLISECONDS);
+  }
+
+  public BukkitNpcTracker(int spawnsPerTick) {
+    super(spawnsPerTick);
+  }
+
+  @Override
+  public void initialize(@NotNull Platform<World, Player, ItemStack, Plugin> platform) {
+    super.initialize(platform);
+
+    // listen to the player movements to update the visible npcs
+    Plugin plugin = platform.extension();
+    plugin.getServer().getPluginManager().registerEvents(this, plugin);
+
+    // register the players which are already online, for example after a reload
+    for (Player player : plugin.getServer().getOnlinePlayers()) {
+      this.updateViewer(player, player.getLocation());
+    }
   }
 
   @Override
@@ -76,4 +77,71 @@ public double calculateDistance(Player player, Npc<World, Player, ItemStack, Plu
     return BukkitPlatformUtil.distance(npc, player.getLocation());
   }
 
+  @Override
+  protected boolean isSpawnable(@NotNull Npc<World, Player, ItemStack, Plugin> npc) {
+    Position pos = npc.position();
+    return npc.world().isChunkLoaded(pos.chunkX(), pos.chunkZ());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void handleJoin(@NotNull PlayerJoinEvent event) {
+    Player player = event.getPlayer();
+    this.updateViewer(player, player.getLocation());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void handleMove(@NotNull PlayerMoveEvent event) {
+    this.updateViewer(event.getPlayer(), event.getTo());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void handleTeleport(@NotNull PlayerTeleportEvent event) {
+    this.updateViewer(event.getPlayer(), event.getTo());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void handleRespawn(@NotNull PlayerRespawnEvent event) {
+    this.updateViewer(event.getPlayer(), event.getRespawnLocation());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void handleWorldChange(@NotNull PlayerChangedWorldEvent event) {
+    Player player = event.getPlayer();
+    this.updateViewer(player, player.getLocation());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void handleQuit(@NotNull PlayerQuitEvent event) {
+    this.removeViewer(event.getPlayer());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void handleChunkLoad(@NotNull ChunkLoadEvent event) {
+    // the npcs in the chunk might be spawnable for the nearby players now
+    Chunk chunk = event.getChunk();
+    for (Npc<World, Player, ItemStack, Plugin> npc : this.npcIndex.npcsInChunk(
+      chunk.getWorld(),
+      chunk.getX(),
+      chunk.getZ())) {
+      this.visibilityEngine.updateNpc(npc);
+    }
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void handleChunkUnload(@NotNull ChunkUnloadEvent event) {
+    Chunk chunk = event.getChunk();
+    for (Npc<World, Player, ItemStack, Plugin> npc : this.npcIndex.npcsInChunk(
+      chunk.getWorld(),
+      chunk.getX(),
+      chunk.getZ())) {
+      this.visibilityEngine.hideNpc(npc);
+    }
+  }
+
+  private void updateViewer(@NotNull Player player, @NotNull Location location) {
+    World world = location.getWorld();
+    if (world != null) {
+      this.updateViewer(player, world, location.getX(), location.getY(), location.getZ());
+    }
+  }
 }
@@ -48,6 +48,10 @@ import com.github.jengelman.gradle.plugins.shadow.tasks.ShadowJar
  * THE SOFTWARE.
  */
 
+plugins {
+  alias(libs.plugins.jmh)
+}
+
 repositories {
   mavenLocal()
 }
@@ -55,6 +59,13 @@ repositories {
 dependencies {
   api(projects.npcLibApi)
   compileOnly("org.contrum.holograms:spigot:1.0.4")
+
+  // the benchmarks load the npc classes which reference the holograms
+  jmh("org.contrum.holograms:spigot:1.0.4")
+}
+
+jmh {
+  jmhVersion.set(libs.versions.jmhCore)
 }
 
 tasks.withType<ShadowJar> {
@@ -0,0 +1,171 @@
+/*
+ * This file is part of npc-lib, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022-2023 Julian M., Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.juliarn.npclib.common.npc;
+
+import com.github.juliarn.npclib.api.Position;
+import com.github.juliarn.npclib.api.profile.Profile;
+import com.github.juliarn.npclib.api.protocol.enums.ItemSlot;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// each group runs 8 threads: 7 readers (packet listeners, movement, broadcasts) and one thread changing the viewers
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class NpcViewerContentionBenchmark {
+
+  private static final int VIEWERS = 50;
+  private static final int READER_THREADS = 7;
+
+  // the first half is tracked from the start, the writer adds and removes the second half
+  private static final Object[] PLAYERS = new Object[VIEWERS * 2];
+
+  static {
+    for (int i = 0; i < PLAYERS.length; i++) {
+      PLAYERS[i] = new Object();
+    }
+  }
+
+  @Benchmark
+  @Group("synchronizedCollections")
+  @GroupThreads(READER_THREADS)
+  public void synchronizedRead(SynchronizedState state, Blackhole blackhole) {
+    blackhole.consume(state.trackedPlayers.contains(PLAYERS[0]));
+    blackhole.consume(state.equipment.get(ItemSlot.MAIN_HAND));
+
+    // iterating a synchronized wrapper is only safe while holding its lock
+    synchronized (state.trackedPlayers) {
+      for (Object player : state.trackedPlayers) {
+        blackhole.consume(player);
+      }
+    }
+  }
+
+  @Benchmark
+  @Group("synchronizedCollections")
+  @GroupThreads(1)
+  public void synchronizedWrite(SynchronizedState state) {
+    Object player = PLAYERS[VIEWERS + state.writeIndex++ % VIEWERS];
+    if (!state.trackedPlayers.add(player)) {
+      state.trackedPlayers.remove(player);
+    }
+  }
+
+  @Benchmark
+  @Group("lockFreeCollections")
+  @GroupThreads(READER_THREADS)
+  public void lockFreeRead(LockFreeState state, Blackhole blackhole) {
+    CommonNpc<String, Object, Object, Object> npc = state.npc;
+    blackhole.consume(npc.tracksPlayer(PLAYERS[0]));
+    blackhole.consume(npc.equipment(ItemSlot.MAIN_HAND));
+
+    for (Object player : npc.trackedPlayers()) {
+      blackhole.consume(player);
+    }
+  }
+
+  @Benchmark
+  @Group("lockFreeCollections")
+  @GroupThreads(1)
+  public void lockFreeWrite(LockFreeState state) {
+    Object player = PLAYERS[VIEWERS + state.writeIndex++ % VIEWERS];
+    if (!state.npc.trackedPlayers.add(player)) {
+      state.npc.trackedPlayers.remove(player);
+    }
+  }
+
+  @State(Scope.Group)
+  public static class SynchronizedState {
+
+    // the collections which were used by the npc before
+    final Set<Object> trackedPlayers = Collections.synchronizedSet(new HashSet<>());
+    final Map<ItemSlot, Object> equipment = Collections.synchronizedMap(new EnumMap<>(ItemSlot.class));
+
+    // only used by the writer thread
+    int writeIndex;
+
+    @Setup
+    public void setup() {
+      for (int i = 0; i < VIEWERS; i++) {
+        this.trackedPlayers.add(PLAYERS[i]);
+      }
+
+      for (ItemSlot slot : ItemSlot.values()) {
+        this.equipment.put(slot, new Object());
+      }
+    }
+  }
+
+  @State(Scope.Group)
+  public static class LockFreeState {
+
+    CommonNpc<String, Object, Object, Object> npc;
+
+    // only used by the writer thread
+    int writeIndex;
+
+    @Setup
+    public void setup() {
+      this.npc = new CommonNpc<>(
+        Collections.emptyMap(),
+        1,
+        Profile.resolved("npc", UUID.randomUUID()),
+        "world",
+        Position.position(0, 0, 0, "world"),
+        null,
+        null);
+
+      for (int i = 0; i < VIEWERS; i++) {
+        this.npc.trackedPlayers.add(PLAYERS[i]);
+      }
+
+      Map<ItemSlot, Object> equipment = new EnumMap<>(ItemSlot.class);
+      for (ItemSlot slot : ItemSlot.values()) {
+        equipment.put(slot, new Object());
+      }
+      this.npc.equipment = Collections.unmodifiableMap(equipment);
+    }
+  }
+}
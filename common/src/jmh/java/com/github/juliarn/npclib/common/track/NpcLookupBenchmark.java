@@ -0,0 +1,150 @@
+/*
+ * This file is part of npc-lib, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022-2023 Julian M., Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.juliarn.npclib.common.track;
+
+import com.github.juliarn.npclib.api.Npc;
+import com.github.juliarn.npclib.api.Position;
+import com.github.juliarn.npclib.api.profile.Profile;
+import com.github.juliarn.npclib.common.npc.CommonNpc;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.jetbrains.annotations.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class NpcLookupBenchmark {
+
+  // must be a power of two, the lookups are walked in a ring
+  private static final int LOOKUPS = 1024;
+  private static final int FIRST_ENTITY_ID = 10_000;
+
+  @Param({"10", "1000", "100000"})
+  public int npcCount;
+
+  // the linear scan which was used before the lookup tables
+  private final Set<Npc<String, Object, Object, Object>> trackedNpcs = Collections.synchronizedSet(new HashSet<>());
+
+  private final EntityIdNpcMap<String, Object, Object, Object> npcsById = new EntityIdNpcMap<>();
+  private final Map<UUID, Npc<String, Object, Object, Object>> npcsByUniqueId = new ConcurrentHashMap<>();
+
+  private final int[] entityIds = new int[LOOKUPS];
+  private final UUID[] uniqueIds = new UUID[LOOKUPS];
+  private int lookupIndex;
+
+  @Setup
+  public void setup() {
+    Position position = Position.position(0, 0, 0, "world");
+    for (int i = 0; i < this.npcCount; i++) {
+      Profile.Resolved profile = Profile.resolved("npc-" + i, UUID.randomUUID());
+      Npc<String, Object, Object, Object> npc = new CommonNpc<>(
+        Collections.emptyMap(),
+        FIRST_ENTITY_ID + i,
+        profile,
+        "world",
+        position,
+        null,
+        null);
+
+      this.trackedNpcs.add(npc);
+      this.npcsById.put(npc);
+      this.npcsByUniqueId.put(profile.uniqueId(), npc);
+    }
+
+    // half of the lookups miss, most interact packets target ordinary entities
+    Random random = new Random(42);
+    for (int i = 0; i < LOOKUPS; i++) {
+      if (random.nextBoolean()) {
+        this.entityIds[i] = FIRST_ENTITY_ID + random.nextInt(this.npcCount);
+        this.uniqueIds[i] = this.npcsById.get(this.entityIds[i]).profile().uniqueId();
+      } else {
+        this.entityIds[i] = random.nextInt(FIRST_ENTITY_ID);
+        this.uniqueIds[i] = UUID.randomUUID();
+      }
+    }
+  }
+
+  private int nextLookup() {
+    return this.lookupIndex = (this.lookupIndex + 1) & (LOOKUPS - 1);
+  }
+
+  @Benchmark
+  public @Nullable Npc<String, Object, Object, Object> scanById() {
+    int entityId = this.entityIds[this.nextLookup()];
+    synchronized (this.trackedNpcs) {
+      for (Npc<String, Object, Object, Object> npc : this.trackedNpcs) {
+        if (npc.entityId() == entityId) {
+          return npc;
+        }
+      }
+    }
+
+    return null;
+  }
+
+  @Benchmark
+  public @Nullable Npc<String, Object, Object, Object> mapById() {
+    return this.npcsById.get(this.entityIds[this.nextLookup()]);
+  }
+
+  @Benchmark
+  public @Nullable Npc<String, Object, Object, Object> scanByUniqueId() {
+    UUID uniqueId = this.uniqueIds[this.nextLookup()];
+    synchronized (this.trackedNpcs) {
+      for (Npc<String, Object, Object, Object> npc : this.trackedNpcs) {
+        if (npc.profile().uniqueId().equals(uniqueId)) {
+          return npc;
+        }
+      }
+    }
+
+    return null;
+  }
+
+  @Benchmark
+  public @Nullable Npc<String, Object, Object, Object> mapByUniqueId() {
+    return this.npcsByUniqueId.get(this.uniqueIds[this.nextLookup()]);
+  }
+}
@@ -24,8 +24,19 @@
 
 package com.github.juliarn.npclib.common;
 
+import static com.github.juliarn.npclib.api.NpcActionController.SPAWN_DISTANCE;
+
 import com.github.juliarn.npclib.api.Npc;
 import com.github.juliarn.npclib.api.NpcTracker;
+import com.github.juliarn.npclib.api.NpcUpdateScheduler;
+import com.github.juliarn.npclib.api.Platform;
+import com.github.juliarn.npclib.api.profile.Profile;
+import com.github.juliarn.npclib.api.protocol.enums.PlayerInfoAction;
+import com.github.juliarn.npclib.common.npc.CommonNpc;
+import com.github.juliarn.npclib.common.track.ChunkedNpcIndex;
+import com.github.juliarn.npclib.common.track.EntityIdNpcMap;
+import com.github.juliarn.npclib.common.track.NpcSpawnQueue;
+import com.github.juliarn.npclib.common.track.NpcVisibilityEngine;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -35,9 +46,7 @@
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -45,77 +54,149 @@
 
 public abstract class CommonNpcTracker<W, P, I, E> implements NpcTracker<W, P, I, E> {
 
+  public static final int DEFAULT_SPAWNS_PER_TICK = 4;
+
   protected final Logger logger = Logger.getLogger("npc-lib");
 
   protected final Set<Npc<W, P, I, E>> trackedNpcs = Collections.synchronizedSet(new HashSet<>());
-  protected final Map<P, Set<Npc<W, P, I, E>>> npcqueue = new ConcurrentHashMap<>();
-
-  protected final ScheduledExecutorService executor = Executors.newScheduledThreadPool(2,
-    r -> {
-      Thread thread = new Thread(r);
-      thread.setName("npc-lib NPC Tracker");
-      thread.setDaemon(true);
-      thread.setUncaughtExceptionHandler((t, e) -> {
-        logger.severe("Uncaught exception in npc-lib NPC Tracker thread");
-        e.printStackTrace();
-      });
-      return thread;
-    }
-  );
+  protected final Map<P, NpcSpawnQueue<W, P, I, E>> npcqueue = new ConcurrentHashMap<>();
+  protected final Set<P> drainingPlayers = ConcurrentHashMap.newKeySet();
+  protected final ChunkedNpcIndex<W, P, I, E> npcIndex = new ChunkedNpcIndex<>();
+
+  // lookup tables for the tracked npcs, only modified while holding the lock of the tracked npcs set
+  protected final EntityIdNpcMap<W, P, I, E> npcsById = new EntityIdNpcMap<>();
+  protected final Map<UUID, Npc<W, P, I, E>> npcsByUniqueId = new ConcurrentHashMap<>();
+
+  protected final NpcVisibilityEngine<W, P, I, E> visibilityEngine =
+    new NpcVisibilityEngine<>(this, SPAWN_DISTANCE.defaultValue(), this::isSpawnable);
+
+  protected final int spawnsPerTick;
 
   public CommonNpcTracker() {
-    executor.scheduleAtFixedRate(() -> {
-      for (Map.Entry<P, Set<Npc<W, P, I, E>>> entry : this.npcqueue.entrySet()) {
-        P player = entry.getKey();
-        List<Npc<W, P, I, E>> npcs = new ArrayList<>(entry.getValue());
+    this(DEFAULT_SPAWNS_PER_TICK);
+  }
 
-        npcs.sort((npc1, npc2) -> {
-          double distance1 = calculateDistance(player, npc1);
-          double distance2 = calculateDistance(player, npc2);
-          return Double.compare(distance1, distance2);
-        });
+  public CommonNpcTracker(int spawnsPerTick) {
+    if (spawnsPerTick <= 0) {
+      throw new IllegalArgumentException("spawnsPerTick must be positive");
+    }
+
+    this.spawnsPerTick = spawnsPerTick;
+  }
+
+  public abstract double calculateDistance(P player, Npc<W, P, I, E> npc);
+
+  protected boolean isSpawnable(@NotNull Npc<W, P, I, E> npc) {
+    return true;
+  }
+
+  @Override
+  public void initialize(@NotNull Platform<W, P, I, E> platform) {
+    // npcs become visible in the spawn distance which was configured on the action controller
+    platform.actionController().ifPresent(
+      controller -> this.visibilityEngine.viewDistance(controller.flagValueOrDefault(SPAWN_DISTANCE)));
 
-        if (npcs.isEmpty()) continue;
+    // spawn the nearest queued npcs first, but only a limited amount per player each tick. the drain of each
+    // player is submitted as budgeted work, at most one drain per player is pending at the same time
+    NpcUpdateScheduler scheduler = platform.updateScheduler();
+    scheduler.scheduleRepeating(() -> {
+      for (Map.Entry<P, NpcSpawnQueue<W, P, I, E>> entry : this.npcqueue.entrySet()) {
+        P player = entry.getKey();
+        NpcSpawnQueue<W, P, I, E> queue = entry.getValue();
+        if (!queue.isEmpty() && this.drainingPlayers.add(player)) {
+          scheduler.schedule(() -> this.drainQueue(player, queue));
+        }
+      }
+    });
+  }
 
-        Npc<W, P, I, E> npc = npcs.iterator().next();
-        npc.trackPlayer(player);
-        entry.getValue().remove(npc);
+  protected void drainQueue(@NotNull P player, @NotNull NpcSpawnQueue<W, P, I, E> queue) {
+    try {
+      // the player might have left since the drain was scheduled
+      if (this.npcqueue.get(player) == queue) {
+        this.trackPlayer(player, queue.poll(this.spawnsPerTick));
       }
-    }, 0L, 1L, TimeUnit.SECONDS);
+    } catch (Exception exception) {
+      this.logger.log(Level.SEVERE, "Unable to spawn queued npcs", exception);
+    } finally {
+      this.drainingPlayers.remove(player);
+    }
   }
 
-  public abstract double calculateDistance(P player, Npc<W, P, I, E> npc);
+  public void updateViewer(@NotNull P player, @NotNull W world, double x, double y, double z) {
+    this.visibilityEngine.updateViewer(player, world, x, y, z);
+  }
+
+  public void removeViewer(@NotNull P player) {
+    this.visibilityEngine.removeViewer(player);
+    this.npcqueue.remove(player);
+  }
 
   @Override
   public @Nullable Npc<W, P, I, E> npcById(int entityId) {
-    for (Npc<W, P, I, E> trackedNpc : this.trackedNpcs) {
-      if (trackedNpc.entityId() == entityId) {
-        return trackedNpc;
+    return this.npcsById.get(entityId);
+  }
+
+  @Override
+  public @Nullable Npc<W, P, I, E> npcByUniqueId(@NotNull UUID uniqueId) {
+    return this.npcsByUniqueId.get(uniqueId);
+  }
+
+  @Override
+  public void trackNpc(@NotNull Npc<W, P, I, E> npc) {
+    synchronized (this.trackedNpcs) {
+      if (!this.trackedNpcs.add(npc)) {
+        return;
       }
+
+      this.npcsById.put(npc);
+      this.npcsByUniqueId.put(npc.profile().uniqueId(), npc);
+      this.npcIndex.add(npc);
     }
 
-    return null;
+    this.visibilityEngine.updateNpc(npc);
   }
 
   @Override
-  public @Nullable Npc<W, P, I, E> npcByUniqueId(@NotNull UUID uniqueId) {
-    for (Npc<W, P, I, E> trackedNpc : this.trackedNpcs) {
-      if (trackedNpc.profile().uniqueId().equals(uniqueId)) {
-        return trackedNpc;
+  public void stopTrackingNpc(@NotNull Npc<W, P, I, E> npc) {
+    synchronized (this.trackedNpcs) {
+      if (!this.trackedNpcs.remove(npc)) {
+        return;
       }
+
+      this.npcsById.remove(npc);
+      this.npcsByUniqueId.remove(npc.profile().uniqueId(), npc);
+      this.npcIndex.remove(npc);
     }
 
-    return null;
+    this.visibilityEngine.removeNpc(npc);
   }
 
   @Override
-  public void trackNpc(@NotNull Npc<W, P, I, E> npc) {
-    this.trackedNpcs.add(npc);
+  public void updateNpcProfile(@NotNull Npc<W, P, I, E> npc, @NotNull Profile.Resolved previousProfile) {
+    synchronized (this.trackedNpcs) {
+      if (this.trackedNpcs.contains(npc)) {
+        this.npcsByUniqueId.remove(previousProfile.uniqueId(), npc);
+        this.npcsByUniqueId.put(npc.profile().uniqueId(), npc);
+      }
+    }
   }
 
   @Override
-  public void stopTrackingNpc(@NotNull Npc<W, P, I, E> npc) {
-    this.trackedNpcs.remove(npc);
+  public void updateNpcPosition(@NotNull Npc<W, P, I, E> npc) {
+    this.npcIndex.update(npc);
+    this.visibilityEngine.updateNpc(npc);
+  }
+
+  @Override
+  public @NotNull Collection<Npc<W, P, I, E>> npcsNear(
+    @NotNull W world,
+    double x,
+    double y,
+    double z,
+    double radius
+  ) {
+    return this.npcIndex.npcsNear(world, x, y, z, radius);
   }
 
   @Override
@@ -125,12 +206,98 @@ public void stopTrackingNpc(@NotNull Npc<W, P, I, E> npc) {
 
   @Override
   public void addToQueue(@NotNull P player, @NotNull Npc<W, P, I, E> npc) {
-    npcqueue.computeIfAbsent(player, k -> new HashSet<>()).add(npc);
+    double distance = this.calculateDistance(player, npc);
+    this.npcqueue.computeIfAbsent(player, k -> new NpcSpawnQueue<>()).add(npc, distance);
+  }
+
+  @Override
+  public void trackPlayer(@NotNull P player, @NotNull Collection<Npc<W, P, I, E>> npcs) {
+    List<Npc<W, P, I, E>> bundled = new ArrayList<>();
+    List<Npc<W, P, I, E>> spawning = new ArrayList<>(npcs.size());
+    for (Npc<W, P, I, E> npc : npcs) {
+      if (npc.shouldIncludePlayer(player)) {
+        if (npc instanceof CommonNpc) {
+          CommonNpc<W, P, I, E> commonNpc = (CommonNpc<W, P, I, E>) npc;
+          if (commonNpc.prepareTrackPlayer(player)) {
+            if (commonNpc.bundleSpawnPackets()) {
+              bundled.add(npc);
+            } else {
+              spawning.add(npc);
+            }
+          }
+        } else {
+          npc.forceTrackPlayer(player);
+        }
+      }
+    }
+
+    if (!bundled.isEmpty()) {
+      // the whole spawn sequence of each npc is sent at once, no delay needed
+      Platform<W, P, I, E> platform = bundled.get(0).platform();
+      platform.packetFactory().scheduleSpawnBundle(player, bundled).thenRun(() -> {
+        for (Npc<W, P, I, E> npc : bundled) {
+          ((CommonNpc<W, P, I, E>) npc).finishTrackPlayer(player);
+        }
+      });
+    }
+
+    if (!spawning.isEmpty()) {
+      // one player info packet for all npcs, then the spawn of all entities after the usual delay
+      Platform<W, P, I, E> platform = spawning.get(0).platform();
+      platform.packetFactory().createPlayerInfoBatchPacket(PlayerInfoAction.ADD_PLAYER).schedule(player, spawning);
+      platform.updateScheduler().scheduleDelayed(() -> {
+        platform.packetFactory().createEntitySpawnBatchPacket().schedule(player, spawning);
+        for (Npc<W, P, I, E> npc : spawning) {
+          ((CommonNpc<W, P, I, E>) npc).completeSpawn(player);
+        }
+      }, 10);
+    }
+  }
+
+  @Override
+  public void stopTrackingPlayer(@NotNull P player, @NotNull Collection<Npc<W, P, I, E>> npcs) {
+    List<Npc<W, P, I, E>> removing = new ArrayList<>(npcs.size());
+    for (Npc<W, P, I, E> npc : npcs) {
+      if (npc instanceof CommonNpc) {
+        if (((CommonNpc<W, P, I, E>) npc).prepareStopTrackingPlayer(player)) {
+          removing.add(npc);
+        }
+      } else {
+        npc.stopTrackingPlayer(player);
+      }
+    }
+
+    if (!removing.isEmpty()) {
+      Platform<W, P, I, E> platform = removing.get(0).platform();
+      platform.packetFactory().createEntityRemoveBatchPacket().schedule(player, removing);
+      platform.packetFactory().createPlayerInfoBatchPacket(PlayerInfoAction.REMOVE_PLAYER).schedule(player, removing);
+      for (Npc<W, P, I, E> npc : removing) {
+        ((CommonNpc<W, P, I, E>) npc).finishStopTrackingPlayer(player);
+      }
+    }
+  }
+
+  @Override
+  public void stopTrackingPlayer(@NotNull P player) {
+    List<Npc<W, P, I, E>> tracking = new ArrayList<>();
+    for (Npc<W, P, I, E> npc : this.trackedNpcsSnapshot()) {
+      if (npc.tracksPlayer(player)) {
+        tracking.add(npc);
+      }
+    }
+
+    this.stopTrackingPlayer(player, tracking);
+  }
+
+  protected @NotNull List<Npc<W, P, I, E>> trackedNpcsSnapshot() {
+    synchronized (this.trackedNpcs) {
+      return new ArrayList<>(this.trackedNpcs);
+    }
   }
 
   @Override
   public void removeFromQueue(@NotNull P player, @NotNull Npc<W, P, I, E> npc) {
-    Set<Npc<W, P, I, E>> npcs = npcqueue.get(player);
+    NpcSpawnQueue<W, P, I, E> npcs = this.npcqueue.get(player);
     if (npcs != null) {
       npcs.remove(npc);
     }
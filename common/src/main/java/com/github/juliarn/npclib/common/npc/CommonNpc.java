@@ -28,9 +28,14 @@
 import com.github.juliarn.npclib.api.NpcTracker;
 import com.github.juliarn.npclib.api.Platform;
 import com.github.juliarn.npclib.api.Position;
+import com.github.juliarn.npclib.api.event.HideNpcEvent;
+import com.github.juliarn.npclib.api.event.ShowNpcEvent;
+import com.github.juliarn.npclib.api.event.manager.NpcEventManager;
 import com.github.juliarn.npclib.api.flag.NpcFlag;
 import com.github.juliarn.npclib.api.profile.Profile;
+import com.github.juliarn.npclib.api.protocol.NpcPacketCache;
 import com.github.juliarn.npclib.api.protocol.NpcSpecificOutboundPacket;
+import com.github.juliarn.npclib.api.protocol.OutboundPacket;
 import com.github.juliarn.npclib.api.protocol.enums.EntityAnimation;
 import com.github.juliarn.npclib.api.protocol.enums.ItemSlot;
 import com.github.juliarn.npclib.api.protocol.enums.PlayerInfoAction;
@@ -40,36 +45,78 @@
 import com.github.juliarn.npclib.common.event.DefaultHideNpcEvent;
 import com.github.juliarn.npclib.common.event.DefaultShowNpcEvent;
 import com.github.juliarn.npclib.common.flag.CommonNpcFlaggedObject;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 import org.contrum.holograms.api.Hologram;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
 import org.jetbrains.annotations.UnmodifiableView;
 
 public class CommonNpc<W, P, I, E> extends CommonNpcFlaggedObject implements Npc<W, P, I, E> {
 
+  // relative moves can drift due to the rounding of the deltas, so the absolute position is sent every now and then
+  protected static final int MOVEMENT_SYNC_INTERVAL = 60;
+
   protected final int entityId;
   protected Profile.Resolved profile;
 
   protected final W world;
-  protected Position pos;
+  protected volatile Position pos;
+
+  // the position which was last sent out to the tracked players, guarded by the movement lock
+  protected final Object movementLock = new Object();
+  protected Position sentPos;
+  protected boolean movementScheduled;
+  protected int movementsSinceSync;
+
+  // viewers which got the npc spawned since the last movement flush, their spawn position might differ from
+  // the sent position, so they get the absolute position instead of a relative move. guarded by the movement lock
+  protected Set<P> unsyncedViewers = new HashSet<>();
 
   protected final Platform<W, P, I, E> platform;
   protected final NpcSettings<P> npcSettings;
 
-  protected final Set<P> trackedPlayers = Collections.synchronizedSet(new HashSet<>());
-  protected final Set<P> includedPlayers = Collections.synchronizedSet(new HashSet<>());
-  protected final Map<ItemSlot, I> equipment = Collections.synchronizedMap(new HashMap<>());
+  // read far more often than written (packet listeners, movement and broadcasts), so reads should never lock
+  protected final Set<P> trackedPlayers = new CopyOnWriteArraySet<>();
+  protected final Set<P> includedPlayers = new CopyOnWriteArraySet<>();
+
+  // immutable snapshots which are replaced on change, guarded by the npc for writes
+  protected volatile Map<ItemSlot, I> equipment = Collections.emptyMap();
+  protected volatile List<String> commands = Collections.emptyList();
+
+  // live view of the commands for api callers, modifications are written through the npc and iteration
+  // works on the command list which was present when the iteration started
+  protected final List<String> commandsView = new CommandsView();
+
+  // metadata changes per viewer which are merged and sent out once per tick, guarded by the metadata lock
+  protected final Object metadataLock = new Object();
+  protected Map<P, Map<EntityMetadataFactory<?, ?>, Object>> pendingMetadata = new HashMap<>();
+  protected boolean metadataScheduled;
 
-  protected final List<String> commands = Collections.synchronizedList(new ArrayList<>());
+  // pre-built packets which are the same for all viewers, invalidated when the npc changes
+  protected final NpcPacketCache packetCache = NpcPacketCache.newCache();
+
+  // the profiles resolved for each tracked viewer, invalidated when the npc profile changes
+  protected final Map<P, CompletableFuture<Profile.Resolved>> viewerProfiles = new ConcurrentHashMap<>();
 
   protected Hologram hologram;
 
@@ -90,6 +137,7 @@ public CommonNpc(
     this.profile = profile;
     this.world = world;
     this.pos = pos;
+    this.sentPos = pos;
     this.platform = platform;
     this.npcSettings = npcSettings;
   }
@@ -105,7 +153,11 @@ public int entityId() {
   }
 
   public void setProfile(@NotNull Profile.Resolved profile) {
+    Profile.Resolved previousProfile = this.profile;
     this.profile = profile;
+    this.packetCache.invalidate();
+    this.viewerProfiles.clear();
+    this.npcTracker().updateNpcProfile(this, previousProfile);
   }
 
   @Override
@@ -121,10 +173,89 @@ public void setProfile(@NotNull Profile.Resolved profile) {
   @Override
   public @NotNull Npc<W, P, I, E> teleport(@NotNull Position position) {
     this.pos = position;
-    this.platform.packetFactory().createRotationPacket(position.yaw(), position.pitch()).toSpecific(this);
+    this.packetCache.invalidate();
+    this.npcTracker().updateNpcPosition(this);
+
+    // all moves during a tick are sent out as a single movement
+    synchronized (this.movementLock) {
+      if (this.movementScheduled) {
+        return this;
+      }
+      this.movementScheduled = true;
+    }
+
+    this.platform.updateScheduler().schedule(this::flushMovement);
     return this;
   }
 
+  protected void flushMovement() {
+    Position from;
+    Position to;
+    boolean sync;
+    Set<P> unsynced;
+    synchronized (this.movementLock) {
+      from = this.sentPos;
+      to = this.pos;
+
+      this.sentPos = to;
+      this.movementScheduled = false;
+
+      unsynced = this.unsyncedViewers;
+      if (!unsynced.isEmpty()) {
+        this.unsyncedViewers = new HashSet<>();
+      }
+
+      sync = ++this.movementsSinceSync >= MOVEMENT_SYNC_INTERVAL;
+      if (sync) {
+        this.movementsSinceSync = 0;
+      }
+    }
+
+    Collection<P> viewers = this.trackedPlayers;
+    if (!unsynced.isEmpty()) {
+      // send the absolute position to all viewers which spawned since the last flush
+      unsynced.retainAll(viewers);
+      if (!sync && !unsynced.isEmpty()) {
+        this.platform.packetFactory().createEntityTeleportPacket(to.worldId(), to).schedule(unsynced, this);
+        this.platform.packetFactory().createRotationPacket(to.yaw(), to.pitch()).schedule(unsynced, this);
+      }
+
+      // all other viewers get the usual update
+      List<P> syncedViewers = new ArrayList<>(viewers.size());
+      for (P viewer : viewers) {
+        if (!unsynced.contains(viewer)) {
+          syncedViewers.add(viewer);
+        }
+      }
+      viewers = syncedViewers;
+    }
+
+    boolean moved = from.x() != to.x() || from.y() != to.y() || from.z() != to.z();
+    if (sync) {
+      // send the absolute position, the rotation packet also updates the head rotation
+      this.platform.packetFactory().createEntityTeleportPacket(to.worldId(), to).schedule(this.trackedPlayers, this);
+      this.platform.packetFactory().createRotationPacket(to.yaw(), to.pitch()).schedule(this.trackedPlayers, this);
+    } else if (moved) {
+      this.platform.packetFactory().createEntityMovePacket(from, to).schedule(viewers, this);
+    } else if (from.yaw() != to.yaw() || from.pitch() != to.pitch()) {
+      this.platform.packetFactory().createRotationPacket(to.yaw(), to.pitch()).schedule(viewers, this);
+    }
+  }
+
+  protected void markUnsyncedViewer(@NotNull P player) {
+    // the spawn packet was built from the position at that time, the next flush makes sure that the viewer
+    // sees the current position without applying a relative move twice
+    synchronized (this.movementLock) {
+      this.unsyncedViewers.add(player);
+      if (this.movementScheduled) {
+        return;
+      }
+      this.movementScheduled = true;
+    }
+
+    this.platform.updateScheduler().schedule(this::flushMovement);
+  }
+
   @Override
   public @NotNull NpcSettings<P> settings() {
     return this.npcSettings;
@@ -135,6 +266,11 @@ public void setProfile(@NotNull Profile.Resolved profile) {
     return this.platform;
   }
 
+  @Override
+  public @NotNull NpcPacketCache packetCache() {
+    return this.packetCache;
+  }
+
   @Override
   public @NotNull NpcTracker<W, P, I, E> npcTracker() {
     return this.platform.npcTracker();
@@ -159,6 +295,12 @@ public I equipment(@NotNull ItemSlot slot) {
     return this.equipment.get(slot);
   }
 
+  @Override
+  @Unmodifiable
+  public @NotNull Map<ItemSlot, I> equipment() {
+    return this.equipment;
+  }
+
   @Override
   public @NotNull Npc<W, P, I, E> addIncludedPlayer(@NotNull P player) {
     this.includedPlayers.add(player);
@@ -176,15 +318,13 @@ public boolean isPlayerTracked(P player) {
   }
 
   @Override
-  @SuppressWarnings("unchecked")
   public @NotNull Npc<W, P, I, E> unlink() {
     // remove this npc from the tracked ones, do it first to prevent further player tracking
     this.npcTracker().stopTrackingNpc(this);
 
-    // remove this npc for all tracked players
-    Object[] players = this.trackedPlayers.toArray();
-    for (Object player : players) {
-      this.stopTrackingPlayer((P) player);
+    // remove this npc for all tracked players, iteration is done on a snapshot
+    for (P player : this.trackedPlayers) {
+      this.stopTrackingPlayer(player);
     }
 
     // for chaining
@@ -214,61 +354,155 @@ public boolean tracksPlayer(@NotNull P player) {
 
   @Override
   public @NotNull Npc<W, P, I, E> forceTrackPlayer(@NotNull P player) {
-    // check if the player is not already tracked
-    if (!this.trackedPlayers.contains(player)) {
-      // break early if the add is not wanted by plugin
-      if (this.platform.eventManager().post(DefaultShowNpcEvent.pre(this, player)).cancelled()) {
-        return this;
-      }
-
-      // register the player, prevent duplicate spawns in case the entity was spawned
-      // by a different thread during processing of the pre-track event
-      if (!this.trackedPlayers.add(player)) {
+    if (this.prepareTrackPlayer(player)) {
+      if (this.bundleSpawnPackets()) {
+        // the whole spawn sequence is sent at once, no delay needed
+        this.platform.packetFactory()
+          .scheduleSpawnBundle(player, Collections.singletonList(this))
+          .thenRun(() -> this.finishTrackPlayer(player));
         return this;
       }
 
       // send the player info packet & schedule the actual add of the
       // player entity into the target world
-
       this.platform.packetFactory().createPlayerInfoPacket(PlayerInfoAction.ADD_PLAYER)
         .schedule(player, this);
-      this.platform.taskManager().scheduleDelayedAsync(() -> {
+      this.platform.updateScheduler().scheduleDelayed(() -> {
         this.platform.packetFactory().createEntitySpawnPacket().schedule(player, this);
-
-        this.platform.eventManager().post(DefaultShowNpcEvent.post(this, player));
+        this.completeSpawn(player);
       }, 10);
     }
 
     return this;
   }
 
-  @Override
-  public @NotNull Npc<W, P, I, E> stopTrackingPlayer(@NotNull P player) {
-    // check if the player was previously tracked
-    if (this.trackedPlayers.contains(player)) {
-      // break early if the removal is not wanted by plugin
-      if (this.platform.eventManager().post(DefaultHideNpcEvent.pre(this, player)).cancelled()) {
-        return this;
-      }
+  @ApiStatus.Internal
+  public void completeSpawn(@NotNull P player) {
+    // new viewers need the current equipment, all slots are sent at once
+    Map<ItemSlot, I> equipment = this.equipment;
+    if (!equipment.isEmpty()) {
+      this.platform.packetFactory().createEquipmentPacket(equipment).schedule(player, this);
+    }
 
-      // unregister the player, prevent duplicate remove packets in case the entity
-      // was removed by a different thread during processing of the pre-hide event
-      if (!this.trackedPlayers.remove(player)) {
-        return this;
+    this.finishTrackPlayer(player);
+  }
+
+  @ApiStatus.Internal
+  public @NotNull CompletableFuture<Profile.Resolved> resolveViewerProfile(@NotNull P player) {
+    CompletableFuture<Profile.Resolved> memoized = this.viewerProfiles.get(player);
+    if (memoized != null) {
+      return memoized;
+    }
+
+    // only memoize for tracked players, the entry is removed when the player stops being tracked
+    CompletableFuture<Profile.Resolved> resolved = this.npcSettings.profileResolver().resolveNpcProfile(player, this);
+    if (!this.trackedPlayers.contains(player)) {
+      return resolved;
+    }
+
+    CompletableFuture<Profile.Resolved> previous = this.viewerProfiles.putIfAbsent(player, resolved);
+    if (previous != null) {
+      return previous;
+    }
+
+    // the player might have stopped being tracked concurrently, after its entry was removed
+    if (!this.trackedPlayers.contains(player)) {
+      this.viewerProfiles.remove(player, resolved);
+      return resolved;
+    }
+
+    // don't memoize failed resolves, the next request should try again
+    resolved.whenComplete((profile, exception) -> {
+      if (exception != null) {
+        this.viewerProfiles.remove(player, resolved);
       }
+    });
+    return resolved;
+  }
+
+  @ApiStatus.Internal
+  public boolean bundleSpawnPackets() {
+    return this.flagValueOrDefault(Npc.BUNDLE_SPAWN_PACKETS) && this.platform.packetFactory().supportsSpawnBundles();
+  }
 
+  @ApiStatus.Internal
+  public boolean prepareTrackPlayer(@NotNull P player) {
+    // check if the player is not already tracked
+    if (this.trackedPlayers.contains(player)) {
+      return false;
+    }
+
+    // break early if the add is not wanted by plugin
+    NpcEventManager eventManager = this.platform.eventManager();
+    if (eventManager.hasSubscribers(ShowNpcEvent.Pre.class)
+      && eventManager.post(DefaultShowNpcEvent.pre(this, player)).cancelled()) {
+      return false;
+    }
+
+    // register the player, prevent duplicate spawns in case the entity was spawned
+    // by a different thread during processing of the pre-track event
+    return this.trackedPlayers.add(player);
+  }
+
+  @ApiStatus.Internal
+  public void finishTrackPlayer(@NotNull P player) {
+    this.markUnsyncedViewer(player);
+
+    NpcEventManager eventManager = this.platform.eventManager();
+    if (eventManager.hasSubscribers(ShowNpcEvent.Post.class)) {
+      eventManager.post(DefaultShowNpcEvent.post(this, player));
+    }
+  }
+
+  @Override
+  public @NotNull Npc<W, P, I, E> stopTrackingPlayer(@NotNull P player) {
+    if (this.prepareStopTrackingPlayer(player)) {
       // schedule an entity remove (the player list change is not needed normally, but to make sure that the npc is gone)
       this.platform.packetFactory().createEntityRemovePacket().schedule(player, this);
       this.platform.packetFactory().createPlayerInfoPacket(PlayerInfoAction.REMOVE_PLAYER).schedule(player, this);
-
-      // post the finish of the removal to all plugins
-      this.platform.eventManager().post(DefaultHideNpcEvent.post(this, player));
+      this.finishStopTrackingPlayer(player);
     }
 
     // for chaining
     return this;
   }
 
+  @ApiStatus.Internal
+  public boolean prepareStopTrackingPlayer(@NotNull P player) {
+    // check if the player was previously tracked
+    if (!this.trackedPlayers.contains(player)) {
+      return false;
+    }
+
+    // break early if the removal is not wanted by plugin
+    NpcEventManager eventManager = this.platform.eventManager();
+    if (eventManager.hasSubscribers(HideNpcEvent.Pre.class)
+      && eventManager.post(DefaultHideNpcEvent.pre(this, player)).cancelled()) {
+      return false;
+    }
+
+    // unregister the player, prevent duplicate remove packets in case the entity
+    // was removed by a different thread during processing of the pre-hide event
+    return this.trackedPlayers.remove(player);
+  }
+
+  @ApiStatus.Internal
+  public void finishStopTrackingPlayer(@NotNull P player) {
+    this.viewerProfiles.remove(player);
+    synchronized (this.movementLock) {
+      this.unsyncedViewers.remove(player);
+    }
+    synchronized (this.metadataLock) {
+      this.pendingMetadata.remove(player);
+    }
+
+    // post the finish of the removal to all plugins
+    NpcEventManager eventManager = this.platform.eventManager();
+    if (eventManager.hasSubscribers(HideNpcEvent.Post.class)) {
+      eventManager.post(DefaultHideNpcEvent.post(this, player));
+    }
+  }
+
   @Override
   public @NotNull NpcSpecificOutboundPacket<W, P, I, E> lookAt(@NotNull Position position) {
     double diffX = position.x() - this.pos.x();
@@ -295,12 +529,58 @@ public boolean tracksPlayer(@NotNull P player) {
     return this.platform.packetFactory().createAnimationPacket(animation).toSpecific(this);
   }
 
+  private static <I> boolean isUnchangedItem(@Nullable I current, @NotNull I item) {
+    // the stored item is not copied, the same instance might have been modified since it was sent out
+    return current != item && item.equals(current);
+  }
+
   @Override
   public @NotNull NpcSpecificOutboundPacket<W, P, I, E> changeItem(@NotNull ItemSlot slot, @NotNull I item) {
-    this.equipment.put(slot, item);
+    synchronized (this) {
+      // the tracked players already see the item, it can still be sent to specific players
+      if (isUnchangedItem(this.equipment.get(slot), item)) {
+        return NpcSpecificOutboundPacket.fromOutboundPacket(
+          this,
+          this.platform.packetFactory().createEquipmentPacket(slot, item));
+      }
+
+      Map<ItemSlot, I> equipment = new EnumMap<>(ItemSlot.class);
+      equipment.putAll(this.equipment);
+      equipment.put(slot, item);
+      this.equipment = Collections.unmodifiableMap(equipment);
+    }
+
+    this.packetCache.invalidate();
     return this.platform.packetFactory().createEquipmentPacket(slot, item).toSpecific(this);
   }
 
+  @Override
+  public @NotNull NpcSpecificOutboundPacket<W, P, I, E> changeItems(@NotNull Map<ItemSlot, I> items) {
+    Map<ItemSlot, I> changedItems = new EnumMap<>(ItemSlot.class);
+    synchronized (this) {
+      // only the changed items need to be sent to the tracked players
+      for (Map.Entry<ItemSlot, I> entry : items.entrySet()) {
+        if (!isUnchangedItem(this.equipment.get(entry.getKey()), entry.getValue())) {
+          changedItems.put(entry.getKey(), entry.getValue());
+        }
+      }
+
+      if (changedItems.isEmpty()) {
+        return NpcSpecificOutboundPacket.fromOutboundPacket(
+          this,
+          this.platform.packetFactory().createEquipmentPacket(items));
+      }
+
+      Map<ItemSlot, I> equipment = new EnumMap<>(ItemSlot.class);
+      equipment.putAll(this.equipment);
+      equipment.putAll(changedItems);
+      this.equipment = Collections.unmodifiableMap(equipment);
+    }
+
+    this.packetCache.invalidate();
+    return this.platform.packetFactory().createEquipmentPacket(Collections.unmodifiableMap(changedItems)).toSpecific(this);
+  }
+
   @Override
   public @NotNull Npc<W, P, I, E> lookAtPlayer(@NotNull P player, @NotNull Position position) {
     double diffX = position.x() - this.pos.x();
@@ -325,25 +605,37 @@ public boolean tracksPlayer(@NotNull P player) {
 
   @Override
   public @NotNull Npc<W, P, I, E> addCommand(@NotNull String command) {
-    this.commands.add(command);
+    synchronized (this) {
+      List<String> commands = new ArrayList<>(this.commands.size() + 1);
+      commands.addAll(this.commands);
+      commands.add(command);
+      this.commands = Collections.unmodifiableList(commands);
+    }
     return this;
   }
 
   @Override
   public @NotNull Npc<W, P, I, E> removeCommand(@NotNull String command) {
-    this.commands.remove(command);
+    synchronized (this) {
+      List<String> commands = new ArrayList<>(this.commands);
+      if (commands.remove(command)) {
+        this.commands = Collections.unmodifiableList(commands);
+      }
+    }
     return this;
   }
 
   @Override
   public @NotNull Npc<W, P, I, E> clearCommands() {
-    this.commands.clear();
+    synchronized (this) {
+      this.commands = Collections.emptyList();
+    }
     return this;
   }
 
   @Override
   public @NotNull List<String> getCommands() {
-    return this.commands;
+    return this.commandsView;
   }
 
   @Override
@@ -351,7 +643,55 @@ public boolean tracksPlayer(@NotNull P player) {
     @NotNull EntityMetadataFactory<T, O> metadata,
     @NotNull T value
   ) {
-    return this.platform.packetFactory().createEntityMetaPacket(metadata, value).toSpecific(this);
+    OutboundPacket<W, P, I, E> packet = (player, npc) -> this.changeMetadata(player, metadata, value);
+    return packet.toSpecific(this);
+  }
+
+  @Override
+  public <T, O> void changeMetadata(
+    @NotNull P player,
+    @NotNull EntityMetadataFactory<T, O> metadata,
+    @NotNull T value
+  ) {
+    // all changes of a viewer during a tick are sent out as a single metadata packet
+    synchronized (this.metadataLock) {
+      // re-insert the factory so that the changes stay in order, factories sharing an index use the latest change
+      Map<EntityMetadataFactory<?, ?>, Object> changes = this.pendingMetadata.computeIfAbsent(player, k -> new LinkedHashMap<>());
+      changes.remove(metadata);
+      changes.put(metadata, value);
+      if (this.metadataScheduled) {
+        return;
+      }
+      this.metadataScheduled = true;
+    }
+
+    this.platform.updateScheduler().schedule(this::flushMetadata);
+  }
+
+  protected void flushMetadata() {
+    Map<P, Map<EntityMetadataFactory<?, ?>, Object>> pending;
+    synchronized (this.metadataLock) {
+      pending = this.pendingMetadata;
+      this.pendingMetadata = new HashMap<>();
+      this.metadataScheduled = false;
+    }
+
+    for (Map.Entry<P, Map<EntityMetadataFactory<?, ?>, Object>> entry : pending.entrySet()) {
+      Map<EntityMetadataFactory<?, ?>, Object> changes = entry.getValue();
+      if (changes.size() == 1) {
+        // a single change can use the packet which is cached by the npc
+        Map.Entry<EntityMetadataFactory<?, ?>, Object> change = changes.entrySet().iterator().next();
+        this.sendMetadata(entry.getKey(), change.getKey(), change.getValue());
+      } else {
+        this.platform.packetFactory().createEntityMetaPacket(changes).schedule(entry.getKey(), this);
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void sendMetadata(@NotNull P player, @NotNull EntityMetadataFactory<?, ?> metadata, @NotNull Object value) {
+    EntityMetadataFactory<Object, ?> factory = (EntityMetadataFactory<Object, ?>) metadata;
+    this.platform.packetFactory().createEntityMetaPacket(factory, value).schedule(player, this);
   }
 
   @Override
@@ -396,4 +736,94 @@ public int hashCode() {
   public boolean equals(Object obj) {
     return Util.equals(Npc.class, this, obj, (orig, comp) -> orig.entityId() == comp.entityId());
   }
+
+  private final class CommandsView extends AbstractList<String> {
+
+    @Override
+    public String get(int index) {
+      return CommonNpc.this.commands.get(index);
+    }
+
+    @Override
+    public int size() {
+      return CommonNpc.this.commands.size();
+    }
+
+    @Override
+    public @NotNull Iterator<String> iterator() {
+      return CommonNpc.this.commands.iterator();
+    }
+
+    @Override
+    public @NotNull ListIterator<String> listIterator() {
+      return CommonNpc.this.commands.listIterator();
+    }
+
+    @Override
+    public @NotNull ListIterator<String> listIterator(int index) {
+      return CommonNpc.this.commands.listIterator(index);
+    }
+
+    @Override
+    public @NotNull Object[] toArray() {
+      return CommonNpc.this.commands.toArray();
+    }
+
+    @Override
+    public @NotNull <T> T[] toArray(@NotNull T[] target) {
+      return CommonNpc.this.commands.toArray(target);
+    }
+
+    @Override
+    public void forEach(@NotNull Consumer<? super String> action) {
+      CommonNpc.this.commands.forEach(action);
+    }
+
+    @Override
+    public boolean removeIf(@NotNull Predicate<? super String> filter) {
+      // the snapshot iterators can't remove elements, filter a copy instead
+      synchronized (CommonNpc.this) {
+        List<String> commands = new ArrayList<>(CommonNpc.this.commands);
+        if (commands.removeIf(filter)) {
+          CommonNpc.this.commands = Collections.unmodifiableList(commands);
+          return true;
+        }
+        return false;
+      }
+    }
+
+    @Override
+    public String set(int index, String element) {
+      synchronized (CommonNpc.this) {
+        List<String> commands = new ArrayList<>(CommonNpc.this.commands);
+        String previous = commands.set(index, element);
+        CommonNpc.this.commands = Collections.unmodifiableList(commands);
+        return previous;
+      }
+    }
+
+    @Override
+    public void add(int index, String element) {
+      synchronized (CommonNpc.this) {
+        List<String> commands = new ArrayList<>(CommonNpc.this.commands);
+        commands.add(index, element);
+        CommonNpc.this.commands = Collections.unmodifiableList(commands);
+      }
+    }
+
+    @Override
+    public String remove(int index) {
+      synchronized (CommonNpc.this) {
+        List<String> commands = new ArrayList<>(CommonNpc.this.commands);
+        String removed = commands.remove(index);
+        CommonNpc.this.commands = Collections.unmodifiableList(commands);
+        return removed;
+      }
+    }
+
+    @Override
+    public void clear() {
+      CommonNpc.this.clearCommands();
+    }
+  }
 }
@@ -27,6 +27,7 @@
 import com.github.juliarn.npclib.api.Npc;
 import com.github.juliarn.npclib.api.NpcActionController;
 import com.github.juliarn.npclib.api.NpcTracker;
+import com.github.juliarn.npclib.api.NpcUpdateScheduler;
 import com.github.juliarn.npclib.api.Platform;
 import com.github.juliarn.npclib.api.PlatformTaskManager;
 import com.github.juliarn.npclib.api.PlatformVersionAccessor;
@@ -49,6 +50,7 @@
   protected final NpcTracker<W, P, I, E> npcTracker;
   protected final ProfileResolver profileResolver;
   protected final PlatformTaskManager taskManager;
+  protected final NpcUpdateScheduler updateScheduler;
   protected final NpcActionController actionController;
   protected final PlatformVersionAccessor versionAccessor;
   protected final PlatformWorldAccessor<W> worldAccessor;
@@ -61,6 +63,7 @@ public CommonPlatform(
     @NotNull NpcTracker<W, P, I, E> npcTracker,
     @NotNull ProfileResolver profileResolver,
     @NotNull PlatformTaskManager taskManager,
+    @NotNull NpcUpdateScheduler updateScheduler,
     @Nullable NpcActionController actionController,
     @NotNull PlatformVersionAccessor versionAccessor,
     @NotNull NpcEventManager eventManager,
@@ -73,6 +76,7 @@ public CommonPlatform(
     this.npcTracker = npcTracker;
     this.profileResolver = profileResolver;
     this.taskManager = taskManager;
+    this.updateScheduler = updateScheduler;
     this.actionController = actionController;
     this.versionAccessor = versionAccessor;
     this.eventManager = eventManager;
@@ -81,6 +85,12 @@ public CommonPlatform(
 
     // register the packet listeners
     this.packetAdapter.initialize(this);
+
+    // start ticking the update scheduler
+    this.updateScheduler.initialize(this);
+
+    // let the tracker hook into the platform
+    this.npcTracker.initialize(this);
   }
 
   @Override
@@ -113,6 +123,11 @@ public boolean debug() {
     return this.taskManager;
   }
 
+  @Override
+  public @NotNull NpcUpdateScheduler updateScheduler() {
+    return this.updateScheduler;
+  }
+
   @Override
   public @NotNull Npc.Builder<W, P, I, E> newNpcBuilder() {
     return new CommonNpcBuilder<>(this);
@@ -26,6 +26,7 @@
 
 import com.github.juliarn.npclib.api.NpcActionController;
 import com.github.juliarn.npclib.api.NpcTracker;
+import com.github.juliarn.npclib.api.NpcUpdateScheduler;
 import com.github.juliarn.npclib.api.Platform;
 import com.github.juliarn.npclib.api.PlatformTaskManager;
 import com.github.juliarn.npclib.api.PlatformVersionAccessor;
@@ -34,14 +35,24 @@
 import com.github.juliarn.npclib.api.log.PlatformLogger;
 import com.github.juliarn.npclib.api.profile.ProfileResolver;
 import com.github.juliarn.npclib.api.protocol.PlatformPacketAdapter;
+import com.github.juliarn.npclib.common.task.CommonNpcUpdateScheduler;
+import java.nio.file.Paths;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import org.jetbrains.annotations.NotNull;
 
 public abstract class CommonPlatformBuilder<W, P, I, E> implements Platform.Builder<W, P, I, E> {
 
   protected static final boolean DEFAULT_DEBUG = Boolean.getBoolean("npc.lib.debug");
-  protected static final ProfileResolver DEFAULT_PROFILE_RESOLVER = ProfileResolver.caching(ProfileResolver.mojang());
+  protected static final String DEFAULT_PROFILE_CACHE_FILE = System.getProperty("npc.lib.profile.cache");
+  protected static final ProfileResolver DEFAULT_PROFILE_RESOLVER = DEFAULT_PROFILE_CACHE_FILE == null
+    ? ProfileResolver.caching(ProfileResolver.mojang())
+    : ProfileResolver.caching(ProfileResolver.mojang(), Paths.get(DEFAULT_PROFILE_CACHE_FILE));
+  protected static final long DEFAULT_UPDATE_BUDGET_NANOS = Long.getLong(
+    "npc.lib.update.budget",
+    TimeUnit.MILLISECONDS.toNanos(5));
+  protected static final long DEFAULT_EVENT_SLOW_THRESHOLD_NANOS = Long.getLong("npc.lib.event.threshold", -1L);
 
   protected E extension;
   protected PlatformLogger logger;
@@ -50,6 +61,7 @@
   protected NpcTracker<W, P, I, E> npcTracker;
   protected ProfileResolver profileResolver;
   protected PlatformTaskManager taskManager;
+  protected NpcUpdateScheduler updateScheduler;
   protected PlatformVersionAccessor versionAccessor;
   protected PlatformWorldAccessor<W> worldAccessor;
   protected PlatformPacketAdapter<W, P, I, E> packetAdapter;
@@ -91,6 +103,12 @@
     return this;
   }
 
+  @Override
+  public @NotNull Platform.Builder<W, P, I, E> updateScheduler(@NotNull NpcUpdateScheduler updateScheduler) {
+    this.updateScheduler = Objects.requireNonNull(updateScheduler, "updateScheduler");
+    return this;
+  }
+
   @Override
   public @NotNull Platform.Builder<W, P, I, E> profileResolver(@NotNull ProfileResolver profileResolver) {
     this.profileResolver = Objects.requireNonNull(profileResolver, "profileResolver");
@@ -138,7 +156,15 @@
 
     // use a new event bus if no specific one was specified
     if (this.eventManager == null) {
-      this.eventManager = NpcEventManager.createDefault(this.debug, this.logger);
+      // subscriber instrumentation is only enabled when a threshold for slow subscribers is given
+      this.eventManager = DEFAULT_EVENT_SLOW_THRESHOLD_NANOS > 0
+        ? NpcEventManager.createInstrumented(this.debug, this.logger, DEFAULT_EVENT_SLOW_THRESHOLD_NANOS)
+        : NpcEventManager.createDefault(this.debug, this.logger);
+    }
+
+    // use a new update scheduler if no specific one was specified
+    if (this.updateScheduler == null) {
+      this.updateScheduler = CommonNpcUpdateScheduler.updateScheduler(DEFAULT_UPDATE_BUDGET_NANOS);
     }
 
     return doBuild();
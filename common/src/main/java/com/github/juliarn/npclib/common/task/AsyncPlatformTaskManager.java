@@ -63,6 +63,12 @@ public void scheduleDelayedSync(@NotNull Runnable task, int delayTicks) {
     this.scheduledExecutorService.schedule(task, delayTicks * ONE_TICK_MS, TimeUnit.MILLISECONDS);
   }
 
+  @Override
+  public void scheduleRepeatingSync(@NotNull Runnable task, int delayTicks, int periodTicks) {
+    // there is no main thread to sync to, the ticks must only be spaced like the server ticks
+    this.scheduleRepeatingAsync(task, delayTicks, periodTicks);
+  }
+
   @Override
   public void scheduleAsync(@NotNull Runnable task) {
     this.runOnceExecutorService.execute(task);
@@ -72,4 +78,13 @@ public void scheduleAsync(@NotNull Runnable task) {
   public void scheduleDelayedAsync(@NotNull Runnable task, int delayTicks) {
     this.scheduledExecutorService.schedule(task, delayTicks * ONE_TICK_MS, TimeUnit.MILLISECONDS);
   }
+
+  @Override
+  public void scheduleRepeatingAsync(@NotNull Runnable task, int delayTicks, int periodTicks) {
+    this.scheduledExecutorService.scheduleAtFixedRate(
+      task,
+      delayTicks * ONE_TICK_MS,
+      periodTicks * ONE_TICK_MS,
+      TimeUnit.MILLISECONDS);
+  }
 }
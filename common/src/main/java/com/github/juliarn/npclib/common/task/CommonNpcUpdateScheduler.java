@@ -0,0 +1,200 @@
+/*
+ * This file is part of npc-lib, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022-2023 Julian M., Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.juliarn.npclib.common.task;
+
+import com.github.juliarn.npclib.api.NpcUpdateScheduler;
+import com.github.juliarn.npclib.api.Platform;
+import com.github.juliarn.npclib.api.log.PlatformLogger;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.jetbrains.annotations.NotNull;
+
+public final class CommonNpcUpdateScheduler implements NpcUpdateScheduler {
+
+  public static final long DEFAULT_TICK_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+  private final long tickBudgetNanos;
+
+  private final Queue<Runnable> pendingTasks = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pendingTaskCount = new AtomicInteger();
+  private final List<Runnable> repeatingTasks = new CopyOnWriteArrayList<>();
+
+  // guarded by itself, ordered by the tick in which the task should be executed
+  private final PriorityQueue<DelayedTask> delayedTasks = new PriorityQueue<>();
+
+  private final LongAdder budgetOverruns = new LongAdder();
+  private volatile long lastTickNanos;
+
+  // only modified by the ticking thread
+  private long currentTick;
+  private long delayedTaskSequence;
+
+  private volatile PlatformLogger logger;
+
+  private CommonNpcUpdateScheduler(long tickBudgetNanos) {
+    this.tickBudgetNanos = tickBudgetNanos;
+  }
+
+  public static @NotNull NpcUpdateScheduler updateScheduler() {
+    return updateScheduler(DEFAULT_TICK_BUDGET_NANOS);
+  }
+
+  public static @NotNull NpcUpdateScheduler updateScheduler(long tickBudgetNanos) {
+    if (tickBudgetNanos <= 0) {
+      throw new IllegalArgumentException("tickBudgetNanos must be positive");
+    }
+
+    return new CommonNpcUpdateScheduler(tickBudgetNanos);
+  }
+
+  @Override
+  public void initialize(@NotNull Platform<?, ?, ?, ?> platform) {
+    this.logger = platform.logger();
+    platform.taskManager().scheduleRepeatingSync(this::tick, 1, 1);
+  }
+
+  @Override
+  public void schedule(@NotNull Runnable task) {
+    this.pendingTasks.add(task);
+    this.pendingTaskCount.incrementAndGet();
+  }
+
+  @Override
+  public void scheduleDelayed(@NotNull Runnable task, int delayTicks) {
+    if (delayTicks <= 1) {
+      this.schedule(task);
+      return;
+    }
+
+    synchronized (this.delayedTasks) {
+      // the task becomes pending in the tick before it should be executed
+      long dueTick = this.currentTick + delayTicks - 1;
+      this.delayedTasks.add(new DelayedTask(dueTick, this.delayedTaskSequence++, task));
+    }
+  }
+
+  @Override
+  public void scheduleRepeating(@NotNull Runnable task) {
+    this.repeatingTasks.add(task);
+  }
+
+  @Override
+  public long tickBudgetNanos() {
+    return this.tickBudgetNanos;
+  }
+
+  @Override
+  public int queueDepth() {
+    return this.pendingTaskCount.get();
+  }
+
+  @Override
+  public long budgetOverruns() {
+    return this.budgetOverruns.sum();
+  }
+
+  @Override
+  public long lastTickNanos() {
+    return this.lastTickNanos;
+  }
+
+  private void tick() {
+    long startTime = System.nanoTime();
+
+    // move all delayed tasks which are due into the pending queue
+    synchronized (this.delayedTasks) {
+      long tick = ++this.currentTick;
+      DelayedTask delayedTask;
+      while ((delayedTask = this.delayedTasks.peek()) != null && delayedTask.dueTick <= tick) {
+        this.delayedTasks.poll();
+        this.schedule(delayedTask.task);
+      }
+    }
+
+    // repeating tasks are not subject to the budget (they would never run otherwise), so they
+    // should only submit their actual work as pending tasks which are bounded by the budget
+    for (Runnable task : this.repeatingTasks) {
+      this.runTask(task);
+    }
+
+    // only run the tasks which were pending when the tick started, tasks which
+    // are scheduled during this tick will run during the next one
+    int taskCount = this.pendingTaskCount.get();
+    for (int i = 0; i < taskCount; i++) {
+      // defer the remaining tasks to the next tick if the budget is exceeded, but always make progress
+      if (i > 0 && System.nanoTime() - startTime > this.tickBudgetNanos) {
+        this.budgetOverruns.increment();
+        break;
+      }
+
+      Runnable task = this.pendingTasks.poll();
+      if (task == null) {
+        break;
+      }
+
+      this.pendingTaskCount.decrementAndGet();
+      this.runTask(task);
+    }
+
+    this.lastTickNanos = System.nanoTime() - startTime;
+  }
+
+  private void runTask(@NotNull Runnable task) {
+    try {
+      task.run();
+    } catch (Throwable throwable) {
+      // an exception would cancel all further executions of the tick task
+      PlatformLogger logger = this.logger;
+      if (logger != null) {
+        logger.error("Exception while running npc update task", throwable);
+      }
+    }
+  }
+
+  private static final class DelayedTask implements Comparable<DelayedTask> {
+
+    private final long dueTick;
+    private final long sequence;
+    private final Runnable task;
+
+    public DelayedTask(long dueTick, long sequence, @NotNull Runnable task) {
+      this.dueTick = dueTick;
+      this.sequence = sequence;
+      this.task = task;
+    }
+
+    @Override
+    public int compareTo(@NotNull DelayedTask other) {
+      int result = Long.compare(this.dueTick, other.dueTick);
+      return result != 0 ? result : Long.compare(this.sequence, other.sequence);
+    }
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * This file is part of npc-lib, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022-2023 Julian M., Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.juliarn.npclib.common.track;
+
+import com.github.juliarn.npclib.api.Npc;
+import com.github.juliarn.npclib.api.Position;
+import com.github.juliarn.npclib.api.util.Util;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Unmodifiable;
+
+public final class ChunkedNpcIndex<W, P, I, E> {
+
+  private final Map<W, Map<Long, Set<Npc<W, P, I, E>>>> chunks = new ConcurrentHashMap<>();
+  private final Map<Npc<W, P, I, E>, Long> indexedChunks = new ConcurrentHashMap<>();
+
+  private static long chunkKey(int chunkX, int chunkZ) {
+    return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+  }
+
+  private static long chunkKey(@NotNull Position position) {
+    return chunkKey(position.chunkX(), position.chunkZ());
+  }
+
+  public synchronized void add(@NotNull Npc<W, P, I, E> npc) {
+    long chunkKey = chunkKey(npc.position());
+    Long previousKey = this.indexedChunks.put(npc, chunkKey);
+
+    // the npc might already be indexed in another chunk
+    if (previousKey != null) {
+      if (previousKey == chunkKey) {
+        return;
+      }
+      this.removeFromChunk(npc, previousKey);
+    }
+
+    this.chunks.computeIfAbsent(npc.world(), world -> new ConcurrentHashMap<>())
+      .computeIfAbsent(chunkKey, key -> ConcurrentHashMap.newKeySet())
+      .add(npc);
+  }
+
+  public synchronized void remove(@NotNull Npc<W, P, I, E> npc) {
+    Long previousKey = this.indexedChunks.remove(npc);
+    if (previousKey != null) {
+      this.removeFromChunk(npc, previousKey);
+    }
+  }
+
+  public void update(@NotNull Npc<W, P, I, E> npc) {
+    // only move npcs which are actually indexed, an update of a removed npc should not re-add it
+    Long indexedKey = this.indexedChunks.get(npc);
+    if (indexedKey != null && indexedKey != chunkKey(npc.position())) {
+      synchronized (this) {
+        if (this.indexedChunks.containsKey(npc)) {
+          this.add(npc);
+        }
+      }
+    }
+  }
+
+  public @Unmodifiable @NotNull Collection<Npc<W, P, I, E>> npcsInChunk(@NotNull W world, int chunkX, int chunkZ) {
+    Map<Long, Set<Npc<W, P, I, E>>> worldChunks = this.chunks.get(world);
+    if (worldChunks == null) {
+      return Collections.emptyList();
+    }
+
+    Set<Npc<W, P, I, E>> npcs = worldChunks.get(chunkKey(chunkX, chunkZ));
+    return npcs == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(npcs));
+  }
+
+  public @NotNull List<Npc<W, P, I, E>> npcsNear(@NotNull W world, double x, double y, double z, double radius) {
+    Map<Long, Set<Npc<W, P, I, E>>> worldChunks = this.chunks.get(world);
+    if (worldChunks == null || worldChunks.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    int minChunkX = Util.floor(x - radius) >> 4;
+    int maxChunkX = Util.floor(x + radius) >> 4;
+    int minChunkZ = Util.floor(z - radius) >> 4;
+    int maxChunkZ = Util.floor(z + radius) >> 4;
+
+    List<Npc<W, P, I, E>> result = new ArrayList<>();
+    double radiusSquared = radius * radius;
+
+    // for big radii it is cheaper to visit the populated chunks instead of every chunk in range
+    long chunksInRange = (long) (maxChunkX - minChunkX + 1) * (maxChunkZ - minChunkZ + 1);
+    if (chunksInRange > worldChunks.size()) {
+      for (Set<Npc<W, P, I, E>> npcs : worldChunks.values()) {
+        collectInRange(npcs, x, y, z, radiusSquared, result);
+      }
+    } else {
+      for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+        for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+          Set<Npc<W, P, I, E>> npcs = worldChunks.get(chunkKey(chunkX, chunkZ));
+          if (npcs != null) {
+            collectInRange(npcs, x, y, z, radiusSquared, result);
+          }
+        }
+      }
+    }
+
+    return result;
+  }
+
+  private static <W, P, I, E> void collectInRange(
+    @NotNull Set<Npc<W, P, I, E>> npcs,
+    double x,
+    double y,
+    double z,
+    double radiusSquared,
+    @NotNull List<Npc<W, P, I, E>> target
+  ) {
+    for (Npc<W, P, I, E> npc : npcs) {
+      Position pos = npc.position();
+      double diffX = pos.x() - x;
+      double diffY = pos.y() - y;
+      double diffZ = pos.z() - z;
+      if (diffX * diffX + diffY * diffY + diffZ * diffZ <= radiusSquared) {
+        target.add(npc);
+      }
+    }
+  }
+
+  private void removeFromChunk(@NotNull Npc<W, P, I, E> npc, long chunkKey) {
+    Map<Long, Set<Npc<W, P, I, E>>> worldChunks = this.chunks.get(npc.world());
+    if (worldChunks != null) {
+      Set<Npc<W, P, I, E>> npcs = worldChunks.get(chunkKey);
+      if (npcs != null && npcs.remove(npc) && npcs.isEmpty()) {
+        // drop empty chunk sections to keep the index small
+        worldChunks.remove(chunkKey);
+      }
+    }
+  }
+}
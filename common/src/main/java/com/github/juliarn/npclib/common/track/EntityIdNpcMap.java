@@ -0,0 +1,142 @@
+/*
+ * This file is part of npc-lib, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022-2023 Julian M., Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.juliarn.npclib.common.track;
+
+import com.github.juliarn.npclib.api.Npc;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+public final class EntityIdNpcMap<W, P, I, E> {
+
+  // marks a slot of a removed npc, lookups must continue probing when hitting it
+  private static final Object TOMBSTONE = new Object();
+  private static final int INITIAL_CAPACITY = 16;
+
+  private volatile AtomicReferenceArray<Object> table = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+
+  // guarded by this
+  private int size;
+  private int usedSlots;
+
+  private static int slot(int entityId, int mask) {
+    // spread the sequential entity ids over the whole table
+    int hash = entityId * 0x9E3779B9;
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  @SuppressWarnings("unchecked")
+  public @Nullable Npc<W, P, I, E> get(int entityId) {
+    AtomicReferenceArray<Object> table = this.table;
+    int mask = table.length() - 1;
+
+    for (int index = slot(entityId, mask), probes = 0; probes <= mask; index = (index + 1) & mask, probes++) {
+      Object value = table.get(index);
+      if (value == null) {
+        return null;
+      }
+
+      if (value != TOMBSTONE && ((Npc<W, P, I, E>) value).entityId() == entityId) {
+        return (Npc<W, P, I, E>) value;
+      }
+    }
+
+    return null;
+  }
+
+  public synchronized void put(@NotNull Npc<W, P, I, E> npc) {
+    // keep at least half of the slots free to keep the probe sequences short
+    AtomicReferenceArray<Object> table = this.table;
+    if ((this.usedSlots + 1) * 2 > table.length()) {
+      table = this.rehash(Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(1, this.size) * 4)));
+    }
+
+    int mask = table.length() - 1;
+    int freeIndex = -1;
+    for (int index = slot(npc.entityId(), mask), probes = 0; probes <= mask; index = (index + 1) & mask, probes++) {
+      Object value = table.get(index);
+      if (value == null) {
+        if (freeIndex == -1) {
+          freeIndex = index;
+          this.usedSlots++;
+        }
+        break;
+      }
+
+      if (value == TOMBSTONE) {
+        if (freeIndex == -1) {
+          freeIndex = index;
+        }
+      } else if (((Npc<?, ?, ?, ?>) value).entityId() == npc.entityId()) {
+        // replace the npc registered with the same entity id
+        table.set(index, npc);
+        return;
+      }
+    }
+
+    table.set(freeIndex, npc);
+    this.size++;
+  }
+
+  public synchronized void remove(@NotNull Npc<W, P, I, E> npc) {
+    AtomicReferenceArray<Object> table = this.table;
+    int mask = table.length() - 1;
+
+    for (int index = slot(npc.entityId(), mask), probes = 0; probes <= mask; index = (index + 1) & mask, probes++) {
+      Object value = table.get(index);
+      if (value == null) {
+        return;
+      }
+
+      if (value != TOMBSTONE && ((Npc<?, ?, ?, ?>) value).entityId() == npc.entityId()) {
+        table.set(index, TOMBSTONE);
+        this.size--;
+        return;
+      }
+    }
+  }
+
+  private @NotNull AtomicReferenceArray<Object> rehash(int capacity) {
+    AtomicReferenceArray<Object> oldTable = this.table;
+    AtomicReferenceArray<Object> newTable = new AtomicReferenceArray<>(capacity);
+
+    int mask = capacity - 1;
+    for (int i = 0; i < oldTable.length(); i++) {
+      Object value = oldTable.get(i);
+      if (value != null && value != TOMBSTONE) {
+        int index = slot(((Npc<?, ?, ?, ?>) value).entityId(), mask);
+        while (newTable.get(index) != null) {
+          index = (index + 1) & mask;
+        }
+        newTable.set(index, value);
+      }
+    }
+
+    // publish the new table, readers still using the old one see a consistent snapshot
+    this.usedSlots = this.size;
+    this.table = newTable;
+    return newTable;
+  }
+}
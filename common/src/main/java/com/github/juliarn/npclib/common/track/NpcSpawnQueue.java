@@ -0,0 +1,118 @@
+/*
+ * This file is part of npc-lib, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022-2023 Julian M., Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.juliarn.npclib.common.track;
+
+import com.github.juliarn.npclib.api.Npc;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import org.jetbrains.annotations.NotNull;
+
+public final class NpcSpawnQueue<W, P, I, E> {
+
+  // the heap is rebuilt once it holds more than this many stale entries per pending npc
+  private static final int MAX_STALE_ENTRY_FACTOR = 2;
+
+  // guarded by this, maps each pending npc to the insertion of its only live heap entry
+  private long insertions;
+  private final Map<Npc<W, P, I, E>, Long> pendingNpcs = new HashMap<>();
+  private final PriorityQueue<Entry<W, P, I, E>> entries = new PriorityQueue<>();
+
+  public synchronized boolean add(@NotNull Npc<W, P, I, E> npc, double distanceSquared) {
+    if (this.pendingNpcs.containsKey(npc)) {
+      return false;
+    }
+
+    // entries from a previous insertion of the npc are stale now, as their insertion no longer matches
+    long insertion = this.insertions++;
+    this.pendingNpcs.put(npc, insertion);
+    this.entries.add(new Entry<>(npc, distanceSquared, insertion));
+    return true;
+  }
+
+  public synchronized boolean remove(@NotNull Npc<W, P, I, E> npc) {
+    // the heap entry is dropped lazily when it reaches the head of the queue
+    boolean removed = this.pendingNpcs.remove(npc) != null;
+    if (this.pendingNpcs.isEmpty()) {
+      this.entries.clear();
+    } else if (this.entries.size() > this.pendingNpcs.size() * (MAX_STALE_ENTRY_FACTOR + 1)) {
+      this.entries.removeIf(entry -> !this.isLive(entry));
+    }
+
+    return removed;
+  }
+
+  public synchronized boolean contains(@NotNull Npc<W, P, I, E> npc) {
+    return this.pendingNpcs.containsKey(npc);
+  }
+
+  public synchronized boolean isEmpty() {
+    return this.pendingNpcs.isEmpty();
+  }
+
+  public synchronized @NotNull List<Npc<W, P, I, E>> poll(int maxNpcs) {
+    List<Npc<W, P, I, E>> npcs = new ArrayList<>(Math.min(maxNpcs, this.pendingNpcs.size()));
+    while (npcs.size() < maxNpcs) {
+      Entry<W, P, I, E> entry = this.entries.poll();
+      if (entry == null) {
+        break;
+      }
+
+      // skip entries of npcs which were removed (and possibly re-added) in the meantime
+      if (this.isLive(entry)) {
+        this.pendingNpcs.remove(entry.npc);
+        npcs.add(entry.npc);
+      }
+    }
+
+    return npcs;
+  }
+
+  private boolean isLive(@NotNull Entry<W, P, I, E> entry) {
+    Long insertion = this.pendingNpcs.get(entry.npc);
+    return insertion != null && insertion == entry.insertion;
+  }
+
+  private static final class Entry<W, P, I, E> implements Comparable<Entry<W, P, I, E>> {
+
+    private final Npc<W, P, I, E> npc;
+    private final double distanceSquared;
+    private final long insertion;
+
+    public Entry(@NotNull Npc<W, P, I, E> npc, double distanceSquared, long insertion) {
+      this.npc = npc;
+      this.distanceSquared = distanceSquared;
+      this.insertion = insertion;
+    }
+
+    @Override
+    public int compareTo(@NotNull Entry<W, P, I, E> other) {
+      int result = Double.compare(this.distanceSquared, other.distanceSquared);
+      return result != 0 ? result : Long.compare(this.insertion, other.insertion);
+    }
+  }
+}
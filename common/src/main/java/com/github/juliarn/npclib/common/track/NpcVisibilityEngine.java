@@ -0,0 +1,226 @@
+/*
+ * This file is part of npc-lib, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022-2023 Julian M., Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.juliarn.npclib.common.track;
+
+import com.github.juliarn.npclib.api.Npc;
+import com.github.juliarn.npclib.api.NpcTracker;
+import com.github.juliarn.npclib.api.Position;
+import com.github.juliarn.npclib.api.util.Util;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import org.jetbrains.annotations.NotNull;
+
+public final class NpcVisibilityEngine<W, P, I, E> {
+
+  private final NpcTracker<W, P, I, E> tracker;
+  private final Predicate<Npc<W, P, I, E>> spawnableFilter;
+
+  private final Map<P, Viewer<W, P, I, E>> viewers = new ConcurrentHashMap<>();
+
+  private volatile int viewDistance;
+
+  public NpcVisibilityEngine(
+    @NotNull NpcTracker<W, P, I, E> tracker,
+    int viewDistance,
+    @NotNull Predicate<Npc<W, P, I, E>> spawnableFilter
+  ) {
+    this.tracker = tracker;
+    this.viewDistance = viewDistance;
+    this.spawnableFilter = spawnableFilter;
+  }
+
+  public void viewDistance(int viewDistance) {
+    this.viewDistance = viewDistance;
+  }
+
+  public void updateViewer(@NotNull P player, @NotNull W world, double x, double y, double z) {
+    Viewer<W, P, I, E> viewer = this.viewers.computeIfAbsent(player, Viewer::new);
+
+    Collection<Npc<W, P, I, E>> entered;
+    Collection<Npc<W, P, I, E>> left;
+    synchronized (viewer) {
+      int chunkX = Util.floor(x) >> 4;
+      int chunkZ = Util.floor(z) >> 4;
+      boolean chunkChanged = !viewer.initialized
+        || viewer.chunkX != chunkX
+        || viewer.chunkZ != chunkZ
+        || !Objects.equals(viewer.world, world);
+
+      // always remember the latest position, it is used when npcs move
+      viewer.x = x;
+      viewer.y = y;
+      viewer.z = z;
+      viewer.world = world;
+
+      // the visible npcs are only re-evaluated when the player moved into another chunk
+      if (!chunkChanged) {
+        return;
+      }
+
+      viewer.initialized = true;
+      viewer.chunkX = chunkX;
+      viewer.chunkZ = chunkZ;
+
+      Set<Npc<W, P, I, E>> visible = new HashSet<>();
+      for (Npc<W, P, I, E> npc : this.tracker.npcsNear(world, x, y, z, this.viewDistance)) {
+        if (this.spawnableFilter.test(npc)) {
+          visible.add(npc);
+        }
+      }
+
+      entered = new ArrayList<>();
+      for (Npc<W, P, I, E> npc : visible) {
+        if (!viewer.visibleNpcs.contains(npc)) {
+          entered.add(npc);
+        }
+      }
+
+      viewer.visibleNpcs.removeAll(visible);
+      left = viewer.visibleNpcs;
+      viewer.visibleNpcs = visible;
+    }
+
+    this.emitDeltas(player, entered, left);
+  }
+
+  public void removeViewer(@NotNull P player) {
+    Viewer<W, P, I, E> viewer = this.viewers.remove(player);
+    if (viewer != null) {
+      Collection<Npc<W, P, I, E>> left;
+      synchronized (viewer) {
+        left = viewer.visibleNpcs;
+        viewer.visibleNpcs = new HashSet<>();
+      }
+
+      this.emitDeltas(player, new ArrayList<>(), left);
+    }
+  }
+
+  public void updateNpc(@NotNull Npc<W, P, I, E> npc) {
+    Position pos = npc.position();
+    boolean spawnable = this.spawnableFilter.test(npc);
+    double viewDistanceSquared = (double) this.viewDistance * this.viewDistance;
+
+    for (Viewer<W, P, I, E> viewer : this.viewers.values()) {
+      boolean entered;
+      boolean left;
+      synchronized (viewer) {
+        if (!viewer.initialized) {
+          continue;
+        }
+
+        boolean visible = false;
+        if (spawnable && Objects.equals(viewer.world, npc.world())) {
+          double diffX = pos.x() - viewer.x;
+          double diffY = pos.y() - viewer.y;
+          double diffZ = pos.z() - viewer.z;
+          visible = diffX * diffX + diffY * diffY + diffZ * diffZ <= viewDistanceSquared;
+        }
+
+        entered = visible && viewer.visibleNpcs.add(npc);
+        left = !visible && viewer.visibleNpcs.remove(npc);
+      }
+
+      if (entered) {
+        this.tracker.addToQueue(viewer.player, npc);
+      } else if (left) {
+        this.tracker.removeFromQueue(viewer.player, npc);
+        npc.stopTrackingPlayer(viewer.player);
+      }
+    }
+  }
+
+  public void hideNpc(@NotNull Npc<W, P, I, E> npc) {
+    for (Viewer<W, P, I, E> viewer : this.viewers.values()) {
+      boolean left;
+      synchronized (viewer) {
+        left = viewer.visibleNpcs.remove(npc);
+      }
+
+      if (left) {
+        this.tracker.removeFromQueue(viewer.player, npc);
+        npc.stopTrackingPlayer(viewer.player);
+      }
+    }
+  }
+
+  public void removeNpc(@NotNull Npc<W, P, I, E> npc) {
+    for (Viewer<W, P, I, E> viewer : this.viewers.values()) {
+      synchronized (viewer) {
+        viewer.visibleNpcs.remove(npc);
+      }
+
+      // the npc itself takes care of removing it from the players which are tracked
+      this.tracker.removeFromQueue(viewer.player, npc);
+    }
+  }
+
+  private void emitDeltas(
+    @NotNull P player,
+    @NotNull Collection<Npc<W, P, I, E>> entered,
+    @NotNull Collection<Npc<W, P, I, E>> left
+  ) {
+    if (!left.isEmpty()) {
+      for (Npc<W, P, I, E> npc : left) {
+        this.tracker.removeFromQueue(player, npc);
+      }
+
+      // all npcs which went out of range are removed in one go
+      this.tracker.stopTrackingPlayer(player, left);
+    }
+
+    for (Npc<W, P, I, E> npc : entered) {
+      if (!npc.tracksPlayer(player)) {
+        this.tracker.addToQueue(player, npc);
+      }
+    }
+  }
+
+  private static final class Viewer<W, P, I, E> {
+
+    private final P player;
+
+    // guarded by this
+    private boolean initialized;
+    private W world;
+    private int chunkX;
+    private int chunkZ;
+    private double x;
+    private double y;
+    private double z;
+    private Set<Npc<W, P, I, E>> visibleNpcs = new HashSet<>();
+
+    public Viewer(@NotNull P player) {
+      this.player = player;
+    }
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * This file is part of npc-lib, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022-2023 Julian M., Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.juliarn.npclib.common.util;
+
+import com.github.juliarn.npclib.api.Npc;
+import com.github.juliarn.npclib.api.profile.Profile;
+import com.github.juliarn.npclib.common.npc.CommonNpc;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import org.jetbrains.annotations.NotNull;
+
+public final class NpcProfileHelper {
+
+  private NpcProfileHelper() {
+    throw new UnsupportedOperationException();
+  }
+
+  @SuppressWarnings("unchecked")
+  public static @NotNull <P> CompletableFuture<Profile.Resolved> resolveNpcProfile(
+    @NotNull P player,
+    @NotNull Npc<?, P, ?, ?> npc
+  ) {
+    // common npcs memoize the profile resolved for each viewer
+    if (npc instanceof CommonNpc<?, ?, ?, ?>) {
+      return ((CommonNpc<?, P, ?, ?>) npc).resolveViewerProfile(player);
+    }
+
+    return npc.settings().profileResolver().resolveNpcProfile(player, npc);
+  }
+
+  public static @NotNull <P> CompletableFuture<List<Profile.Resolved>> resolveNpcProfiles(
+    @NotNull P player,
+    @NotNull Collection<? extends Npc<?, P, ?, ?>> npcs
+  ) {
+    List<CompletableFuture<Profile.Resolved>> futures = new ArrayList<>(npcs.size());
+    for (Npc<?, P, ?, ?> npc : npcs) {
+      futures.add(resolveNpcProfile(player, npc));
+    }
+
+    // collect the profiles in the same order as the given npcs once all of them are resolved
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+      List<Profile.Resolved> profiles = new ArrayList<>(futures.size());
+      for (CompletableFuture<Profile.Resolved> future : futures) {
+        profiles.add(future.join());
+      }
+      return profiles;
+    });
+  }
+
+  public static @NotNull <P> CompletableFuture<Void> acceptNpcProfiles(
+    @NotNull P player,
+    @NotNull Collection<? extends Npc<?, P, ?, ?>> npcs,
+    @NotNull Consumer<List<Profile.Resolved>> action
+  ) {
+    CompletableFuture<List<Profile.Resolved>> future = resolveNpcProfiles(player, npcs);
+
+    // run directly if all profiles are already available, so that packets leave in order without a thread hop
+    if (future.isDone() && !future.isCompletedExceptionally()) {
+      try {
+        action.accept(future.join());
+        return CompletableFuture.completedFuture(null);
+      } catch (Throwable throwable) {
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(throwable);
+        return failed;
+      }
+    }
+
+    return future.thenAcceptAsync(action);
+  }
+}
@@ -27,7 +27,6 @@
 import com.github.juliarn.npclib.api.Npc;
 import com.github.juliarn.npclib.api.NpcActionController;
 import com.github.juliarn.npclib.api.NpcTracker;
-import com.github.juliarn.npclib.api.Position;
 import com.github.juliarn.npclib.api.event.ShowNpcEvent;
 import com.github.juliarn.npclib.api.event.manager.NpcEventManager;
 import com.github.juliarn.npclib.api.flag.NpcFlag;
@@ -36,6 +35,7 @@
 import com.github.juliarn.npclib.common.CommonNpcActionController;
 import com.github.juliarn.npclib.common.flag.CommonNpcFlaggedBuilder;
 import com.github.juliarn.npclib.minestom.util.MinestomUtil;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -45,7 +45,6 @@
 import net.minestom.server.event.player.PlayerDisconnectEvent;
 import net.minestom.server.event.player.PlayerHandAnimationEvent;
 import net.minestom.server.event.player.PlayerMoveEvent;
-import net.minestom.server.event.player.PlayerSpawnEvent;
 import net.minestom.server.event.player.PlayerStartSneakingEvent;
 import net.minestom.server.event.player.PlayerStopSneakingEvent;
 import net.minestom.server.instance.Instance;
@@ -59,6 +58,7 @@ public final class MinestomActionController extends CommonNpcActionController {
   // based on the given flags
   private final int spawnDistance;
   private final int imitateDistance;
+  private final int imitateDistanceSquared;
 
   public MinestomActionController(
     @NotNull Map<NpcFlag<?>, Optional<?>> flags,
@@ -69,11 +69,10 @@ public MinestomActionController(
     this.npcTracker = tracker;
 
     // pre-calculate flag values
-    int spawnDistance = this.flagValueOrDefault(SPAWN_DISTANCE);
-    this.spawnDistance = spawnDistance * spawnDistance;
+    this.spawnDistance = this.flagValueOrDefault(SPAWN_DISTANCE);
 
-    int imitateDistance = this.flagValueOrDefault(IMITATE_DISTANCE);
-    this.imitateDistance = imitateDistance * imitateDistance;
+    this.imitateDistance = this.flagValueOrDefault(IMITATE_DISTANCE);
+    this.imitateDistanceSquared = this.imitateDistance * this.imitateDistance;
 
     // register listener to update the npc rotation after it is tracked
     if (this.flagValueOrDefault(NpcActionController.AUTO_SYNC_POSITION_ON_SPAWN)) {
@@ -86,7 +85,7 @@ public MinestomActionController(
         // in normal cases the instance check should no evaluate to false at this point
         double distance = MinestomUtil.distance(event.npc(), to);
         if (instance != null
-          && distance <= this.imitateDistance
+          && distance <= this.imitateDistanceSquared
           && event.npc().flagValueOrDefault(Npc.LOOK_AT_PLAYER)) {
           event.npc().lookAt(MinestomUtil.positionFromMinestom(to, instance)).schedule(player);
         }
@@ -109,7 +108,6 @@ public MinestomActionController(
 
   private void registerListeners() {
     MinecraftServer.getGlobalEventHandler().addListener(PlayerMoveEvent.class, this::handleMove);
-    MinecraftServer.getGlobalEventHandler().addListener(PlayerSpawnEvent.class, this::handlePlayerInstanceSpawn);
     MinecraftServer.getGlobalEventHandler().addListener(PlayerStartSneakingEvent.class, this::handleStartSneak);
     MinecraftServer.getGlobalEventHandler().addListener(PlayerStopSneakingEvent.class, this::handleStopSneak);
     MinecraftServer.getGlobalEventHandler().addListener(PlayerHandAnimationEvent.class, this::handleHandAnimation);
@@ -120,61 +118,28 @@ private void handleMove(@NotNull PlayerMoveEvent event) {
     Pos to = event.getNewPosition();
     Pos from = event.getPlayer().getPosition();
 
-    boolean changedOrientation = from.yaw() != to.yaw() || from.pitch() != to.pitch();
+    // only position changes can cause a rotation of the npcs, the tracker takes care of the npc visibility
     boolean changedPosition = from.x() != to.x() || from.y() != to.y() || from.z() != to.z();
-
-    // check if any movement happened (event is also called when standing still)
-    if (changedPosition || changedOrientation) {
+    if (changedPosition) {
       Player player = event.getPlayer();
-      for (Npc<Instance, Player, ItemStack, Object> npc : this.npcTracker.trackedNpcs()) {
-        // check if the chunk of the npc is still loaded
-        Position pos = npc.position();
-        if (!npc.world().isChunkLoaded(pos.chunkX(), pos.chunkZ())) {
-          // if the player is tracked by the npc, stop that
-          npc.stopTrackingPlayer(player);
-          continue;
-        }
-
-        // check if the player moved in / out of any npc tracking distance
-        double distance = MinestomUtil.distance(npc, to);
-        if (distance > this.spawnDistance) {
-          // this will only do something if the player is already tracked by the npc
-          npc.stopTrackingPlayer(player);
-          continue;
-        } else {
-          // this will only do something if the player is not already tracked by the npc
-          npc.trackPlayer(player);
-        }
-
+      Instance instance = event.getInstance();
+
+      // npcs outside the spawn distance are not visible to the player and can be skipped
+      int lookupDistance = Math.min(this.spawnDistance, this.imitateDistance);
+      for (Npc<Instance, Player, ItemStack, Object> npc : this.npcTracker.npcsNear(
+        instance,
+        to.x(),
+        to.y(),
+        to.z(),
+        lookupDistance)) {
         // check if we should rotate the npc towards the player
-        if (changedPosition
-          && npc.tracksPlayer(player)
-          && distance <= this.imitateDistance
-          && npc.flagValueOrDefault(Npc.LOOK_AT_PLAYER)) {
-          npc.lookAt(MinestomUtil.positionFromMinestom(to, event.getInstance())).schedule(player);
+        if (npc.tracksPlayer(player) && npc.flagValueOrDefault(Npc.LOOK_AT_PLAYER)) {
+          npc.lookAt(MinestomUtil.positionFromMinestom(to, instance)).schedule(player);
         }
       }
     }
   }
 
-  private void handlePlayerInstanceSpawn(@NotNull PlayerSpawnEvent event) {
-    // ensure that we stop tracking the player on NPCs which are not in the same world as the player
-    String instanceId = event.getInstance().getUniqueId().toString();
-    for (Npc<Instance, Player, ItemStack, Object> npc : this.npcTracker.trackedNpcs()) {
-      if (!npc.position().worldId().equals(instanceId)) {
-        // the player is no longer in the same world, stop tracking
-        npc.stopTrackingPlayer(event.getPlayer());
-        continue;
-      }
-
-      // the player is now in the same instance as the npc, check if we should track him
-      double distance = MinestomUtil.distance(npc, event.getPlayer().getPosition());
-      if (this.spawnDistance >= distance) {
-        npc.trackPlayer(event.getPlayer());
-      }
-    }
-  }
-
   private void handleStartSneak(@NotNull PlayerStartSneakingEvent event) {
     this.handleToggleSneak(event.getPlayer(), event.getInstance(), true);
   }
@@ -184,45 +149,37 @@ private void handleStopSneak(@NotNull PlayerStopSneakingEvent event) {
   }
 
   private void handleToggleSneak(@NotNull Player player, @NotNull Instance instance, boolean sneakActive) {
-    String instanceId = instance.getUniqueId().toString();
-    for (Npc<Instance, Player, ItemStack, Object> npc : this.npcTracker.trackedNpcs()) {
-      double distance = MinestomUtil.distance(npc, player.getPosition());
-
+    for (Npc<Instance, Player, ItemStack, Object> npc : this.imitatingNpcsNear(player, instance)) {
       // check if we should imitate the action
-      if (Objects.equals(instanceId, npc.position().worldId())
-        && npc.tracksPlayer(player)
-        && distance <= this.imitateDistance
-        && npc.flagValueOrDefault(Npc.SNEAK_WHEN_PLAYER_SNEAKS)) {
+      if (npc.tracksPlayer(player) && npc.flagValueOrDefault(Npc.SNEAK_WHEN_PLAYER_SNEAKS)) {
         // let the npc sneak as well
-        npc.platform().packetFactory()
-          .createEntityMetaPacket(EntityMetadataFactory.sneakingMetaFactory(), sneakActive)
-          .schedule(player, npc);
+        npc.changeMetadata(player, EntityMetadataFactory.sneakingMetaFactory(), sneakActive);
       }
     }
   }
 
   private void handleHandAnimation(@NotNull PlayerHandAnimationEvent event) {
     Player player = event.getPlayer();
-    String instanceId = event.getInstance().getUniqueId().toString();
-    for (Npc<Instance, Player, ItemStack, Object> npc : this.npcTracker.trackedNpcs()) {
-      double distance = MinestomUtil.distance(npc, player.getPosition());
-
+    for (Npc<Instance, Player, ItemStack, Object> npc : this.imitatingNpcsNear(player, event.getInstance())) {
       // check if we should imitate the action
-      if (Objects.equals(instanceId, npc.position().worldId())
-        && npc.tracksPlayer(player)
-        && distance <= this.imitateDistance
-        && npc.flagValueOrDefault(Npc.HIT_WHEN_PLAYER_HITS)) {
+      if (npc.tracksPlayer(player) && npc.flagValueOrDefault(Npc.HIT_WHEN_PLAYER_HITS)) {
         // let the npc left click as well
         npc.platform().packetFactory().createAnimationPacket(EntityAnimation.SWING_MAIN_ARM).schedule(player, npc);
       }
     }
   }
 
+  private @NotNull Collection<Npc<Instance, Player, ItemStack, Object>> imitatingNpcsNear(
+    @NotNull Player player,
+    @NotNull Instance instance
+  ) {
+    Pos pos = player.getPosition();
+    return this.npcTracker.npcsNear(instance, pos.x(), pos.y(), pos.z(), this.imitateDistance);
+  }
+
   private void handleQuit(@NotNull PlayerDisconnectEvent event) {
-    for (Npc<Instance, Player, ItemStack, Object> npc : this.npcTracker.trackedNpcs()) {
-      // check if the npc tracks the player which disconnected and stop tracking him if so
-      npc.stopTrackingPlayer(event.getPlayer());
-    }
+    // stop tracking the player which disconnected for all npcs at once
+    this.npcTracker.stopTrackingPlayer(event.getPlayer());
   }
 
   private static final class MinestomActionControllerBuilder
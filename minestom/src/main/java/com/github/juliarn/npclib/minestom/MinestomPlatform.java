@@ -29,6 +29,7 @@
 import com.github.juliarn.npclib.common.platform.CommonPlatform;
 import com.github.juliarn.npclib.common.platform.CommonPlatformBuilder;
 import com.github.juliarn.npclib.minestom.protocol.MinestomProtocolAdapter;
+import com.github.juliarn.npclib.minestom.track.MinestomNpcTracker;
 import net.minestom.server.entity.Player;
 import net.minestom.server.instance.Instance;
 import net.minestom.server.item.ItemStack;
@@ -69,6 +70,11 @@ protected void prepareBuild() {
     if (this.logger == null) {
       this.logger = MinestomPlatformLogger.minestomLogger();
     }
+
+    // set the default npc tracker
+    if (this.npcTracker == null) {
+      this.npcTracker = new MinestomNpcTracker();
+    }
   }
 
   @Override
@@ -91,6 +97,7 @@ protected void prepareBuild() {
       this.npcTracker,
       this.profileResolver,
       this.taskManager,
+      this.updateScheduler,
       actionController,
       this.versionAccessor,
       this.eventManager,
@@ -28,8 +28,13 @@
 import com.github.juliarn.npclib.api.Platform;
 import com.github.juliarn.npclib.api.PlatformVersionAccessor;
 import com.github.juliarn.npclib.api.Position;
+import com.github.juliarn.npclib.api.event.AttackNpcEvent;
 import com.github.juliarn.npclib.api.event.InteractNpcEvent;
+import com.github.juliarn.npclib.api.event.manager.NpcEventManager;
+import com.github.juliarn.npclib.api.profile.Profile;
 import com.github.juliarn.npclib.api.profile.ProfileProperty;
+import com.github.juliarn.npclib.api.protocol.BatchedOutboundPacket;
+import com.github.juliarn.npclib.api.protocol.NpcPacketCache;
 import com.github.juliarn.npclib.api.protocol.OutboundPacket;
 import com.github.juliarn.npclib.api.protocol.PlatformPacketAdapter;
 import com.github.juliarn.npclib.api.protocol.chat.Component;
@@ -39,8 +44,10 @@
 import com.github.juliarn.npclib.api.protocol.enums.PlayerInfoAction;
 import com.github.juliarn.npclib.api.protocol.meta.EntityMetadata;
 import com.github.juliarn.npclib.api.protocol.meta.EntityMetadataFactory;
+import com.github.juliarn.npclib.api.protocol.meta.EntityMetadataPlan;
 import com.github.juliarn.npclib.common.event.DefaultAttackNpcEvent;
 import com.github.juliarn.npclib.common.event.DefaultInteractNpcEvent;
+import com.github.juliarn.npclib.common.util.NpcProfileHelper;
 import com.github.juliarn.npclib.minestom.util.MinestomUtil;
 import io.leangen.geantyref.TypeFactory;
 import java.lang.reflect.Type;
@@ -53,7 +60,10 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
 import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
@@ -69,17 +79,23 @@
 import net.minestom.server.instance.Instance;
 import net.minestom.server.item.ItemStack;
 import net.minestom.server.network.packet.client.play.ClientInteractEntityPacket;
+import net.minestom.server.network.packet.server.CachedPacket;
+import net.minestom.server.network.packet.server.SendablePacket;
+import net.minestom.server.network.packet.server.ServerPacket;
 import net.minestom.server.network.packet.server.common.PluginMessagePacket;
 import net.minestom.server.network.packet.server.play.DestroyEntitiesPacket;
 import net.minestom.server.network.packet.server.play.EntityAnimationPacket;
 import net.minestom.server.network.packet.server.play.EntityEquipmentPacket;
 import net.minestom.server.network.packet.server.play.EntityHeadLookPacket;
 import net.minestom.server.network.packet.server.play.EntityMetaDataPacket;
+import net.minestom.server.network.packet.server.play.EntityPositionAndRotationPacket;
 import net.minestom.server.network.packet.server.play.EntityRotationPacket;
+import net.minestom.server.network.packet.server.play.EntityTeleportPacket;
 import net.minestom.server.network.packet.server.play.PlayerInfoRemovePacket;
 import net.minestom.server.network.packet.server.play.PlayerInfoUpdatePacket;
 import net.minestom.server.network.packet.server.play.SpawnEntityPacket;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 @SuppressWarnings("UnstableApiUsage")
 public final class MinestomProtocolAdapter implements PlatformPacketAdapter<Instance, Player, ItemStack, Object> {
@@ -98,6 +114,9 @@ public final class MinestomProtocolAdapter implements PlatformPacketAdapter<Inst
   private static final Map<Type, Function<Object, Metadata.Entry<?>>> META_ENTRY_FACTORY;
   private static final Map<Type, Map.Entry<Type, UnaryOperator<Object>>> SERIALIZER_CONVERTERS;
 
+  // the minestom specific data of each metadata type, bounded by the amount of metadata types
+  private static final Map<Type, CompiledMetadataType> COMPILED_METADATA_TYPES = new ConcurrentHashMap<>();
+
   private static final EnumSet<PlayerInfoUpdatePacket.Action> ADD_ACTIONS = EnumSet.of(
     PlayerInfoUpdatePacket.Action.ADD_PLAYER,
     PlayerInfoUpdatePacket.Action.UPDATE_LISTED,
@@ -198,40 +217,90 @@ private MinestomProtocolAdapter() {
     return INSTANCE;
   }
 
-  private static @NotNull Metadata.Entry<?> createMetadataEntry(@NotNull Type type, @NotNull Object value) {
-    // check if we need to convert the value before creating the meta object
-    Map.Entry<Type, UnaryOperator<Object>> converter = SERIALIZER_CONVERTERS.get(type);
-    if (converter != null) {
-      type = converter.getKey();
-      value = converter.getValue().apply(value);
+  private static @Nullable Metadata.Entry<?> createMetadataEntry(@NotNull EntityMetadata<?> metadata) {
+    // the meta is not sent if it's not available for the input
+    if (!metadata.available()) {
+      return null;
+    }
+
+    // get or compile the minestom specific data of the type, racing threads compile equal data
+    Type type = metadata.type();
+    CompiledMetadataType compiledType = COMPILED_METADATA_TYPES.get(type);
+    if (compiledType == null) {
+      compiledType = new CompiledMetadataType(type);
+      COMPILED_METADATA_TYPES.putIfAbsent(type, compiledType);
     }
 
-    // get the meta factory which is converting the type
-    Function<Object, Metadata.Entry<?>> metaFactory = META_ENTRY_FACTORY.get(type);
-    if (metaFactory == null) {
-      // unable to handle that
-      throw new IllegalArgumentException("Unsupported type: " + type);
+    return compiledType.createMetadataEntry(metadata.value());
+  }
+
+  private static void sendCachedPacket(
+    @NotNull Player player,
+    @NotNull Npc<?, ?, ?, ?> npc,
+    @NotNull Object key,
+    boolean stable,
+    @NotNull Supplier<ServerPacket> packetFactory
+  ) {
+    // there is only one protocol version, the packet is framed once and then written as-is to all players
+    Supplier<Optional<CachedPacket>> cachedPacketFactory = () -> Optional.ofNullable(packetFactory.get())
+      .map(CachedPacket::new);
+    Optional<CachedPacket> packet = stable
+      ? npc.packetCache().computeStableIfAbsent(key, cachedPacketFactory)
+      : npc.packetCache().computeIfAbsent(key, cachedPacketFactory);
+    packet.ifPresent(player::sendPacket);
+  }
+
+  private static @NotNull SpawnEntityPacket createSpawnEntityPacket(@NotNull Npc<?, ?, ?, ?> npc) {
+    Pos position = MinestomUtil.minestomFromPosition(npc.position());
+    return new SpawnEntityPacket(
+      npc.entityId(),
+      npc.profile().uniqueId(),
+      EntityType.PLAYER.id(),
+      position,
+      0F,
+      0,
+      (short) 0,
+      (short) 0,
+      (short) 0);
+  }
+
+  private static @NotNull PlayerInfoUpdatePacket.Entry createPlayerInfoEntry(@NotNull Profile.Resolved profile) {
+    // convert the profile properties
+    List<PlayerInfoUpdatePacket.Property> properties = new ArrayList<>();
+    for (ProfileProperty property : profile.properties()) {
+      PlayerInfoUpdatePacket.Property prop = new PlayerInfoUpdatePacket.Property(
+        property.name(),
+        property.value(),
+        property.signature());
+      properties.add(prop);
     }
 
-    // create the meta entry
-    return metaFactory.apply(value);
+    return new PlayerInfoUpdatePacket.Entry(
+      profile.uniqueId(),
+      profile.name(),
+      properties,
+      false,
+      20,
+      GameMode.CREATIVE,
+      null,
+      null
+    );
   }
 
   @Override
   public @NotNull OutboundPacket<Instance, Player, ItemStack, Object> createEntitySpawnPacket() {
-    return (player, npc) -> {
-      Pos position = MinestomUtil.minestomFromPosition(npc.position());
-      SpawnEntityPacket packet = new SpawnEntityPacket(
-        npc.entityId(),
-        npc.profile().uniqueId(),
-        EntityType.PLAYER.id(),
-        position,
-        0F,
-        0,
-        (short) 0,
-        (short) 0,
-        (short) 0);
-      player.sendPacket(packet);
+    return (player, npc) -> sendCachedPacket(player, npc, "spawn", false, () -> createSpawnEntityPacket(npc));
+  }
+
+  @Override
+  public @NotNull BatchedOutboundPacket<Instance, Player, ItemStack, Object> createEntitySpawnBatchPacket() {
+    return (player, npcs) -> {
+      SendablePacket[] packets = new SendablePacket[npcs.size()];
+      int index = 0;
+      for (Npc<Instance, Player, ItemStack, Object> npc : npcs) {
+        packets[index++] = createSpawnEntityPacket(npc);
+      }
+      player.sendPackets(packets);
     };
   }
 
@@ -243,41 +312,51 @@ private MinestomProtocolAdapter() {
     };
   }
 
+  @Override
+  public @NotNull BatchedOutboundPacket<Instance, Player, ItemStack, Object> createEntityRemoveBatchPacket() {
+    return (player, npcs) -> {
+      List<Integer> entityIds = new ArrayList<>(npcs.size());
+      for (Npc<Instance, Player, ItemStack, Object> npc : npcs) {
+        entityIds.add(npc.entityId());
+      }
+
+      DestroyEntitiesPacket packet = new DestroyEntitiesPacket(entityIds);
+      player.sendPacket(packet);
+    };
+  }
+
   @Override
   public @NotNull OutboundPacket<Instance, Player, ItemStack, Object> createPlayerInfoPacket(
     @NotNull PlayerInfoAction action
   ) {
-    return (player, npc) -> npc.settings().profileResolver().resolveNpcProfile(player, npc).thenAcceptAsync(profile -> {
+    BatchedOutboundPacket<Instance, Player, ItemStack, Object> batchPacket = this.createPlayerInfoBatchPacket(action);
+    return (player, npc) -> batchPacket.schedule(player, Collections.singletonList(npc));
+  }
+
+  @Override
+  public @NotNull BatchedOutboundPacket<Instance, Player, ItemStack, Object> createPlayerInfoBatchPacket(
+    @NotNull PlayerInfoAction action
+  ) {
+    return (player, npcs) -> NpcProfileHelper.acceptNpcProfiles(player, npcs, profiles -> {
       if (action == PlayerInfoAction.REMOVE_PLAYER) {
-        // just remove the player from the tablist
-        PlayerInfoRemovePacket removePacket = new PlayerInfoRemovePacket(profile.uniqueId());
+        // just remove the players from the tablist
+        List<UUID> uuidsToRemove = new ArrayList<>(profiles.size());
+        for (Profile.Resolved profile : profiles) {
+          uuidsToRemove.add(profile.uniqueId());
+        }
+
+        PlayerInfoRemovePacket removePacket = new PlayerInfoRemovePacket(uuidsToRemove);
         player.sendPacket(removePacket);
         return;
       }
 
-      // convert the profile properties
-      List<PlayerInfoUpdatePacket.Property> properties = new ArrayList<>();
-      for (ProfileProperty property : profile.properties()) {
-        PlayerInfoUpdatePacket.Property prop = new PlayerInfoUpdatePacket.Property(
-          property.name(),
-          property.value(),
-          property.signature());
-        properties.add(prop);
+      // build the action
+      List<PlayerInfoUpdatePacket.Entry> entries = new ArrayList<>(profiles.size());
+      for (Profile.Resolved profile : profiles) {
+        entries.add(createPlayerInfoEntry(profile));
       }
 
-      // build the action
-      PlayerInfoUpdatePacket updatePacket = new PlayerInfoUpdatePacket(
-        ADD_ACTIONS,
-        Collections.singletonList(new PlayerInfoUpdatePacket.Entry(
-          profile.uniqueId(),
-          profile.name(),
-          properties,
-          false,
-          20,
-          GameMode.CREATIVE,
-          null,
-          null
-        )));
+      PlayerInfoUpdatePacket updatePacket = new PlayerInfoUpdatePacket(ADD_ACTIONS, entries);
       player.sendPacket(updatePacket);
     });
   }
@@ -311,16 +390,46 @@ private MinestomProtocolAdapter() {
     @NotNull ItemStack item
   ) {
     return (player, npc) -> {
-      // get the meta of the item to send
-      EquipmentSlot equipmentSlot = ITEM_SLOT_CONVERTER.get(slot);
-      Map<EquipmentSlot, ItemStack> items = Collections.singletonMap(equipmentSlot, item);
+      // only the item which the npc is currently holding can be shared between the players
+      if (npc.equipment(slot) == item) {
+        // the item identity is part of the key, a concurrent item change can't leave a stale packet behind
+        Object key = NpcPacketCache.identityKey(slot, item);
+        sendCachedPacket(player, npc, key, false, () -> createEntityEquipmentPacket(npc, slot, item));
+      } else {
+        player.sendPacket(createEntityEquipmentPacket(npc, slot, item));
+      }
+    };
+  }
 
-      // send the packet
-      EntityEquipmentPacket packet = new EntityEquipmentPacket(npc.entityId(), items);
-      player.sendPacket(packet);
+  @Override
+  public @NotNull OutboundPacket<Instance, Player, ItemStack, Object> createEquipmentPacket(
+    @NotNull Map<ItemSlot, ItemStack> equipment
+  ) {
+    return (player, npc) -> {
+      if (equipment.isEmpty()) {
+        return;
+      }
+
+      // all equipment pieces fit into a single packet
+      Map<EquipmentSlot, ItemStack> items = new EnumMap<>(EquipmentSlot.class);
+      for (Map.Entry<ItemSlot, ItemStack> entry : equipment.entrySet()) {
+        items.put(ITEM_SLOT_CONVERTER.get(entry.getKey()), entry.getValue());
+      }
+      player.sendPacket(new EntityEquipmentPacket(npc.entityId(), items));
     };
   }
 
+  private static @NotNull EntityEquipmentPacket createEntityEquipmentPacket(
+    @NotNull Npc<?, ?, ?, ?> npc,
+    @NotNull ItemSlot slot,
+    @NotNull ItemStack item
+  ) {
+    // get the meta of the item to send
+    EquipmentSlot equipmentSlot = ITEM_SLOT_CONVERTER.get(slot);
+    Map<EquipmentSlot, ItemStack> items = Collections.singletonMap(equipmentSlot, item);
+    return new EntityEquipmentPacket(npc.entityId(), items);
+  }
+
   @Override
   public @NotNull OutboundPacket<Instance, Player, ItemStack, Object> createCustomPayloadPacket(
     @NotNull String channelId,
@@ -334,7 +443,45 @@ private MinestomProtocolAdapter() {
 
   @Override
   public @NotNull OutboundPacket<Instance, Player, ItemStack, Object> createEntityTeleportPacket(String worldId, Position position) {
-    return null;
+    return (player, npc) -> {
+      // EntityTeleport (https://wiki.vg/Protocol#Teleport_Entity)
+      Pos pos = MinestomUtil.minestomFromPosition(position);
+      player.sendPacket(new EntityTeleportPacket(npc.entityId(), pos, true));
+    };
+  }
+
+  @Override
+  public @NotNull OutboundPacket<Instance, Player, ItemStack, Object> createEntityMovePacket(
+    @NotNull Position from,
+    @NotNull Position to
+  ) {
+    // deltas are encoded as shorts with 12 fraction bits
+    long deltaX = (long) Math.floor(to.x() * 4096D) - (long) Math.floor(from.x() * 4096D);
+    long deltaY = (long) Math.floor(to.y() * 4096D) - (long) Math.floor(from.y() * 4096D);
+    long deltaZ = (long) Math.floor(to.z() * 4096D) - (long) Math.floor(from.z() * 4096D);
+    boolean relative = Math.max(deltaX, Math.max(deltaY, deltaZ)) <= Short.MAX_VALUE
+      && Math.min(deltaX, Math.min(deltaY, deltaZ)) >= Short.MIN_VALUE;
+
+    return (player, npc) -> {
+      ServerPacket movePacket;
+      if (relative) {
+        // EntityPositionAndRotation (https://wiki.vg/Protocol#Update_Entity_Position_and_Rotation)
+        movePacket = new EntityPositionAndRotationPacket(
+          npc.entityId(),
+          (short) deltaX,
+          (short) deltaY,
+          (short) deltaZ,
+          to.yaw(),
+          to.pitch(),
+          true);
+      } else {
+        // too far for a relative move, use a teleport instead
+        movePacket = new EntityTeleportPacket(npc.entityId(), MinestomUtil.minestomFromPosition(to), true);
+      }
+
+      EntityHeadLookPacket headLookPacket = new EntityHeadLookPacket(npc.entityId(), to.yaw());
+      player.sendPackets(movePacket, headLookPacket);
+    };
   }
 
   @Override
@@ -342,31 +489,96 @@ private MinestomProtocolAdapter() {
     @NotNull EntityMetadataFactory<T, O> metadata,
     @NotNull T value
   ) {
-    return (player, npc) -> {
-      // create the entity meta
-      PlatformVersionAccessor versionAccessor = npc.platform().versionAccessor();
-      EntityMetadata<O> entityMetadata = metadata.create(value, versionAccessor);
+    // metadata packets don't depend on the npc state, they stay cached when the npc changes
+    return (player, npc) -> sendCachedPacket(
+      player,
+      npc,
+      new AbstractMap.SimpleImmutableEntry<>(metadata, value),
+      true,
+      () -> createEntityMetaDataPacket(npc, metadata, value));
+  }
 
-      // check if the meta is available
-      if (!entityMetadata.available()) {
-        return;
+  @Override
+  public @NotNull OutboundPacket<Instance, Player, ItemStack, Object> createEntityMetaPacket(
+    @NotNull Map<EntityMetadataFactory<?, ?>, Object> metadata
+  ) {
+    return (player, npc) -> {
+      EntityMetaDataPacket packet = createEntityMetaDataPacket(npc, metadata);
+      if (packet != null) {
+        player.sendPacket(packet);
       }
+    };
+  }
 
-      Map<Integer, Metadata.Entry<?>> metadataEntries = new HashMap<>();
-      metadataEntries.put(entityMetadata.index(), createMetadataEntry(entityMetadata.type(), entityMetadata.value()));
+  private static @Nullable <T, O> EntityMetaDataPacket createEntityMetaDataPacket(
+    @NotNull Npc<?, ?, ?, ?> npc,
+    @NotNull EntityMetadataFactory<T, O> metadata,
+    @NotNull T value
+  ) {
+    Map<Integer, Metadata.Entry<?>> metadataEntries = new HashMap<>();
+    if (!collectMetadataEntries(metadata, value, npc.platform().versionAccessor(), metadataEntries)) {
+      return null;
+    }
 
-      // add all dependant metas
-      for (EntityMetadataFactory<T, Object> relatedMetadata : metadata.relatedMetadata()) {
-        EntityMetadata<Object> related = relatedMetadata.create(value, versionAccessor);
-        if (related.available()) {
-          metadataEntries.put(related.index(), createMetadataEntry(related.type(), related.value()));
-        }
+    // create the packet
+    return new EntityMetaDataPacket(npc.entityId(), metadataEntries);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static @Nullable EntityMetaDataPacket createEntityMetaDataPacket(
+    @NotNull Npc<?, ?, ?, ?> npc,
+    @NotNull Map<EntityMetadataFactory<?, ?>, Object> metadata
+  ) {
+    // merge all metas into one packet, the last value for each index wins
+    PlatformVersionAccessor versionAccessor = npc.platform().versionAccessor();
+    Map<Integer, Metadata.Entry<?>> metadataEntries = new HashMap<>();
+    for (Map.Entry<EntityMetadataFactory<?, ?>, Object> entry : metadata.entrySet()) {
+      EntityMetadataFactory<Object, ?> factory = (EntityMetadataFactory<Object, ?>) entry.getKey();
+      collectMetadataEntries(factory, entry.getValue(), versionAccessor, metadataEntries);
+    }
+
+    // check if any meta is available
+    if (metadataEntries.isEmpty()) {
+      return null;
+    }
+
+    // create the packet
+    return new EntityMetaDataPacket(npc.entityId(), metadataEntries);
+  }
+
+  private static <T, O> boolean collectMetadataEntries(
+    @NotNull EntityMetadataFactory<T, O> metadata,
+    @NotNull T value,
+    @NotNull PlatformVersionAccessor versionAccessor,
+    @NotNull Map<Integer, Metadata.Entry<?>> target
+  ) {
+    // get the plan for the current version
+    EntityMetadataPlan<T, O> plan = metadata.compile(versionAccessor);
+
+    // check if the meta is available
+    EntityMetadataPlan.Step<T, O> primary = plan.primary();
+    if (primary == null) {
+      return false;
+    }
+
+    EntityMetadata<O> primaryMetadata = primary.create(value);
+    Metadata.Entry<?> primaryEntry = createMetadataEntry(primaryMetadata);
+    if (primaryEntry == null) {
+      return false;
+    }
+
+    target.put(primaryMetadata.index(), primaryEntry);
+
+    // add all dependant metas which are available for the input
+    for (EntityMetadataPlan.Step<T, Object> related : plan.related()) {
+      EntityMetadata<Object> relatedMetadata = related.create(value);
+      Metadata.Entry<?> relatedEntry = createMetadataEntry(relatedMetadata);
+      if (relatedEntry != null) {
+        target.put(relatedMetadata.index(), relatedEntry);
       }
+    }
 
-      // create & send the packet
-      EntityMetaDataPacket packet = new EntityMetaDataPacket(npc.entityId(), metadataEntries);
-      player.sendPacket(packet);
-    };
+    return true;
   }
 
   @Override
@@ -378,14 +590,18 @@ public void initialize(@NotNull Platform<Instance, Player, ItemStack, Object> pl
         Npc<Instance, Player, ItemStack, Object> npc = platform.npcTracker().npcById(packet.targetId());
         if (npc != null) {
           // call the correct event based on the taken action
+          NpcEventManager eventManager = platform.eventManager();
           if (packet.type() instanceof ClientInteractEntityPacket.Attack) {
-            platform.eventManager().post(DefaultAttackNpcEvent.attackNpc(npc, event.getPlayer()));
-          } else if (packet.type() instanceof ClientInteractEntityPacket.Interact interact) {
+            if (eventManager.hasSubscribers(AttackNpcEvent.class)) {
+              eventManager.post(DefaultAttackNpcEvent.attackNpc(npc, event.getPlayer()));
+            }
+          } else if (packet.type() instanceof ClientInteractEntityPacket.Interact interact
+            && eventManager.hasSubscribers(InteractNpcEvent.class)) {
             // extract the used hand from the packet
             InteractNpcEvent.Hand hand = HAND_CONVERTER.get(interact.hand());
 
             // call the event
-            platform.eventManager().post(DefaultInteractNpcEvent.interactNpc(npc, event.getPlayer(), hand));
+            eventManager.post(DefaultInteractNpcEvent.interactNpc(npc, event.getPlayer(), hand));
           }
 
           // don't pass the packet to the server
@@ -394,4 +610,36 @@ public void initialize(@NotNull Platform<Instance, Player, ItemStack, Object> pl
       }
     });
   }
+
+  private static final class CompiledMetadataType {
+
+    private final UnaryOperator<Object> converter;
+    private final Function<Object, Metadata.Entry<?>> metaFactory;
+
+    public CompiledMetadataType(@NotNull Type type) {
+      // check if we need to convert the value before creating the meta object
+      Map.Entry<Type, UnaryOperator<Object>> converter = SERIALIZER_CONVERTERS.get(type);
+      if (converter != null) {
+        type = converter.getKey();
+        this.converter = converter.getValue();
+      } else {
+        this.converter = null;
+      }
+
+      // get the meta factory which is converting the type
+      this.metaFactory = META_ENTRY_FACTORY.get(type);
+      if (this.metaFactory == null) {
+        // unable to handle that
+        throw new IllegalArgumentException("Unsupported type: " + type);
+      }
+    }
+
+    public @NotNull Metadata.Entry<?> createMetadataEntry(@NotNull Object value) {
+      if (this.converter != null) {
+        value = this.converter.apply(value);
+      }
+
+      return this.metaFactory.apply(value);
+    }
+  }
 }
@@ -0,0 +1,123 @@
+/*
+ * This file is part of npc-lib, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022-2023 Julian M., Pasqual K. and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.juliarn.npclib.minestom.track;
+
+import com.github.juliarn.npclib.api.Npc;
+import com.github.juliarn.npclib.api.Platform;
+import com.github.juliarn.npclib.api.Position;
+import com.github.juliarn.npclib.common.CommonNpcTracker;
+import com.github.juliarn.npclib.minestom.util.MinestomUtil;
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.coordinate.Pos;
+import net.minestom.server.entity.Player;
+import net.minestom.server.event.GlobalEventHandler;
+import net.minestom.server.event.instance.InstanceChunkLoadEvent;
+import net.minestom.server.event.instance.InstanceChunkUnloadEvent;
+import net.minestom.server.event.player.PlayerDisconnectEvent;
+import net.minestom.server.event.player.PlayerMoveEvent;
+import net.minestom.server.event.player.PlayerSpawnEvent;
+import net.minestom.server.instance.Instance;
+import net.minestom.server.item.ItemStack;
+import org.jetbrains.annotations.NotNull;
+
+public class MinestomNpcTracker extends CommonNpcTracker<Instance, Player, ItemStack, Object> {
+
+  public MinestomNpcTracker() {
+    super();
+  }
+
+  public MinestomNpcTracker(int spawnsPerTick) {
+    super(spawnsPerTick);
+  }
+
+  @Override
+  public void initialize(@NotNull Platform<Instance, Player, ItemStack, Object> platform) {
+    super.initialize(platform);
+
+    // listen to the player movements to update the visible npcs
+    GlobalEventHandler eventHandler = MinecraftServer.getGlobalEventHandler();
+    eventHandler.addListener(PlayerMoveEvent.class, this::handleMove);
+    eventHandler.addListener(PlayerSpawnEvent.class, this::handleSpawn);
+    eventHandler.addListener(PlayerDisconnectEvent.class, this::handleDisconnect);
+    eventHandler.addListener(InstanceChunkLoadEvent.class, this::handleChunkLoad);
+    eventHandler.addListener(InstanceChunkUnloadEvent.class, this::handleChunkUnload);
+
+    // register the players which are already online
+    for (Player player : MinecraftServer.getConnectionManager().getOnlinePlayers()) {
+      Instance instance = player.getInstance();
+      if (instance != null) {
+        this.updateViewer(player, instance, player.getPosition());
+      }
+    }
+  }
+
+  @Override
+  public double calculateDistance(Player player, Npc<Instance, Player, ItemStack, Object> npc) {
+    return MinestomUtil.distance(npc, player.getPosition());
+  }
+
+  @Override
+  protected boolean isSpawnable(@NotNull Npc<Instance, Player, ItemStack, Object> npc) {
+    Position pos = npc.position();
+    return npc.world().isChunkLoaded(pos.chunkX(), pos.chunkZ());
+  }
+
+  private void handleMove(@NotNull PlayerMoveEvent event) {
+    this.updateViewer(event.getPlayer(), event.getInstance(), event.getNewPosition());
+  }
+
+  private void handleSpawn(@NotNull PlayerSpawnEvent event) {
+    // called for the first spawn and for every instance change of the player
+    Player player = event.getPlayer();
+    this.updateViewer(player, event.getInstance(), player.getPosition());
+  }
+
+  private void handleDisconnect(@NotNull PlayerDisconnectEvent event) {
+    this.removeViewer(event.getPlayer());
+  }
+
+  private void handleChunkLoad(@NotNull InstanceChunkLoadEvent event) {
+    // the npcs in the chunk might be spawnable for the nearby players now
+    for (Npc<Instance, Player, ItemStack, Object> npc : this.npcIndex.npcsInChunk(
+      event.getInstance(),
+      event.getChunkX(),
+      event.getChunkZ())) {
+      this.visibilityEngine.updateNpc(npc);
+    }
+  }
+
+  private void handleChunkUnload(@NotNull InstanceChunkUnloadEvent event) {
+    for (Npc<Instance, Player, ItemStack, Object> npc : this.npcIndex.npcsInChunk(
+      event.getInstance(),
+      event.getChunkX(),
+      event.getChunkZ())) {
+      this.visibilityEngine.hideNpc(npc);
+    }
+  }
+
+  private void updateViewer(@NotNull Player player, @NotNull Instance instance, @NotNull Pos pos) {
+    this.updateViewer(player, instance, pos.x(), pos.y(), pos.z());
+  }
+}